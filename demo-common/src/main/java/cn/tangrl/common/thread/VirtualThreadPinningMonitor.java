@@ -0,0 +1,89 @@
+package cn.tangrl.common.thread;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 虚拟线程固定（pinning）检测
+ * <p>
+ * 通过 JFR 的 jdk.VirtualThreadPinned 事件，发现虚拟线程在 synchronized 块或本地方法中阻塞（例如 JDBC 驱动的 I/O），
+ * 这时载体线程无法释放，虚拟线程退化为平台线程。每个不同的调用栈只输出一次日志，次数全部计入 {@link #getPinnedCount()}。
+ */
+@Slf4j
+public class VirtualThreadPinningMonitor implements AutoCloseable {
+
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+
+    private static final int MAX_FRAMES = 16;
+
+    private final Duration threshold;
+
+    private final LongAdder pinnedCount = new LongAdder();
+
+    private final Set<String> reportedStacks = ConcurrentHashMap.newKeySet();
+
+    private RecordingStream recordingStream;
+
+    public VirtualThreadPinningMonitor(Duration threshold) {
+        this.threshold = threshold;
+    }
+
+    public synchronized void start() {
+        if (recordingStream != null) {
+            return;
+        }
+        recordingStream = new RecordingStream();
+        recordingStream.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+        recordingStream.onEvent(PINNED_EVENT, this::onPinned);
+        recordingStream.startAsync();
+        log.info("Virtual thread pinning monitor started, threshold {} ms", threshold.toMillis());
+    }
+
+    @Override
+    public synchronized void close() {
+        if (recordingStream != null) {
+            recordingStream.close();
+            recordingStream = null;
+        }
+    }
+
+    // 发生固定且超过阈值的次数
+    public long getPinnedCount() {
+        return pinnedCount.sum();
+    }
+
+    void onPinned(RecordedEvent event) {
+        pinnedCount.increment();
+        String stack = format(event.getStackTrace());
+        if (reportedStacks.add(stack)) {
+            log.warn("Virtual thread pinned for {} ms, a synchronized block or native frame is held"
+                + " across a blocking call:\n{}", event.getDuration().toMillis(), stack);
+        }
+    }
+
+    private static String format(RecordedStackTrace stackTrace) {
+        if (stackTrace == null) {
+            return "\t<no stack trace>";
+        }
+        StringBuilder builder = new StringBuilder();
+        List<RecordedFrame> frames = stackTrace.getFrames();
+        for (int i = 0; i < frames.size() && i < MAX_FRAMES; i++) {
+            RecordedFrame frame = frames.get(i);
+            builder.append("\tat ").append(frame.getMethod().getType().getName()).append('.')
+                .append(frame.getMethod().getName()).append(" line ").append(frame.getLineNumber())
+                .append('\n');
+        }
+        if (frames.size() > MAX_FRAMES) {
+            builder.append("\t...\n");
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,33 @@
+package cn.tangrl.common.validation;
+
+import static java.lang.annotation.ElementType.FIELD;
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.ElementType.PARAMETER;
+import static java.lang.annotation.ElementType.TYPE_USE;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+import jakarta.validation.Constraint;
+import jakarta.validation.Payload;
+import java.lang.annotation.Documented;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+/**
+ * 邮箱格式，替代 @Email
+ * <p>
+ * 使用 {@link EmailValidator} 的规则，与 User.isValidEmail 一致；null 视为有效。
+ * 与 Hibernate Validator 的 @Email 相比，本地部分只允许字母、数字和 + _ . -（不允许 ' 等字符和非 ASCII 字符），
+ * 域名部分不校验格式。
+ */
+@Documented
+@Constraint(validatedBy = EmailValidator.class)
+@Target({FIELD, METHOD, PARAMETER, TYPE_USE})
+@Retention(RUNTIME)
+public @interface ValidEmail {
+
+    String message() default "Email should be valid";
+
+    Class<?>[] groups() default {};
+
+    Class<? extends Payload>[] payload() default {};
+}
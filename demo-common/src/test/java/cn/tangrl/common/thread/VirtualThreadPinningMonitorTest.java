@@ -0,0 +1,36 @@
+package cn.tangrl.common.thread;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import org.junit.jupiter.api.Test;
+
+public class VirtualThreadPinningMonitorTest {
+
+    private final Object lock = new Object();
+
+    @Test
+    void testReportsSynchronizedBlockingCall() throws Exception {
+        try (VirtualThreadPinningMonitor monitor = new VirtualThreadPinningMonitor(Duration.ofMillis(10))) {
+            monitor.start();
+
+            // 在 synchronized 块中 sleep，虚拟线程无法从载体线程上卸载
+            Thread.ofVirtual().start(() -> {
+                synchronized (lock) {
+                    try {
+                        Thread.sleep(50);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            }).join();
+
+            // JFR 事件异步投递，最多等待 10 秒
+            long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+            while (monitor.getPinnedCount() == 0 && System.nanoTime() < deadline) {
+                Thread.sleep(100);
+            }
+            assertTrue(monitor.getPinnedCount() > 0, "Pinned virtual thread should be reported");
+        }
+    }
+}
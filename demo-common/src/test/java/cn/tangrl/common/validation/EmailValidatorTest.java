@@ -0,0 +1,147 @@
+package cn.tangrl.common.validation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+import jakarta.validation.constraints.Email;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.regex.Pattern;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+public class EmailValidatorTest {
+
+    // 替换之前 User.isValidEmail 使用的正则
+    private static final Pattern LEGACY = Pattern.compile("^[A-Za-z0-9+_.-]+@(.+)$");
+
+    private static final List<String> CORPUS = List.of(
+        "john.doe@example.com", "john+tag@example.com", "john_doe-1@sub.example.co.uk",
+        "a@b", "A.B@EXAMPLE.COM", "x@localhost", "1234@1.2.3.4", "john@example.com.",
+        "john..doe@example.com", ".john@example.com", "john@@example.com", "john@exa@mple.com",
+        "john@exa mple.com", "john@-example.com", "john@", "@example.com", "", " ", "@",
+        "john.doeexample.com", "john doe@example.com", "o'brien@example.com", "john@example.com\n",
+        "john@example\r.com", "john@example\u2028.com", "john@例子.广告", "用户@example.com",
+        "jöhn@example.com", "john@😀.com", "john\u0000@example.com", "not-an-email");
+
+    private static ValidatorFactory validatorFactory;
+
+    private static Validator validator;
+
+    @BeforeAll
+    static void setUp() {
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        validator = validatorFactory.getValidator();
+    }
+
+    @AfterAll
+    static void tearDown() {
+        validatorFactory.close();
+    }
+
+    @Test
+    void testSameAsLegacyRegexOnCorpus() {
+        for (String email : CORPUS) {
+            assertEquals(LEGACY.matcher(email).matches(), EmailValidator.isValid(email), email);
+        }
+    }
+
+    @Test
+    void testSameAsLegacyRegexOnRandomInput() {
+        // Arrange：从容易触发边界情况的字符中随机组合
+        char[] alphabet = "aZ09+_.-@ '\n\r\u0085\u2028\u2029é中".toCharArray();
+        Random random = new Random(42);
+
+        for (int i = 0; i < 100_000; i++) {
+            char[] chars = new char[random.nextInt(8)];
+            for (int j = 0; j < chars.length; j++) {
+                chars[j] = alphabet[random.nextInt(alphabet.length)];
+            }
+            String email = new String(chars);
+
+            // Act & Assert
+            assertEquals(LEGACY.matcher(email).matches(), EmailValidator.isValid(email), email);
+        }
+    }
+
+    @Test
+    void testNull() {
+        assertFalse(EmailValidator.isValid(null));
+        assertTrue(validator.validateValue(ValidEmailBean.class, "email", null).isEmpty());
+    }
+
+    @Test
+    void testConstraintUsesSameRule() {
+        for (String email : CORPUS) {
+            Set<ConstraintViolation<ValidEmailBean>> violations = validator.validateValue(
+                ValidEmailBean.class, "email", email);
+            assertEquals(EmailValidator.isValid(email), violations.isEmpty(), email);
+        }
+    }
+
+    @Test
+    void testConstraintMessage() {
+        // Arrange
+        ValidEmailBean bean = new ValidEmailBean();
+        bean.email = "john.doeexample.com";
+
+        // Act
+        Set<ConstraintViolation<ValidEmailBean>> violations = validator.validate(bean);
+
+        // Assert
+        assertEquals(1, violations.size());
+        ConstraintViolation<ValidEmailBean> violation = violations.iterator().next();
+        assertEquals("email", violation.getPropertyPath().toString());
+        assertEquals("Email should be valid", violation.getMessage());
+    }
+
+    @Test
+    void testSameAsEmailOnCommonAddresses() {
+        // 常见的地址与替换之前的 @Email 结果相同
+        List<String> common = List.of("john.doe@example.com", "john+tag@example.com",
+            "john_doe-1@sub.example.co.uk", "x@localhost", "john.doeexample.com", "john@",
+            "@example.com", "john doe@example.com", "not-an-email");
+        for (String email : common) {
+            assertEquals(validator.validateValue(EmailBean.class, "email", email).isEmpty(),
+                EmailValidator.isValid(email), email);
+        }
+    }
+
+    @Test
+    void testDifferencesFromEmail() {
+        // 与 @Email 不同的地方：本地部分只允许 ASCII 字母、数字和 + _ . -，域名部分不校验格式
+        List<String> acceptedNow = List.of("john..doe@example.com", ".john@example.com",
+            "john@exa mple.com", "john@-example.com", "john@exa@mple.com", "john@@example.com");
+        List<String> rejectedNow = List.of("o'brien@example.com", "jöhn@example.com",
+            "用户@example.com");
+        for (String email : acceptedNow) {
+            assertFalse(validator.validateValue(EmailBean.class, "email", email).isEmpty(), email);
+            assertTrue(EmailValidator.isValid(email), email);
+        }
+        for (String email : rejectedNow) {
+            assertTrue(validator.validateValue(EmailBean.class, "email", email).isEmpty(), email);
+            assertFalse(EmailValidator.isValid(email), email);
+        }
+    }
+
+    // 与各模块的 User.email 一样使用 @ValidEmail
+    private static class ValidEmailBean {
+
+        @ValidEmail
+        private String email;
+    }
+
+    // 使用 Hibernate Validator 的 @Email 作为对照
+    private static class EmailBean {
+
+        @Email
+        private String email;
+    }
+}
@@ -0,0 +1,73 @@
+package cn.tangrl.i18n.benchmark;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+import cn.tangrl.i18n.I18nApplication;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+/**
+ * 端到端的异常处理：通过 MockMvc 请求 /test/case1、/test/case2、/test/case3
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ErrorHandlingBenchmark {
+
+    private ConfigurableApplicationContext context;
+
+    private MockMvc mockMvc;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(I18nApplication.class)
+            .properties("server.port=0", "logging.level.root=WARN",
+                "logging.level.cn.tangrl.i18n.advice=OFF")
+            .run();
+        mockMvc = MockMvcBuilders.webAppContextSetup((WebApplicationContext) context).build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public byte[] businessException() throws Exception {
+        return mockMvc.perform(get("/test/case1").header("Accept-Language", "zh-CN,zh;q=0.9"))
+            .andReturn().getResponse().getContentAsByteArray();
+    }
+
+    @Benchmark
+    public byte[] annotatedException() throws Exception {
+        return mockMvc.perform(get("/test/case2").header("Accept-Language", "en-US,en;q=0.9"))
+            .andReturn().getResponse().getContentAsByteArray();
+    }
+
+    @Benchmark
+    public byte[] validationException() throws Exception {
+        return mockMvc.perform(post("/test/case3").header("Accept-Language", "zh")
+                .contentType(MediaType.APPLICATION_JSON).content("{}"))
+            .andReturn().getResponse().getContentAsByteArray();
+    }
+}
@@ -0,0 +1,68 @@
+package cn.tangrl.i18n.benchmark;
+
+import cn.tangrl.i18n.utils.I18NLocaleResolver;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+/**
+ * Accept-Language 解析
+ * <p>
+ * cached 为命中缓存的常规路径，negotiate 为每次都解析 q 值（缓存容量为 0），
+ * legacy 为原来直接 new Locale(header) 的实现，作为对照。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LocaleResolverBenchmark {
+
+    @Param({"zh-CN,zh;q=0.9,en;q=0.8", "en-US,en;q=0.9", "fr-FR,fr;q=0.9,en-US;q=0.8,en;q=0.7",
+        "zh"})
+    private String acceptLanguage;
+
+    private MockHttpServletRequest request;
+
+    private I18NLocaleResolver cached;
+
+    private I18NLocaleResolver uncached;
+
+    @Setup
+    public void setUp() {
+        request = new MockHttpServletRequest();
+        request.addHeader("Accept-Language", acceptLanguage);
+        Set<Locale> locales = Set.of(Locale.CHINESE, Locale.ENGLISH);
+        cached = new I18NLocaleResolver(locales);
+        uncached = new I18NLocaleResolver(locales, 0);
+    }
+
+    @Benchmark
+    public Locale cached() {
+        return cached.resolveLocale(request);
+    }
+
+    @Benchmark
+    public Locale negotiate() {
+        return uncached.resolveLocale(request);
+    }
+
+    @Benchmark
+    @SuppressWarnings("deprecation")
+    public Locale legacy() {
+        return new Locale(request.getHeader("Accept-Language"));
+    }
+}
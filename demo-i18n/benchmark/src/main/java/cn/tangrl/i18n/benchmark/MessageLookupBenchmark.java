@@ -0,0 +1,71 @@
+package cn.tangrl.i18n.benchmark;
+
+import cn.tangrl.i18n.utils.MessageCatalog;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.support.ResourceBundleMessageSource;
+
+/**
+ * 消息查询：MessageCatalog 与 Spring Boot 默认的 ResourceBundleMessageSource
+ * <p>
+ * 带参数时 ResourceBundleMessageSource 会走 MessageFormat，MessageCatalog 直接拼接。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MessageLookupBenchmark {
+
+    private static final String KEY = "business.exception";
+
+    private static final Object[] ARGS = {"order-42"};
+
+    private static final Locale LOCALE = Locale.CHINESE;
+
+    private MessageCatalog catalog;
+
+    private ResourceBundleMessageSource resourceBundle;
+
+    @Setup
+    public void setUp() throws IOException {
+        catalog = MessageCatalog.load(StandardCharsets.UTF_8, "i18n/messages",
+            "ValidationMessages");
+        resourceBundle = new ResourceBundleMessageSource();
+        resourceBundle.setBasenames("i18n/messages", "ValidationMessages");
+        resourceBundle.setDefaultEncoding(StandardCharsets.UTF_8.name());
+    }
+
+    @Benchmark
+    public String catalogNoArgs() {
+        return catalog.getMessage(KEY, null, LOCALE);
+    }
+
+    @Benchmark
+    public String catalogWithArgs() {
+        return catalog.getMessage(KEY, ARGS, LOCALE);
+    }
+
+    @Benchmark
+    public String resourceBundleNoArgs() {
+        return resourceBundle.getMessage(KEY, null, LOCALE);
+    }
+
+    @Benchmark
+    public String resourceBundleWithArgs() {
+        return resourceBundle.getMessage(KEY, ARGS, LOCALE);
+    }
+}
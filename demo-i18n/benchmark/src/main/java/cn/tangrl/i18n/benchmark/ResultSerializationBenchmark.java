@@ -0,0 +1,61 @@
+package cn.tangrl.i18n.benchmark;
+
+import cn.tangrl.i18n.message.ErrorResponseCache;
+import cn.tangrl.i18n.message.Result;
+import cn.tangrl.i18n.message.ResultCode;
+import cn.tangrl.i18n.utils.ReloadableMessageCatalog;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * 错误响应序列化：每次用 Jackson 序列化 Result 与直接取预序列化的内容
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResultSerializationBenchmark {
+
+    private static final Locale LOCALE = Locale.CHINESE;
+
+    private ObjectMapper objectMapper;
+
+    private ReloadableMessageCatalog messageCatalog;
+
+    private ErrorResponseCache errorResponseCache;
+
+    @Setup
+    public void setUp() throws IOException {
+        objectMapper = new ObjectMapper();
+        messageCatalog = new ReloadableMessageCatalog(StandardCharsets.UTF_8, "i18n/messages",
+            "ValidationMessages");
+        errorResponseCache = new ErrorResponseCache(objectMapper, messageCatalog);
+    }
+
+    @Benchmark
+    public byte[] jackson() throws IOException {
+        String message = messageCatalog.getMessage(
+            ResultCode.BUSINESS_EXCEPTION.getMessageKey(), null, LOCALE);
+        return objectMapper.writeValueAsBytes(Result.error(message));
+    }
+
+    @Benchmark
+    public byte[] preSerialized() {
+        return errorResponseCache.get(ResultCode.BUSINESS_EXCEPTION, LOCALE);
+    }
+}
@@ -0,0 +1,88 @@
+package cn.tangrl.i18n.benchmark;
+
+import cn.tangrl.i18n.controller.request.UserReq;
+import cn.tangrl.i18n.utils.ReloadableMessageCatalog;
+import cn.tangrl.i18n.validation.CompiledValidatorAdapter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.validation.Errors;
+import org.springframework.validation.beanvalidation.LocalValidatorFactoryBean;
+
+/**
+ * 参数校验：Hibernate Validator 与预先编译的校验器
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ValidatorBenchmark {
+
+    private LocalValidatorFactoryBean hibernateValidator;
+
+    private CompiledValidatorAdapter compiledValidator;
+
+    private UserReq valid;
+
+    private UserReq invalid;
+
+    @Setup
+    public void setUp() throws IOException {
+        hibernateValidator = new LocalValidatorFactoryBean();
+        hibernateValidator.afterPropertiesSet();
+        ReloadableMessageCatalog messageCatalog = new ReloadableMessageCatalog(
+            StandardCharsets.UTF_8, "i18n/messages", "ValidationMessages");
+        compiledValidator = new CompiledValidatorAdapter(hibernateValidator, messageCatalog, false);
+
+        valid = new UserReq();
+        valid.setUsername("admin");
+        valid.setPassword("secret");
+        invalid = new UserReq();
+    }
+
+    @TearDown
+    public void tearDown() {
+        hibernateValidator.close();
+    }
+
+    @Benchmark
+    public Errors hibernateValid() {
+        return validate(hibernateValidator, valid);
+    }
+
+    @Benchmark
+    public Errors hibernateInvalid() {
+        return validate(hibernateValidator, invalid);
+    }
+
+    @Benchmark
+    public Errors compiledValid() {
+        return validate(compiledValidator, valid);
+    }
+
+    @Benchmark
+    public Errors compiledInvalid() {
+        return validate(compiledValidator, invalid);
+    }
+
+    private static Errors validate(org.springframework.validation.Validator validator,
+        UserReq target) {
+        Errors errors = new BeanPropertyBindingResult(target, "userReq");
+        validator.validate(target, errors);
+        return errors;
+    }
+}
@@ -0,0 +1,141 @@
+package cn.tangrl.i18n.advice;
+
+import cn.tangrl.i18n.message.ResultCode;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * 按 ResultCode 对异常日志限流
+ * <p>
+ * 每个响应码每秒最多输出 i18n.exception.log.max-per-second 条日志，其余只计数。
+ * 计数是精确的，可以通过 {@link #getCount(ResultCode)} 和 {@link #snapshot()} 获取。
+ * 每个时间窗口是一个独立的计数对象，窗口到期时用 CAS 整体替换，不会把并发线程在新窗口中的计数清零。
+ * 指标：i18n.exceptions（出现次数）、i18n.exceptions.log.suppressed（被跳过的日志条数），按 code 标签区分响应码。
+ */
+@Component
+public class ExceptionLogSampler {
+
+    private static final long WINDOW_NANOS = 1_000_000_000L;
+
+    private final int maxPerSecond;
+
+    private final LongSupplier nanoTime;
+
+    private final Counter[] counters;
+
+    @Autowired
+    public ExceptionLogSampler(@Value("${i18n.exception.log.max-per-second:10}") int maxPerSecond,
+        MeterRegistry meterRegistry) {
+        this(maxPerSecond, meterRegistry, System::nanoTime);
+    }
+
+    ExceptionLogSampler(int maxPerSecond, MeterRegistry meterRegistry, LongSupplier nanoTime) {
+        this.maxPerSecond = maxPerSecond;
+        this.nanoTime = nanoTime;
+        ResultCode[] codes = ResultCode.values();
+        this.counters = new Counter[codes.length];
+        for (ResultCode code : codes) {
+            Counter counter = new Counter(nanoTime.getAsLong());
+            counters[code.ordinal()] = counter;
+            FunctionCounter.builder("i18n.exceptions", counter.total, LongAdder::sum)
+                .description("Exceptions handled per result code")
+                .tag("code", code.name())
+                .register(meterRegistry);
+            FunctionCounter.builder("i18n.exceptions.log.suppressed", counter.suppressedTotal,
+                    LongAdder::sum)
+                .description("Exception log lines skipped by the per-second limit")
+                .tag("code", code.name())
+                .register(meterRegistry);
+        }
+    }
+
+    /**
+     * 记录一次异常
+     *
+     * @param resultCode 响应码
+     * @return 大于等于 0 表示需要输出日志，值为上次输出后被跳过的次数；-1 表示本次不输出
+     */
+    public long record(ResultCode resultCode) {
+        Counter counter = counters[resultCode.ordinal()];
+        counter.total.increment();
+        long now = nanoTime.getAsLong();
+        Window window = counter.window.get();
+        if (now - window.start >= WINDOW_NANOS) {
+            Window next = new Window(now);
+            // CAS 失败说明其他线程已经开始了新窗口，使用它的计数
+            window = counter.window.compareAndSet(window, next) ? next : counter.window.get();
+        }
+        if (window.logged.incrementAndGet() <= maxPerSecond) {
+            return counter.suppressed.getAndSet(0);
+        }
+        counter.suppressed.incrementAndGet();
+        counter.suppressedTotal.increment();
+        return -1;
+    }
+
+    /**
+     * 响应码出现的总次数
+     */
+    public long getCount(ResultCode resultCode) {
+        return counters[resultCode.ordinal()].total.sum();
+    }
+
+    /**
+     * 响应码被跳过的日志总条数
+     */
+    public long getSuppressedCount(ResultCode resultCode) {
+        return counters[resultCode.ordinal()].suppressedTotal.sum();
+    }
+
+    /**
+     * 所有响应码出现的总次数
+     */
+    public Map<ResultCode, Long> snapshot() {
+        Map<ResultCode, Long> counts = new EnumMap<>(ResultCode.class);
+        for (ResultCode code : ResultCode.values()) {
+            counts.put(code, getCount(code));
+        }
+        return counts;
+    }
+
+    private static final class Counter {
+
+        private final LongAdder total = new LongAdder();
+
+        private final AtomicReference<Window> window;
+
+        /**
+         * 上次输出日志后被跳过的次数，输出时清零
+         */
+        private final AtomicLong suppressed = new AtomicLong();
+
+        /**
+         * 被跳过的总次数，只增不减
+         */
+        private final LongAdder suppressedTotal = new LongAdder();
+
+        private Counter(long now) {
+            this.window = new AtomicReference<>(new Window(now));
+        }
+    }
+
+    private static final class Window {
+
+        private final long start;
+
+        private final AtomicLong logged = new AtomicLong();
+
+        private Window(long start) {
+            this.start = start;
+        }
+    }
+}
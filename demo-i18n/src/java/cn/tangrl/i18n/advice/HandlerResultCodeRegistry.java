@@ -0,0 +1,74 @@
+package cn.tangrl.i18n.advice;
+
+import cn.tangrl.i18n.annotation.I18nApiException;
+import cn.tangrl.i18n.message.ResultCode;
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+
+/**
+ * 接口方法 -> {@link I18nApiException} 指定的响应码
+ * <p>
+ * 启动时根据 RequestMappingHandlerMapping 预先解析所有接口，异常处理时只需要查一次 Map。
+ * 每次请求的 HandlerMethod 实例都不同，所以用底层的 Method 作为 key。
+ * 没有标注注解的接口返回 {@link #DEFAULT_RESULT_CODE}。
+ */
+@Component
+public class HandlerResultCodeRegistry {
+
+    /**
+     * 没有标注 I18nApiException 时使用的响应码
+     */
+    public static final ResultCode DEFAULT_RESULT_CODE = ResultCode.ERROR;
+
+    private final Map<Method, ResultCode> resultCodes = new ConcurrentHashMap<>();
+
+    private final ObjectProvider<RequestMappingHandlerMapping> handlerMappings;
+
+    public HandlerResultCodeRegistry(ObjectProvider<RequestMappingHandlerMapping> handlerMappings) {
+        this.handlerMappings = handlerMappings;
+    }
+
+    /**
+     * 获取接口对应的响应码
+     *
+     * @param handlerMethod 出现异常的接口，可以为 null
+     * @return 响应码
+     */
+    public ResultCode getResultCode(HandlerMethod handlerMethod) {
+        if (handlerMethod == null) {
+            return DEFAULT_RESULT_CODE;
+        }
+        Method method = handlerMethod.getMethod();
+        ResultCode resultCode = resultCodes.get(method);
+        if (resultCode == null) {
+            resultCode = resultCodes.computeIfAbsent(method, key -> resolve(handlerMethod));
+        }
+        return resultCode;
+    }
+
+    /**
+     * 启动完成后预先解析所有接口
+     */
+    @EventListener(ContextRefreshedEvent.class)
+    public void precompute() {
+        handlerMappings.orderedStream().forEach(mapping -> {
+            for (HandlerMethod handlerMethod : mapping.getHandlerMethods().values()) {
+                resultCodes.computeIfAbsent(handlerMethod.getMethod(), key -> resolve(handlerMethod));
+            }
+        });
+    }
+
+    private static ResultCode resolve(HandlerMethod handlerMethod) {
+        I18nApiException annotation = AnnotatedElementUtils.findMergedAnnotation(
+            handlerMethod.getMethod(), I18nApiException.class);
+        return annotation != null ? annotation.value() : DEFAULT_RESULT_CODE;
+    }
+}
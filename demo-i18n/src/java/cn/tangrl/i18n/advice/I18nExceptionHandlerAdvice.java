@@ -1,21 +1,20 @@
 package cn.tangrl.i18n.advice;
 
-import cn.tangrl.i18n.annotation.I18nApiException;
 import cn.tangrl.i18n.exception.BusinessException;
+import cn.tangrl.i18n.message.ErrorResponseCache;
 import cn.tangrl.i18n.message.Result;
 import cn.tangrl.i18n.message.ResultCode;
 import cn.tangrl.i18n.utils.MessageUtil;
-import com.google.common.collect.Lists;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.tomcat.util.buf.StringUtils;
 import org.springframework.core.annotation.Order;
-import org.springframework.http.HttpStatus;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
-import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 import org.springframework.web.method.HandlerMethod;
 
@@ -26,54 +25,91 @@ public class I18nExceptionHandlerAdvice {
 
     private final MessageUtil messageUtil;
 
-    public I18nExceptionHandlerAdvice(MessageUtil messageUtil) {
+    private final ErrorResponseCache errorResponseCache;
+
+    private final ExceptionLogSampler exceptionLogSampler;
+
+    private final HandlerResultCodeRegistry handlerResultCodeRegistry;
+
+    public I18nExceptionHandlerAdvice(MessageUtil messageUtil,
+        ErrorResponseCache errorResponseCache, ExceptionLogSampler exceptionLogSampler,
+        HandlerResultCodeRegistry handlerResultCodeRegistry) {
         this.messageUtil = messageUtil;
+        this.errorResponseCache = errorResponseCache;
+        this.exceptionLogSampler = exceptionLogSampler;
+        this.handlerResultCodeRegistry = handlerResultCodeRegistry;
     }
 
     /**
-     * 处理自定义业务异常
+     * 处理自定义业务异常，直接写入预序列化的响应
      * @param e
-     * @return
+     * @param response
      */
     @ExceptionHandler(BusinessException.class)
-    public Result<?> handleServiceException(BusinessException e) {
-        log.error("Handler Exception: ", e);
-        ResultCode resultCode = e.getResultCode();
-        String localizedMessage = MessageUtil.getMessage(resultCode.getMessageKey());
-        return Result.error(localizedMessage);
+    public void handleServiceException(BusinessException e, HttpServletResponse response)
+        throws IOException {
+        logException(e.getResultCode(), e);
+        errorResponseCache.write(response, e.getResultCode());
     }
 
     /**
-     * 处理对象类型参数校验异常
+     * 处理对象类型参数校验异常，result 中返回 字段 -> 错误消息
+     * 校验消息已由 CatalogMessageInterpolator 按语言环境解析，这里只做拼接，每个字段只保留第一条错误
      *
      * @param e
      * @return
      */
     @ExceptionHandler(MethodArgumentNotValidException.class)
-    public Result<String> handleMethodArgumentNotValidException(MethodArgumentNotValidException e) {
-        List<String> errors = e.getBindingResult()
-            .getFieldErrors()
-            .stream()
-            .map(FieldError::getDefaultMessage)
-            .collect(Collectors.toList());
-
-        String error = String.join(",", errors);
-        log.info("MethodArgumentNotValidException: {}", error);
-        return Result.error(error);
+    public Result<Map<String, String>> handleMethodArgumentNotValidException(
+        MethodArgumentNotValidException e) {
+        List<FieldError> fieldErrors = e.getBindingResult().getFieldErrors();
+        Map<String, String> errors = new LinkedHashMap<>(fieldErrors.size() * 2);
+        StringBuilder message = new StringBuilder();
+        for (int i = 0; i < fieldErrors.size(); i++) {
+            FieldError fieldError = fieldErrors.get(i);
+            String defaultMessage = fieldError.getDefaultMessage();
+            if (errors.putIfAbsent(fieldError.getField(), defaultMessage) != null) {
+                continue;
+            }
+            if (!message.isEmpty()) {
+                message.append(',');
+            }
+            message.append(defaultMessage);
+        }
+        String error = message.toString();
+        log.debug("MethodArgumentNotValidException: {}", error);
+        return Result.error(error, errors);
     }
 
     /**
      * 处理注解的异常，用来兜底，定义未定义的异常消息，返回给前端
+     * 没有标注 I18nApiException 的接口使用 HandlerResultCodeRegistry.DEFAULT_RESULT_CODE
      * @param e
      * @param method
-     * @return
+     * @param response
      */
     @ExceptionHandler(Exception.class)
-    public Result<Object> exceptionHandler(Exception e, HandlerMethod method) {
-        I18nApiException annotation = method.getMethodAnnotation(I18nApiException.class);
-        log.error("Handler Exception: ", e);
-        ResultCode resultCode = annotation.value();
-        String localizedMessage = MessageUtil.getMessage(resultCode.getMessageKey());
-        return Result.error(localizedMessage);
+    public void exceptionHandler(Exception e, HandlerMethod method, HttpServletResponse response)
+        throws IOException {
+        ResultCode resultCode = handlerResultCodeRegistry.getResultCode(method);
+        logException(resultCode, e);
+        errorResponseCache.write(response, resultCode);
+    }
+
+    /**
+     * 按响应码限流输出异常日志
+     * @param resultCode
+     * @param e
+     */
+    private void logException(ResultCode resultCode, Exception e) {
+        long suppressed = exceptionLogSampler.record(resultCode);
+        if (suppressed < 0) {
+            return;
+        }
+        if (suppressed > 0) {
+            log.error("Handler Exception ({} similar suppressed): ", suppressed, e);
+        } else {
+            log.error("Handler Exception: ", e);
+        }
     }
 }
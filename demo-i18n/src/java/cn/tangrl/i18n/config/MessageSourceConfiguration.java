@@ -0,0 +1,71 @@
+package cn.tangrl.i18n.config;
+
+import cn.tangrl.i18n.utils.MessageBundleWatcher;
+import cn.tangrl.i18n.utils.ReloadableMessageCatalog;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.support.AbstractApplicationContext;
+import org.springframework.util.StringUtils;
+
+@Configuration
+public class MessageSourceConfiguration {
+
+    /**
+     * Bean Validation 的消息文件，由 MessageSourceMessageInterpolator 通过 MessageSource 解析
+     */
+    private static final String VALIDATION_MESSAGES = "ValidationMessages";
+
+    /**
+     * 使用启动时构建的消息目录替代 ResourceBundleMessageSource
+     * 配置了 i18n.messages.reload.dir 时，该目录中的同名文件优先于 classpath 中的文件
+     * @param basename
+     * @param encoding
+     * @param reloadDir
+     * @return
+     */
+    @Bean(AbstractApplicationContext.MESSAGE_SOURCE_BEAN_NAME)
+    public ReloadableMessageCatalog messageSource(
+        @Value("${spring.messages.basename:messages}") String basename,
+        @Value("${spring.messages.encoding:UTF-8}") Charset encoding,
+        @Value("${i18n.messages.reload.dir:}") String reloadDir) throws IOException {
+        List<String> classpathBasenames = new ArrayList<>();
+        for (String name : StringUtils.commaDelimitedListToStringArray(
+            StringUtils.trimAllWhitespace(basename))) {
+            classpathBasenames.add(name);
+        }
+        classpathBasenames.add(VALIDATION_MESSAGES);
+
+        List<String> basenames = new ArrayList<>();
+        if (StringUtils.hasText(reloadDir)) {
+            Path directory = Path.of(reloadDir).toAbsolutePath();
+            for (String name : classpathBasenames) {
+                basenames.add(directory.resolve(StringUtils.getFilename(name)).toUri().toString());
+            }
+        }
+        basenames.addAll(classpathBasenames);
+        return new ReloadableMessageCatalog(encoding, basenames.toArray(new String[0]));
+    }
+
+    /**
+     * 监听外部资源文件目录，修改后自动重新加载
+     * @param messageSource
+     * @param reloadDir
+     * @param debounceMillis
+     * @return
+     */
+    @Bean(initMethod = "start", destroyMethod = "close")
+    @ConditionalOnProperty(prefix = "i18n.messages.reload", name = "dir")
+    public MessageBundleWatcher messageBundleWatcher(ReloadableMessageCatalog messageSource,
+        @Value("${i18n.messages.reload.dir}") String reloadDir,
+        @Value("${i18n.messages.reload.debounce-millis:200}") long debounceMillis) {
+        return new MessageBundleWatcher(Path.of(reloadDir).toAbsolutePath(), messageSource,
+            debounceMillis);
+    }
+}
@@ -0,0 +1,50 @@
+package cn.tangrl.i18n.config;
+
+import cn.tangrl.i18n.utils.CatalogMessageInterpolator;
+import cn.tangrl.i18n.utils.ReloadableMessageCatalog;
+import cn.tangrl.i18n.validation.CompiledValidatorAdapter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.validation.MessageInterpolatorFactory;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.validation.beanvalidation.LocalValidatorFactoryBean;
+
+@Configuration
+public class ValidationConfiguration {
+
+    /**
+     * 替换默认的 Validator
+     * 1. "{key}" 形式的消息直接从消息目录中获取
+     * 2. 开启 i18n.validation.fail-fast 后遇到第一个校验错误就返回
+     * @param applicationContext
+     * @param messageCatalog
+     * @param failFast
+     * @return
+     */
+    @Bean
+    public LocalValidatorFactoryBean defaultValidator(ApplicationContext applicationContext,
+        ReloadableMessageCatalog messageCatalog,
+        @Value("${i18n.validation.fail-fast:false}") boolean failFast) {
+        LocalValidatorFactoryBean factoryBean = new LocalValidatorFactoryBean();
+        factoryBean.setMessageInterpolator(new CatalogMessageInterpolator(messageCatalog,
+            new MessageInterpolatorFactory(applicationContext).getObject()));
+        factoryBean.getValidationPropertyMap()
+            .put("hibernate.validator.fail_fast", String.valueOf(failFast));
+        return factoryBean;
+    }
+
+    /**
+     * Spring MVC 使用的 Validator，简单的 DTO 使用预先编译的校验器
+     * @param defaultValidator
+     * @param messageCatalog
+     * @param failFast
+     * @return
+     */
+    @Bean
+    public CompiledValidatorAdapter compiledValidator(LocalValidatorFactoryBean defaultValidator,
+        ReloadableMessageCatalog messageCatalog,
+        @Value("${i18n.validation.fail-fast:false}") boolean failFast) {
+        return new CompiledValidatorAdapter(defaultValidator, messageCatalog, failFast);
+    }
+}
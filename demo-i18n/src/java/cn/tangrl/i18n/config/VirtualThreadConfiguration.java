@@ -0,0 +1,51 @@
+package cn.tangrl.i18n.config;
+
+import cn.tangrl.common.thread.VirtualThreadPinningMonitor;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.scheduling.annotation.AsyncAnnotationBeanPostProcessor;
+import org.springframework.scheduling.annotation.EnableAsync;
+
+/**
+ * 虚拟线程模式
+ * <p>
+ * 配置 i18n.virtual-threads.enabled=true 后：
+ * 1. Tomcat 使用虚拟线程处理请求，请求中的阻塞调用也在虚拟线程上执行；
+ * 2. 开启 @Async，@Async 任务使用虚拟线程执行；
+ * 3. 启动 {@link VirtualThreadPinningMonitor}，报告持有 synchronized 锁时发生阻塞导致的线程固定（pinning）。
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "i18n.virtual-threads.enabled", havingValue = "true")
+@EnableAsync
+public class VirtualThreadConfiguration {
+
+    // Tomcat 请求处理线程池替换为每个请求一个虚拟线程
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandlerCustomizer() {
+        return protocolHandler -> protocolHandler.setExecutor(
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("tomcat-vt-", 0).factory()));
+    }
+
+    // @Async 和 Spring MVC 异步请求使用的执行器
+    @Bean(name = {TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME,
+        AsyncAnnotationBeanPostProcessor.DEFAULT_TASK_EXECUTOR_BEAN_NAME})
+    public AsyncTaskExecutor applicationTaskExecutor() {
+        return new TaskExecutorAdapter(
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("task-vt-", 0).factory()));
+    }
+
+    @Bean(initMethod = "start", destroyMethod = "close")
+    @ConditionalOnProperty(name = "i18n.virtual-threads.pinning-monitor.enabled", matchIfMissing = true)
+    public VirtualThreadPinningMonitor virtualThreadPinningMonitor(
+        @Value("${i18n.virtual-threads.pinning-monitor.threshold-millis:20}") long thresholdMillis) {
+        return new VirtualThreadPinningMonitor(Duration.ofMillis(thresholdMillis));
+    }
+}
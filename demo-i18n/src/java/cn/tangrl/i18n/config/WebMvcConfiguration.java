@@ -1,20 +1,40 @@
 package cn.tangrl.i18n.config;
 
 import cn.tangrl.i18n.utils.I18NLocaleResolver;
+import cn.tangrl.i18n.utils.ReloadableMessageCatalog;
+import cn.tangrl.i18n.validation.CompiledValidatorAdapter;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.validation.Validator;
 import org.springframework.web.servlet.LocaleResolver;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
 @Configuration
 public class WebMvcConfiguration implements WebMvcConfigurer {
 
+    @Autowired
+    private CompiledValidatorAdapter compiledValidator;
+
+    /**
+     * 请求参数校验使用预先编译的校验器
+     * @return
+     */
+    @Override
+    public Validator getValidator() {
+        return compiledValidator;
+    }
+
     /**
-     * 获取LocaleResolver
+     * 获取LocaleResolver，只协商存在资源文件的 Locale，资源文件重新加载后同步更新
+     * @param messageCatalog
      * @return
      */
     @Bean
-    public LocaleResolver localeResolver() {
-        return new I18NLocaleResolver();
+    public LocaleResolver localeResolver(ReloadableMessageCatalog messageCatalog) {
+        I18NLocaleResolver localeResolver = new I18NLocaleResolver(messageCatalog.getLocales());
+        messageCatalog.addReloadListener(
+            catalog -> localeResolver.setSupportedLocales(catalog.getLocales()));
+        return localeResolver;
     }
 }
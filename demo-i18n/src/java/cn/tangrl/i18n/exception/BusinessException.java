@@ -17,13 +17,14 @@ public final class BusinessException extends RuntimeException {
     private final ResultCode resultCode;
 
     /**
-     * 构造函数
+     * 构造函数，StackTracePolicy 中配置的响应码不记录异常栈
      *
      * @param resultCode 响应码
      */
     public BusinessException(ResultCode resultCode) {
         // 使用ResultCode的名字作为异常消息
-        super(resultCode.getDefaultMessage());
+        super(resultCode.getDefaultMessage(), null, false,
+            !StackTracePolicy.isStackless(resultCode));
         this.resultCode = resultCode;
     }
 
@@ -0,0 +1,32 @@
+package cn.tangrl.i18n.exception;
+
+import cn.tangrl.i18n.message.ResultCode;
+import java.util.EnumSet;
+import java.util.Set;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * 控制哪些 ResultCode 的 BusinessException 不记录异常栈
+ * <p>
+ * BusinessException 主要用于业务流程控制，异常栈没有排查价值，跳过 fillInStackTrace 可以大幅降低抛出的开销。
+ * 通过 i18n.exception.stackless-codes 配置，多个响应码用逗号分隔。
+ */
+@Component
+public class StackTracePolicy {
+
+    private static volatile Set<ResultCode> stacklessCodes = EnumSet.noneOf(ResultCode.class);
+
+    public static boolean isStackless(ResultCode resultCode) {
+        return stacklessCodes.contains(resultCode);
+    }
+
+    @Value("${i18n.exception.stackless-codes:}")
+    public void setStacklessCodes(Set<ResultCode> codes) {
+        Set<ResultCode> copy = EnumSet.noneOf(ResultCode.class);
+        if (codes != null) {
+            copy.addAll(codes);
+        }
+        stacklessCodes = copy;
+    }
+}
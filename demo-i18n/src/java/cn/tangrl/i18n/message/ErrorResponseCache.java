@@ -0,0 +1,113 @@
+package cn.tangrl.i18n.message;
+
+import cn.tangrl.i18n.utils.ReloadableMessageCatalog;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.context.i18n.LocaleContextHolder;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+/**
+ * 预序列化的错误响应
+ * <p>
+ * 同一个 (ResultCode, Locale) 的错误响应内容总是相同的，这里把 Result 提前序列化成 UTF-8 JSON，
+ * 异常处理时直接写入响应，不再创建 Result 对象，也不经过 Jackson 的反射序列化。
+ * 消息目录重新加载后整体替换缓存。
+ */
+@Component
+public class ErrorResponseCache {
+
+    /**
+     * 缓存的 Locale 数量上限，超过后不再缓存，直接序列化
+     */
+    private static final int MAX_LOCALES = 64;
+
+    private static final ResultCode[] RESULT_CODES = ResultCode.values();
+
+    private final ObjectMapper objectMapper;
+
+    private final ReloadableMessageCatalog messageCatalog;
+
+    /**
+     * Locale -> 按 ResultCode.ordinal() 排列的响应内容
+     */
+    private volatile Map<Locale, byte[][]> responses = new ConcurrentHashMap<>();
+
+    public ErrorResponseCache(ObjectMapper objectMapper, ReloadableMessageCatalog messageCatalog) {
+        this.objectMapper = objectMapper;
+        this.messageCatalog = messageCatalog;
+        preload(messageCatalog.getLocales());
+        preload(Set.of(Locale.getDefault()));
+        messageCatalog.addReloadListener(catalog -> {
+            responses = new ConcurrentHashMap<>();
+            preload(catalog.getLocales());
+            preload(Set.of(Locale.getDefault()));
+        });
+    }
+
+    /**
+     * 获取预序列化的响应内容
+     *
+     * @param resultCode 响应码
+     * @param locale     语言环境
+     * @return UTF-8 JSON
+     */
+    public byte[] get(ResultCode resultCode, Locale locale) {
+        Map<Locale, byte[][]> current = responses;
+        byte[][] bodies = current.get(locale);
+        if (bodies == null) {
+            if (current.size() >= MAX_LOCALES) {
+                return render(resultCode, locale);
+            }
+            bodies = current.computeIfAbsent(locale, this::renderAll);
+        }
+        return bodies[resultCode.ordinal()];
+    }
+
+    /**
+     * 把当前语言环境下的错误响应写入 response
+     *
+     * @param response   响应
+     * @param resultCode 响应码
+     */
+    public void write(HttpServletResponse response, ResultCode resultCode) throws IOException {
+        byte[] body = get(resultCode, LocaleContextHolder.getLocale());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+
+    /**
+     * 提前生成指定语言环境的响应
+     */
+    public void preload(Iterable<Locale> locales) {
+        Map<Locale, byte[][]> current = responses;
+        for (Locale locale : locales) {
+            current.computeIfAbsent(locale, this::renderAll);
+        }
+    }
+
+    private byte[][] renderAll(Locale locale) {
+        byte[][] bodies = new byte[RESULT_CODES.length][];
+        for (ResultCode resultCode : RESULT_CODES) {
+            bodies[resultCode.ordinal()] = render(resultCode, locale);
+        }
+        return bodies;
+    }
+
+    private byte[] render(ResultCode resultCode, Locale locale) {
+        String localizedMessage = messageCatalog.getMessage(resultCode.getMessageKey(), null,
+            resultCode.getDefaultMessage(), locale);
+        try {
+            return objectMapper.writeValueAsBytes(Result.error(localizedMessage));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to render error response: " + resultCode, e);
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package cn.tangrl.i18n.utils;
+
+import jakarta.validation.MessageInterpolator;
+import java.util.Locale;
+import org.springframework.context.i18n.LocaleContextHolder;
+
+/**
+ * 校验消息插值器
+ * <p>
+ * message = "{username_not_empty}" 这类只包含一个消息 key 的模板，直接返回消息目录中当前语言环境预先加载的消息，
+ * 不经过 Hibernate Validator 的模板解析；其他模板交给默认的插值器处理。
+ */
+public class CatalogMessageInterpolator implements MessageInterpolator {
+
+    private final ReloadableMessageCatalog messageCatalog;
+
+    private final MessageInterpolator delegate;
+
+    public CatalogMessageInterpolator(ReloadableMessageCatalog messageCatalog,
+        MessageInterpolator delegate) {
+        this.messageCatalog = messageCatalog;
+        this.delegate = delegate;
+    }
+
+    @Override
+    public String interpolate(String messageTemplate, Context context) {
+        return interpolate(messageTemplate, context, LocaleContextHolder.getLocale());
+    }
+
+    @Override
+    public String interpolate(String messageTemplate, Context context, Locale locale) {
+        String message = lookup(messageTemplate, locale);
+        return message != null ? message : delegate.interpolate(messageTemplate, context, locale);
+    }
+
+    private String lookup(String messageTemplate, Locale locale) {
+        int last = messageTemplate.length() - 1;
+        if (last < 2 || messageTemplate.charAt(0) != '{' || messageTemplate.charAt(last) != '}'
+            || messageTemplate.indexOf('{', 1) > 0 || messageTemplate.indexOf('}') < last) {
+            return null;
+        }
+        String message = messageCatalog.getRawMessage(messageTemplate.substring(1, last), locale);
+        // 消息中仍包含 {} 或 ${} 表达式时需要继续插值
+        if (message == null || message.indexOf('{') >= 0) {
+            return null;
+        }
+        return message;
+    }
+}
@@ -1,26 +1,81 @@
 package cn.tangrl.i18n.utils;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Locale;
+import java.util.Locale.LanguageRange;
+import java.util.Map;
+import java.util.Set;
 import org.springframework.util.StringUtils;
 import org.springframework.web.servlet.LocaleResolver;
 
 public class I18NLocaleResolver implements LocaleResolver {
 
+    /**
+     * 缓存的请求头数量上限，防止大量不同的请求头撑大内存
+     */
+    public static final int DEFAULT_CACHE_SIZE = 256;
+
+    /**
+     * 超过该长度的请求头不缓存
+     */
+    private static final int MAX_CACHED_HEADER_LENGTH = 128;
+
+    /**
+     * 支持的 Locale，key 为语言标签（例如 zh、en-US），value 为共享的 Locale 实例
+     */
+    private volatile Map<String, Locale> supportedLocales;
+
+    /**
+     * Accept-Language 请求头 -> Locale 的解析结果，超过容量时淘汰最近较少使用的请求头
+     * <p>
+     * 替换支持的 Locale 时整体换成新的缓存，旧缓存上正在进行的解析不会写入新缓存
+     */
+    private volatile Cache<String, Locale> cache;
+
+    private final int cacheSize;
+
+    /**
+     * 构造函数
+     *
+     * @param supportedLocales 存在资源文件的 Locale
+     */
+    public I18NLocaleResolver(Set<Locale> supportedLocales) {
+        this(supportedLocales, DEFAULT_CACHE_SIZE);
+    }
+
+    public I18NLocaleResolver(Set<Locale> supportedLocales, int cacheSize) {
+        this.supportedLocales = index(supportedLocales);
+        this.cacheSize = cacheSize;
+        this.cache = newCache(cacheSize);
+    }
+
+    /**
+     * 替换支持的 Locale，并清空已缓存的解析结果
+     *
+     * @param supportedLocales 存在资源文件的 Locale
+     */
+    public void setSupportedLocales(Set<Locale> supportedLocales) {
+        this.supportedLocales = index(supportedLocales);
+        this.cache = newCache(cacheSize);
+    }
+
     @Override
     public Locale resolveLocale(HttpServletRequest httpServletRequest) {
         //获取请求中的语言参数
         String language = httpServletRequest.getHeader("Accept-Language");
-        Locale locale;
-        if (StringUtils.hasText(language)) {
-            // 如果请求头中携带了国际化的参数，创建对应的 Locale 对象
-            locale = new Locale(language);
-        } else {
+        if (!StringUtils.hasText(language)) {
             //如果没有，使用默认的 Locale 对象（根据主机的语言环境生成一个 Locale ）。
-            locale = Locale.getDefault();
+            return Locale.getDefault();
+        }
+        if (language.length() > MAX_CACHED_HEADER_LENGTH) {
+            return negotiate(language);
         }
-        return locale;
+        return cache.get(language, this::negotiate);
     }
 
     @Override
@@ -28,4 +83,63 @@ public class I18NLocaleResolver implements LocaleResolver {
         HttpServletResponse httpServletResponse, Locale locale) {
 
     }
-}
\ No newline at end of file
+
+    /**
+     * 按 q 值从高到低匹配支持的 Locale，先匹配完整标签，再匹配语言
+     *
+     * @param header Accept-Language 请求头，例如 zh-CN,zh;q=0.9,en;q=0.8
+     * @return 匹配到的 Locale，没有匹配时返回默认 Locale
+     */
+    Locale negotiate(String header) {
+        List<LanguageRange> ranges;
+        try {
+            ranges = LanguageRange.parse(header);
+        } catch (IllegalArgumentException e) {
+            // 格式错误的请求头按没有携带处理
+            return Locale.getDefault();
+        }
+        Map<String, Locale> locales = supportedLocales;
+        // parse 返回的结果已按 q 值降序排列
+        for (LanguageRange range : ranges) {
+            if (range.getWeight() <= 0) {
+                break;
+            }
+            String tag = range.getRange();
+            if ("*".equals(tag)) {
+                continue;
+            }
+            Locale locale = locales.get(tag);
+            if (locale == null) {
+                int dash = tag.indexOf('-');
+                if (dash > 0) {
+                    locale = locales.get(tag.substring(0, dash));
+                }
+            }
+            if (locale != null) {
+                return locale;
+            }
+        }
+        return Locale.getDefault();
+    }
+
+    /**
+     * 当前缓存的请求头数量（测试用）
+     */
+    long cachedHeaderCount() {
+        Cache<String, Locale> current = cache;
+        current.cleanUp();
+        return current.estimatedSize();
+    }
+
+    private static Cache<String, Locale> newCache(int cacheSize) {
+        return Caffeine.newBuilder().maximumSize(cacheSize).build();
+    }
+
+    private static Map<String, Locale> index(Set<Locale> supportedLocales) {
+        Map<String, Locale> locales = new HashMap<>();
+        for (Locale locale : supportedLocales) {
+            locales.put(locale.toLanguageTag().toLowerCase(Locale.ROOT), locale);
+        }
+        return Map.copyOf(locales);
+    }
+}
@@ -0,0 +1,103 @@
+package cn.tangrl.i18n.utils;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 监听外部资源文件目录，文件变化后在后台线程重新加载消息目录
+ * <p>
+ * 同一批文件修改会产生多个事件，收到事件后等待一段时间没有新事件再重新加载。
+ */
+@Slf4j
+public class MessageBundleWatcher implements AutoCloseable {
+
+    private final Path directory;
+
+    private final ReloadableMessageCatalog messageCatalog;
+
+    private final long debounceMillis;
+
+    private WatchService watchService;
+
+    private Thread thread;
+
+    public MessageBundleWatcher(Path directory, ReloadableMessageCatalog messageCatalog,
+        long debounceMillis) {
+        this.directory = directory;
+        this.messageCatalog = messageCatalog;
+        this.debounceMillis = debounceMillis;
+    }
+
+    /**
+     * 开始监听
+     */
+    public synchronized void start() throws IOException {
+        if (thread != null) {
+            return;
+        }
+        if (!Files.isDirectory(directory)) {
+            log.warn("Message bundle directory {} does not exist, hot reload is disabled", directory);
+            return;
+        }
+        watchService = FileSystems.getDefault().newWatchService();
+        directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+            StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+        thread = new Thread(this::run, "i18n-bundle-watcher");
+        thread.setDaemon(true);
+        thread.start();
+        log.info("Watching {} for message bundle changes", directory);
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (watchService != null) {
+            watchService.close();
+        }
+        if (thread != null) {
+            thread.interrupt();
+            thread = null;
+        }
+    }
+
+    private void run() {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                WatchKey key = watchService.take();
+                boolean changed = drain(key);
+                // 合并短时间内的连续修改
+                WatchKey next;
+                while ((next = watchService.poll(debounceMillis, TimeUnit.MILLISECONDS)) != null) {
+                    changed |= drain(next);
+                }
+                if (changed) {
+                    messageCatalog.reload();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ClosedWatchServiceException e) {
+            // 关闭时正常退出
+        }
+    }
+
+    private static boolean drain(WatchKey key) {
+        boolean changed = false;
+        for (var event : key.pollEvents()) {
+            Object context = event.context();
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW
+                || context != null && context.toString().endsWith(".properties")) {
+                changed = true;
+            }
+        }
+        key.reset();
+        return changed;
+    }
+}
@@ -0,0 +1,404 @@
+package cn.tangrl.i18n.utils;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import org.springframework.context.MessageSource;
+import org.springframework.context.MessageSourceResolvable;
+import org.springframework.context.NoSuchMessageException;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.EncodedResource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.core.io.support.PropertiesLoaderUtils;
+import org.springframework.core.io.support.ResourcePatternResolver;
+import org.springframework.util.StringUtils;
+
+/**
+ * 启动时预编译的国际化消息目录
+ * <p>
+ * 一次性加载所有 basename 对应的 properties 文件，按 (Locale, key) 构建不可变的映射并预解析消息模板。
+ * 查询时只做 Map 读取，不加锁，也不会为每次调用创建 MessageFormat。
+ * 查找顺序：basename 优先，同一个 basename 内 完整 Locale -> 语言 -> 根文件。
+ * 只有请求的 Locale 及其语言都没有资源文件时，才整体使用系统默认 Locale（再没有则使用根文件）的消息；
+ * 与 ResourceBundleMessageSource 不同，已有资源文件的 Locale 缺少某个 key 时直接回退到根文件，不会逐个 key 查找系统默认 Locale。
+ */
+public final class MessageCatalog implements MessageSource {
+
+    /**
+     * 已解析的 Locale -> (key -> 模板)，包含回退链合并后的结果
+     */
+    private final Map<Locale, Map<String, MessageTemplate>> byLocale;
+
+    /**
+     * 只按语言匹配的映射，避免查询时创建新的 Locale 对象
+     */
+    private final Map<String, Map<String, MessageTemplate>> byLanguage;
+
+    /**
+     * 没有匹配的 Locale 时使用的映射（系统默认 Locale 或根文件）
+     */
+    private final Map<String, MessageTemplate> fallback;
+
+    private MessageCatalog(Map<Locale, Map<String, MessageTemplate>> byLocale,
+        Map<String, MessageTemplate> fallback) {
+        this.byLocale = byLocale;
+        this.fallback = fallback;
+        Map<String, Map<String, MessageTemplate>> languages = new HashMap<>();
+        for (Map.Entry<Locale, Map<String, MessageTemplate>> entry : byLocale.entrySet()) {
+            Locale locale = entry.getKey();
+            if (!locale.getLanguage().isEmpty() && locale.getCountry().isEmpty()
+                && locale.getVariant().isEmpty()) {
+                languages.put(locale.getLanguage(), entry.getValue());
+            }
+        }
+        this.byLanguage = Map.copyOf(languages);
+    }
+
+    /**
+     * 从 classpath 加载目录
+     *
+     * @param charset   properties 文件编码
+     * @param basenames 资源 basename，例如 i18n/messages、ValidationMessages，越靠前优先级越高
+     * @return 消息目录
+     */
+    public static MessageCatalog load(Charset charset, String... basenames) throws IOException {
+        return load(new PathMatchingResourcePatternResolver(), charset, basenames);
+    }
+
+    /**
+     * 从指定位置加载目录
+     *
+     * @param resolver  资源解析器
+     * @param charset   properties 文件编码
+     * @param basenames 资源 basename，可以带 file: 等前缀
+     * @return 消息目录
+     */
+    public static MessageCatalog load(ResourcePatternResolver resolver, Charset charset,
+        String... basenames) throws IOException {
+        List<Map<Locale, Properties>> bundles = new ArrayList<>(basenames.length);
+        for (String basename : basenames) {
+            bundles.add(loadBundle(resolver, charset, basename));
+        }
+        return of(bundles);
+    }
+
+    /**
+     * 根据已读取的文件内容构建目录
+     *
+     * @param bundles 每个 basename 的 Locale -> 内容，越靠前优先级越高
+     * @return 消息目录
+     */
+    public static MessageCatalog of(List<Map<Locale, Properties>> bundles) {
+        Set<Locale> locales = new LinkedHashSet<>();
+        for (Map<Locale, Properties> bundle : bundles) {
+            locales.addAll(bundle.keySet());
+        }
+        locales.add(Locale.ROOT);
+
+        Map<Locale, Map<String, MessageTemplate>> byLocale = new HashMap<>();
+        for (Locale locale : locales) {
+            byLocale.put(locale, merge(bundles, locale));
+        }
+
+        // 与 fallbackToSystemLocale 的行为一致，找不到时优先使用系统默认 Locale 的消息
+        Locale systemLocale = Locale.getDefault();
+        Map<String, MessageTemplate> fallback = byLocale.get(systemLocale);
+        if (fallback == null) {
+            fallback = byLocale.get(Locale.of(systemLocale.getLanguage()));
+        }
+        if (fallback == null) {
+            fallback = byLocale.get(Locale.ROOT);
+        }
+        return new MessageCatalog(Map.copyOf(byLocale), fallback);
+    }
+
+    /**
+     * 目录中存在资源文件的 Locale（不包含根文件）
+     */
+    public Set<Locale> getLocales() {
+        Set<Locale> locales = new LinkedHashSet<>(byLocale.keySet());
+        locales.remove(Locale.ROOT);
+        return Collections.unmodifiableSet(locales);
+    }
+
+    /**
+     * 获取未格式化的原始消息
+     *
+     * @return 找不到时返回 null
+     */
+    public String getRawMessage(String code, Locale locale) {
+        MessageTemplate template = find(code, locale);
+        return template != null ? template.raw : null;
+    }
+
+    @Override
+    public String getMessage(String code, Object[] args, String defaultMessage, Locale locale) {
+        MessageTemplate template = find(code, locale);
+        if (template != null) {
+            return template.render(args, locale, this);
+        }
+        if (defaultMessage == null) {
+            return null;
+        }
+        return MessageTemplate.compile(defaultMessage).render(args, locale, this);
+    }
+
+    @Override
+    public String getMessage(String code, Object[] args, Locale locale)
+        throws NoSuchMessageException {
+        MessageTemplate template = find(code, locale);
+        if (template == null) {
+            throw new NoSuchMessageException(code, locale);
+        }
+        return template.render(args, locale, this);
+    }
+
+    @Override
+    public String getMessage(MessageSourceResolvable resolvable, Locale locale)
+        throws NoSuchMessageException {
+        String[] codes = resolvable.getCodes();
+        if (codes != null) {
+            for (String code : codes) {
+                MessageTemplate template = find(code, locale);
+                if (template != null) {
+                    return template.render(resolvable.getArguments(), locale, this);
+                }
+            }
+        }
+        String defaultMessage = resolvable.getDefaultMessage();
+        if (defaultMessage != null) {
+            return MessageTemplate.compile(defaultMessage)
+                .render(resolvable.getArguments(), locale, this);
+        }
+        String code = codes != null && codes.length > 0 ? codes[codes.length - 1] : "";
+        throw new NoSuchMessageException(code, locale);
+    }
+
+    private MessageTemplate find(String code, Locale locale) {
+        if (code == null) {
+            return null;
+        }
+        Map<String, MessageTemplate> messages = locale != null ? byLocale.get(locale) : null;
+        if (messages == null && locale != null) {
+            messages = byLanguage.get(locale.getLanguage());
+        }
+        if (messages == null) {
+            messages = fallback;
+        }
+        return messages.get(code);
+    }
+
+    /**
+     * 合并某个 Locale 的回退链：basename 优先，同一个 basename 内 完整 Locale > 语言 > 根文件
+     */
+    private static Map<String, MessageTemplate> merge(List<Map<Locale, Properties>> bundles,
+        Locale locale) {
+        List<Locale> chain = new ArrayList<>(3);
+        chain.add(Locale.ROOT);
+        if (!locale.getLanguage().isEmpty()) {
+            Locale language = Locale.of(locale.getLanguage());
+            chain.add(language);
+            if (!language.equals(locale)) {
+                chain.add(locale);
+            }
+        }
+
+        Map<String, MessageTemplate> merged = new HashMap<>();
+        for (int i = bundles.size() - 1; i >= 0; i--) {
+            Map<Locale, Properties> bundle = bundles.get(i);
+            Map<String, String> messages = new HashMap<>();
+            for (Locale candidate : chain) {
+                Properties properties = bundle.get(candidate);
+                if (properties != null) {
+                    for (String key : properties.stringPropertyNames()) {
+                        messages.put(key, properties.getProperty(key));
+                    }
+                }
+            }
+            for (Map.Entry<String, String> entry : messages.entrySet()) {
+                merged.put(entry.getKey(), MessageTemplate.compile(entry.getValue()));
+            }
+        }
+        return Map.copyOf(merged);
+    }
+
+    private static Map<Locale, Properties> loadBundle(ResourcePatternResolver resolver,
+        Charset charset, String basename) throws IOException {
+        String location = basename;
+        String prefix = "";
+        int colon = basename.indexOf(':');
+        if (colon > 0 && !basename.startsWith("classpath")) {
+            prefix = basename.substring(0, colon + 1);
+            location = basename.substring(colon + 1);
+        } else if (colon > 0) {
+            location = basename.substring(colon + 1);
+        }
+        String pattern = (prefix.isEmpty() ? ResourcePatternResolver.CLASSPATH_ALL_URL_PREFIX
+            : prefix) + location + "*.properties";
+        String name = StringUtils.getFilename(location);
+
+        Map<Locale, Properties> bundle = new LinkedHashMap<>();
+        for (Resource resource : resolver.getResources(pattern)) {
+            String filename = resource.getFilename();
+            if (filename == null || !resource.exists()) {
+                continue;
+            }
+            String suffix = filename.substring(name.length(),
+                filename.length() - ".properties".length());
+            Locale locale;
+            if (suffix.isEmpty()) {
+                locale = Locale.ROOT;
+            } else if (suffix.charAt(0) == '_') {
+                locale = StringUtils.parseLocale(suffix.substring(1));
+            } else {
+                // messagesXXX.properties 之类不属于这个 basename 的文件
+                continue;
+            }
+            Properties properties = bundle.computeIfAbsent(locale, key -> new Properties());
+            PropertiesLoaderUtils.fillProperties(properties, new EncodedResource(resource, charset));
+        }
+        return bundle;
+    }
+
+    /**
+     * 预解析的消息模板
+     * <p>
+     * 只包含文本和 {0} 这类简单参数时，直接拼接字符串；带格式的参数（例如 {0,number}）
+     * 或非字符串参数才回退到 MessageFormat，保证输出与 MessageFormat 一致。
+     */
+    static final class MessageTemplate {
+
+        private final String raw;
+
+        /**
+         * 文本片段为 String，参数占位为 Integer
+         */
+        private final Object[] parts;
+
+        /**
+         * 模板中是否存在需要 MessageFormat 处理的复杂参数
+         */
+        private final boolean complex;
+
+        private final int length;
+
+        private MessageTemplate(String raw, Object[] parts, boolean complex) {
+            this.raw = raw;
+            this.parts = parts;
+            this.complex = complex;
+            int total = 0;
+            if (parts != null) {
+                for (Object part : parts) {
+                    total += part instanceof String text ? text.length() : 8;
+                }
+            }
+            this.length = total;
+        }
+
+        static MessageTemplate compile(String pattern) {
+            List<Object> parts = new ArrayList<>();
+            StringBuilder text = new StringBuilder();
+            boolean quoted = false;
+            int i = 0;
+            while (i < pattern.length()) {
+                char c = pattern.charAt(i);
+                if (c == '\'') {
+                    if (i + 1 < pattern.length() && pattern.charAt(i + 1) == '\'') {
+                        text.append('\'');
+                        i += 2;
+                        continue;
+                    }
+                    quoted = !quoted;
+                    i++;
+                    continue;
+                }
+                if (c == '{' && !quoted) {
+                    int end = pattern.indexOf('}', i);
+                    String argument = end > i ? pattern.substring(i + 1, end).trim() : "";
+                    if (argument.isEmpty() || !isDigits(argument)) {
+                        return new MessageTemplate(pattern, null, true);
+                    }
+                    if (!text.isEmpty()) {
+                        parts.add(text.toString());
+                        text.setLength(0);
+                    }
+                    parts.add(Integer.valueOf(argument));
+                    i = end + 1;
+                    continue;
+                }
+                text.append(c);
+                i++;
+            }
+            if (!text.isEmpty()) {
+                parts.add(text.toString());
+            }
+            return new MessageTemplate(pattern, parts.toArray(), false);
+        }
+
+        String render(Object[] args, Locale locale, MessageSource messageSource) {
+            // 与 AbstractMessageSource 一致：没有参数时直接返回原始消息，不做格式化
+            if (args == null || args.length == 0) {
+                return raw;
+            }
+            if (complex || !isPlain(args)) {
+                return format(args, locale, messageSource);
+            }
+            StringBuilder builder = new StringBuilder(length);
+            for (Object part : parts) {
+                if (part instanceof Integer index) {
+                    if (index < args.length) {
+                        builder.append(args[index]);
+                    } else {
+                        builder.append('{').append(index).append('}');
+                    }
+                } else {
+                    builder.append((String) part);
+                }
+            }
+            return builder.toString();
+        }
+
+        private String format(Object[] args, Locale locale, MessageSource messageSource) {
+            Object[] resolved = args;
+            for (int i = 0; i < args.length; i++) {
+                if (args[i] instanceof MessageSourceResolvable resolvable) {
+                    if (resolved == args) {
+                        resolved = args.clone();
+                    }
+                    resolved[i] = messageSource.getMessage(resolvable, locale);
+                }
+            }
+            MessageFormat messageFormat = new MessageFormat(raw,
+                locale != null ? locale : Locale.getDefault());
+            return messageFormat.format(resolved);
+        }
+
+        private static boolean isPlain(Object[] args) {
+            for (Object arg : args) {
+                if (arg != null && !(arg instanceof CharSequence)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static boolean isDigits(String value) {
+            for (int i = 0; i < value.length(); i++) {
+                if (!Character.isDigit(value.charAt(i))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package cn.tangrl.i18n.utils;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.MessageSource;
+import org.springframework.context.MessageSourceResolvable;
+import org.springframework.context.NoSuchMessageException;
+
+/**
+ * 可以热更新的消息目录
+ * <p>
+ * 请求线程只读取 AtomicReference 中当前的 {@link MessageCatalog}，不会加锁也不会访问文件系统。
+ * {@link #reload()} 在后台线程重新构建目录，成功后用一次引用替换发布，失败时保留旧的目录。
+ */
+@Slf4j
+public class ReloadableMessageCatalog implements MessageSource {
+
+    private final Charset charset;
+
+    private final String[] basenames;
+
+    private final AtomicReference<MessageCatalog> catalog;
+
+    private final List<Consumer<MessageCatalog>> listeners = new CopyOnWriteArrayList<>();
+
+    private final AtomicLong reloadCount = new AtomicLong();
+
+    private final AtomicLong failureCount = new AtomicLong();
+
+    private volatile long lastReloadNanos;
+
+    private volatile long lastReloadTimestamp;
+
+    private volatile String lastFailure;
+
+    /**
+     * 构造函数，同步加载第一份目录
+     *
+     * @param charset   properties 文件编码
+     * @param basenames 资源 basename，越靠前优先级越高
+     */
+    public ReloadableMessageCatalog(Charset charset, String... basenames) throws IOException {
+        this.charset = charset;
+        this.basenames = basenames.clone();
+        this.catalog = new AtomicReference<>(MessageCatalog.load(charset, this.basenames));
+        this.lastReloadTimestamp = System.currentTimeMillis();
+    }
+
+    /**
+     * 当前使用的目录
+     */
+    public MessageCatalog current() {
+        return catalog.get();
+    }
+
+    /**
+     * 重新加载资源文件并替换当前目录
+     *
+     * @return 是否成功
+     */
+    public boolean reload() {
+        long start = System.nanoTime();
+        MessageCatalog reloaded;
+        try {
+            reloaded = MessageCatalog.load(charset, basenames);
+        } catch (IOException | RuntimeException e) {
+            failureCount.incrementAndGet();
+            lastFailure = e.toString();
+            log.warn("Failed to reload message catalog, keeping the previous one", e);
+            return false;
+        }
+        catalog.set(reloaded);
+        lastReloadNanos = System.nanoTime() - start;
+        lastReloadTimestamp = System.currentTimeMillis();
+        reloadCount.incrementAndGet();
+        for (Consumer<MessageCatalog> listener : listeners) {
+            try {
+                listener.accept(reloaded);
+            } catch (RuntimeException e) {
+                log.warn("Message catalog reload listener failed", e);
+            }
+        }
+        log.info("Reloaded message catalog in {} ms", lastReloadNanos / 1_000_000);
+        return true;
+    }
+
+    /**
+     * 注册目录替换后的回调，在执行 reload 的线程中调用
+     */
+    public void addReloadListener(Consumer<MessageCatalog> listener) {
+        listeners.add(listener);
+    }
+
+    public Set<Locale> getLocales() {
+        return catalog.get().getLocales();
+    }
+
+    public String getRawMessage(String code, Locale locale) {
+        return catalog.get().getRawMessage(code, locale);
+    }
+
+    /**
+     * 成功重新加载的次数
+     */
+    public long getReloadCount() {
+        return reloadCount.get();
+    }
+
+    /**
+     * 重新加载失败的次数
+     */
+    public long getFailureCount() {
+        return failureCount.get();
+    }
+
+    /**
+     * 最近一次成功加载的耗时（纳秒）
+     */
+    public long getLastReloadNanos() {
+        return lastReloadNanos;
+    }
+
+    /**
+     * 最近一次成功加载的时间戳（毫秒）
+     */
+    public long getLastReloadTimestamp() {
+        return lastReloadTimestamp;
+    }
+
+    /**
+     * 最近一次失败的原因，没有失败过时为 null
+     */
+    public String getLastFailure() {
+        return lastFailure;
+    }
+
+    @Override
+    public String getMessage(String code, Object[] args, String defaultMessage, Locale locale) {
+        return catalog.get().getMessage(code, args, defaultMessage, locale);
+    }
+
+    @Override
+    public String getMessage(String code, Object[] args, Locale locale)
+        throws NoSuchMessageException {
+        return catalog.get().getMessage(code, args, locale);
+    }
+
+    @Override
+    public String getMessage(MessageSourceResolvable resolvable, Locale locale)
+        throws NoSuchMessageException {
+        return catalog.get().getMessage(resolvable, locale);
+    }
+}
@@ -0,0 +1,92 @@
+package cn.tangrl.i18n.validation;
+
+import cn.tangrl.i18n.utils.ReloadableMessageCatalog;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.context.i18n.LocaleContextHolder;
+import org.springframework.validation.Errors;
+import org.springframework.validation.SmartValidator;
+import org.springframework.validation.beanvalidation.SpringValidatorAdapter;
+
+/**
+ * Spring MVC 使用的 Validator
+ * <p>
+ * 能够编译的 DTO 使用 {@link CompiledValidator} 校验，其他类型、指定了分组或者消息无法直接获取时
+ * 交给默认的 Bean Validation 校验器，两者返回的字段和消息相同。
+ * 是否能够编译由默认校验器的约束元数据决定，见 {@link CompiledValidator#compile}。
+ */
+public class CompiledValidatorAdapter implements SmartValidator {
+
+    private final SpringValidatorAdapter delegate;
+
+    private final ReloadableMessageCatalog messageCatalog;
+
+    private final boolean failFast;
+
+    /**
+     * 类 -> 编译后的校验器，不支持的类为 Optional.empty()
+     */
+    private final Map<Class<?>, Optional<CompiledValidator>> validators = new ConcurrentHashMap<>();
+
+    public CompiledValidatorAdapter(SpringValidatorAdapter delegate,
+        ReloadableMessageCatalog messageCatalog, boolean failFast) {
+        this.delegate = delegate;
+        this.messageCatalog = messageCatalog;
+        this.failFast = failFast;
+    }
+
+    @Override
+    public boolean supports(Class<?> clazz) {
+        return delegate.supports(clazz);
+    }
+
+    @Override
+    public void validate(Object target, Errors errors) {
+        CompiledValidator validator = getValidator(target);
+        if (validator == null || !validator.validate(target, errors, messageCatalog,
+            LocaleContextHolder.getLocale(), failFast)) {
+            delegate.validate(target, errors);
+        }
+    }
+
+    @Override
+    public void validate(Object target, Errors errors, Object... validationHints) {
+        if (validationHints.length > 0) {
+            delegate.validate(target, errors, validationHints);
+            return;
+        }
+        validate(target, errors);
+    }
+
+    @Override
+    public void validateValue(Class<?> targetType, String fieldName, Object value, Errors errors,
+        Object... validationHints) {
+        delegate.validateValue(targetType, fieldName, value, errors, validationHints);
+    }
+
+    /**
+     * 是否已为该类型生成编译后的校验器
+     */
+    public boolean isCompiled(Class<?> clazz) {
+        return validators.computeIfAbsent(clazz,
+            key -> Optional.ofNullable(compile(key))).isPresent();
+    }
+
+    private CompiledValidator compile(Class<?> clazz) {
+        return CompiledValidator.compile(clazz, delegate.getConstraintsForClass(clazz));
+    }
+
+    private CompiledValidator getValidator(Object target) {
+        if (target == null) {
+            return null;
+        }
+        Class<?> clazz = target.getClass();
+        Optional<CompiledValidator> validator = validators.get(clazz);
+        if (validator == null) {
+            validator = validators.computeIfAbsent(clazz,
+                key -> Optional.ofNullable(compile(key)));
+        }
+        return validator.orElse(null);
+    }
+}
@@ -0,0 +1,127 @@
+package cn.tangrl.i18n.advice;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import cn.tangrl.i18n.message.ResultCode;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class ExceptionLogSamplerTest {
+
+    private final AtomicLong now = new AtomicLong();
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private ExceptionLogSampler sampler;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        sampler = new ExceptionLogSampler(2, meterRegistry, now::get);
+    }
+
+    @Test
+    void testLimitPerWindow() {
+        // Act & Assert - 每秒前 2 条输出，其余跳过
+        assertEquals(0, sampler.record(ResultCode.ERROR));
+        assertEquals(0, sampler.record(ResultCode.ERROR));
+        assertEquals(-1, sampler.record(ResultCode.ERROR));
+        assertEquals(-1, sampler.record(ResultCode.ERROR));
+        // 其他响应码单独计数
+        assertEquals(0, sampler.record(ResultCode.BUSINESS_EXCEPTION));
+    }
+
+    @Test
+    void testNextWindowReportsSuppressedCount() {
+        // Arrange
+        for (int i = 0; i < 5; i++) {
+            sampler.record(ResultCode.ERROR);
+        }
+
+        // Act - 进入下一个时间窗口
+        now.addAndGet(1_000_000_000L);
+        long first = sampler.record(ResultCode.ERROR);
+        long second = sampler.record(ResultCode.ERROR);
+
+        // Assert - 第一条日志带上之前跳过的次数
+        assertEquals(3, first);
+        assertEquals(0, second);
+        assertEquals(-1, sampler.record(ResultCode.ERROR));
+        assertEquals(8, sampler.getCount(ResultCode.ERROR));
+        assertEquals(4, sampler.getSuppressedCount(ResultCode.ERROR));
+    }
+
+    @Test
+    void testSameWindowDoesNotReset() {
+        // Arrange
+        sampler.record(ResultCode.ERROR);
+        sampler.record(ResultCode.ERROR);
+
+        // Act - 窗口内的时间推进不开始新窗口
+        now.addAndGet(999_999_999L);
+
+        // Assert
+        assertEquals(-1, sampler.record(ResultCode.ERROR));
+    }
+
+    @Test
+    void testConcurrentWindowSwitchKeepsLimit() throws Exception {
+        // Arrange - 所有线程在同一时刻进入新窗口
+        sampler.record(ResultCode.ERROR);
+        now.addAndGet(1_000_000_000L);
+        int threads = 8;
+        int perThread = 1000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Integer>> futures = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                int logged = 0;
+                for (int j = 0; j < perThread; j++) {
+                    if (sampler.record(ResultCode.ERROR) >= 0) {
+                        logged++;
+                    }
+                }
+                return logged;
+            }));
+        }
+
+        // Act
+        start.countDown();
+        int logged = 0;
+        for (Future<Integer> future : futures) {
+            logged += future.get();
+        }
+        executor.shutdown();
+
+        // Assert - 窗口只切换一次，新窗口内最多输出 2 条
+        assertEquals(2, logged);
+        assertEquals(threads * perThread - 2,
+            sampler.getSuppressedCount(ResultCode.ERROR));
+    }
+
+    @Test
+    void testMetrics() {
+        // Arrange
+        for (int i = 0; i < 5; i++) {
+            sampler.record(ResultCode.BUSINESS_EXCEPTION);
+        }
+
+        // Act & Assert
+        assertEquals(5, meterRegistry.get("i18n.exceptions")
+            .tag("code", "BUSINESS_EXCEPTION").functionCounter().count());
+        assertEquals(3, meterRegistry.get("i18n.exceptions.log.suppressed")
+            .tag("code", "BUSINESS_EXCEPTION").functionCounter().count());
+        assertEquals(0, meterRegistry.get("i18n.exceptions")
+            .tag("code", "ERROR").functionCounter().count());
+    }
+}
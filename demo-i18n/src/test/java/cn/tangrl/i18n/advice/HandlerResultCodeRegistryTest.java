@@ -0,0 +1,90 @@
+package cn.tangrl.i18n.advice;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import cn.tangrl.i18n.annotation.I18nApiException;
+import cn.tangrl.i18n.message.ResultCode;
+import java.util.Map;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.mvc.method.RequestMappingInfo;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+
+public class HandlerResultCodeRegistryTest {
+
+    private RequestMappingHandlerMapping handlerMapping;
+
+    private HandlerResultCodeRegistry registry;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        handlerMapping = mock(RequestMappingHandlerMapping.class);
+        ObjectProvider<RequestMappingHandlerMapping> handlerMappings = mock(ObjectProvider.class);
+        when(handlerMappings.orderedStream()).thenAnswer(invocation -> Stream.of(handlerMapping));
+        registry = new HandlerResultCodeRegistry(handlerMappings);
+    }
+
+    @Test
+    void testAnnotatedAndPlainHandlers() throws Exception {
+        // Act & Assert
+        assertEquals(ResultCode.BUSINESS_EXCEPTION,
+            registry.getResultCode(handler(new Handlers(), "annotated")));
+        assertEquals(HandlerResultCodeRegistry.DEFAULT_RESULT_CODE,
+            registry.getResultCode(handler(new Handlers(), "plain")));
+        assertEquals(HandlerResultCodeRegistry.DEFAULT_RESULT_CODE, registry.getResultCode(null));
+    }
+
+    @Test
+    void testAnnotationOnOverriddenMethod() throws Exception {
+        // Act & Assert - 子类重写的方法继承父类方法上的注解
+        assertEquals(ResultCode.BUSINESS_EXCEPTION,
+            registry.getResultCode(handler(new SubHandlers(), "annotated")));
+    }
+
+    @Test
+    void testPrecomputeResolvesMappedHandlers() throws Exception {
+        // Arrange
+        HandlerMethod annotated = handler(new Handlers(), "annotated");
+        when(handlerMapping.getHandlerMethods()).thenReturn(Map.of(
+            RequestMappingInfo.paths("/annotated").build(), annotated,
+            RequestMappingInfo.paths("/plain").build(), handler(new Handlers(), "plain")));
+
+        // Act
+        registry.precompute();
+
+        // Assert - 每次请求的 HandlerMethod 实例不同，按底层 Method 命中预先解析的结果
+        verify(handlerMapping, times(1)).getHandlerMethods();
+        assertEquals(ResultCode.BUSINESS_EXCEPTION,
+            registry.getResultCode(handler(new Handlers(), "annotated")));
+        assertEquals(ResultCode.ERROR, registry.getResultCode(handler(new Handlers(), "plain")));
+    }
+
+    private static HandlerMethod handler(Object bean, String name) throws NoSuchMethodException {
+        return new HandlerMethod(bean, bean.getClass().getMethod(name));
+    }
+
+    public static class Handlers {
+
+        @I18nApiException(ResultCode.BUSINESS_EXCEPTION)
+        public void annotated() {
+        }
+
+        public void plain() {
+        }
+    }
+
+    public static class SubHandlers extends Handlers {
+
+        @Override
+        public void annotated() {
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package cn.tangrl.i18n.advice;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mockito.Mockito.mock;
+
+import cn.tangrl.i18n.controller.TestController;
+import cn.tangrl.i18n.controller.request.UserReq;
+import cn.tangrl.i18n.message.ErrorResponseCache;
+import cn.tangrl.i18n.message.Result;
+import cn.tangrl.i18n.utils.MessageUtil;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.MethodParameter;
+import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.web.bind.MethodArgumentNotValidException;
+
+public class I18nExceptionHandlerAdviceTest {
+
+    private I18nExceptionHandlerAdvice advice;
+
+    @BeforeEach
+    void setUp() {
+        advice = new I18nExceptionHandlerAdvice(mock(MessageUtil.class),
+            mock(ErrorResponseCache.class), mock(ExceptionLogSampler.class),
+            mock(HandlerResultCodeRegistry.class));
+    }
+
+    @Test
+    void testFieldMessagesInErrorOrder() throws Exception {
+        // Arrange
+        BeanPropertyBindingResult bindingResult = new BeanPropertyBindingResult(new UserReq(),
+            "userReq");
+        bindingResult.rejectValue("username", "NotEmpty", "账号不能为空");
+        bindingResult.rejectValue("password", "NotEmpty", "密码不能为空");
+
+        // Act
+        Result<Map<String, String>> result = advice.handleMethodArgumentNotValidException(
+            exception(bindingResult));
+
+        // Assert - result 中按错误顺序返回 字段 -> 消息，message 为逗号拼接的所有消息
+        assertFalse(result.isSuccess());
+        assertEquals(500, result.getCode());
+        assertEquals("账号不能为空,密码不能为空", result.getMessage());
+        assertEquals(List.of("username", "password"), List.copyOf(result.getResult().keySet()));
+        assertEquals("账号不能为空", result.getResult().get("username"));
+        assertEquals("密码不能为空", result.getResult().get("password"));
+    }
+
+    @Test
+    void testOnlyFirstMessagePerField() throws Exception {
+        // Arrange - 同一个字段有多条错误
+        BeanPropertyBindingResult bindingResult = new BeanPropertyBindingResult(new UserReq(),
+            "userReq");
+        bindingResult.rejectValue("password", "NotEmpty", "密码不能为空");
+        bindingResult.rejectValue("password", "Size", "密码长度不足");
+        bindingResult.rejectValue("username", "NotEmpty", "账号不能为空");
+
+        // Act
+        Result<Map<String, String>> result = advice.handleMethodArgumentNotValidException(
+            exception(bindingResult));
+
+        // Assert
+        assertEquals("密码不能为空,账号不能为空", result.getMessage());
+        assertEquals(Map.of("password", "密码不能为空", "username", "账号不能为空"),
+            result.getResult());
+    }
+
+    @Test
+    void testGlobalErrorsAreIgnored() throws Exception {
+        // Arrange - 只有对象级别的错误
+        BeanPropertyBindingResult bindingResult = new BeanPropertyBindingResult(new UserReq(),
+            "userReq");
+        bindingResult.reject("invalid", "对象错误");
+
+        // Act
+        Result<Map<String, String>> result = advice.handleMethodArgumentNotValidException(
+            exception(bindingResult));
+
+        // Assert
+        assertEquals("", result.getMessage());
+        assertEquals(Map.of(), result.getResult());
+    }
+
+    private static MethodArgumentNotValidException exception(
+        BeanPropertyBindingResult bindingResult) throws NoSuchMethodException {
+        MethodParameter parameter = new MethodParameter(
+            TestController.class.getMethod("login", UserReq.class), 0);
+        return new MethodArgumentNotValidException(parameter, bindingResult);
+    }
+}
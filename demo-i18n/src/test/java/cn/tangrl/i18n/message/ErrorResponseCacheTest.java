@@ -0,0 +1,116 @@
+package cn.tangrl.i18n.message;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import cn.tangrl.i18n.utils.ReloadableMessageCatalog;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.context.i18n.LocaleContextHolder;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+public class ErrorResponseCacheTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @TempDir
+    private Path dir;
+
+    private ReloadableMessageCatalog messageCatalog;
+
+    private ErrorResponseCache errorResponseCache;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        write("messages.properties", "error=error\nbusiness.exception=business exception\n");
+        write("messages_zh.properties", "error=错误\nbusiness.exception=业务逻辑异常\n");
+        messageCatalog = new ReloadableMessageCatalog(StandardCharsets.UTF_8,
+            dir.toUri() + "messages");
+        errorResponseCache = new ErrorResponseCache(objectMapper, messageCatalog);
+    }
+
+    @AfterEach
+    void tearDown() {
+        LocaleContextHolder.resetLocaleContext();
+    }
+
+    @Test
+    void testBodyMatchesSerializedResult() throws Exception {
+        // Act & Assert - 与 Jackson 序列化 Result.error 的结果逐字节相同
+        assertArrayEquals(objectMapper.writeValueAsBytes(Result.error("业务逻辑异常")),
+            errorResponseCache.get(ResultCode.BUSINESS_EXCEPTION, Locale.CHINESE));
+        assertArrayEquals(objectMapper.writeValueAsBytes(Result.error("business exception")),
+            errorResponseCache.get(ResultCode.BUSINESS_EXCEPTION, Locale.ROOT));
+        // 资源文件中没有的 key 使用 ResultCode 的默认消息
+        assertArrayEquals(objectMapper.writeValueAsBytes(Result.error("success")),
+            errorResponseCache.get(ResultCode.SUCCESS, Locale.CHINESE));
+    }
+
+    @Test
+    void testBodiesAreReused() {
+        // Act & Assert - 同一个 (ResultCode, Locale) 返回同一个数组，未预加载的 Locale 第一次访问后缓存
+        assertSame(errorResponseCache.get(ResultCode.ERROR, Locale.CHINESE),
+            errorResponseCache.get(ResultCode.ERROR, Locale.CHINESE));
+        Locale french = Locale.FRENCH;
+        assertSame(errorResponseCache.get(ResultCode.ERROR, french),
+            errorResponseCache.get(ResultCode.ERROR, french));
+    }
+
+    @Test
+    void testLocalesBeyondLimitAreStillRendered() throws Exception {
+        // Arrange - 超过 MAX_LOCALES 个不同的 Locale
+        for (int i = 0; i < 100; i++) {
+            errorResponseCache.get(ResultCode.ERROR, Locale.of("x" + i));
+        }
+
+        // Act
+        byte[] body = errorResponseCache.get(ResultCode.ERROR, Locale.of("zh", "TW"));
+
+        // Assert - 不再缓存但内容正确
+        assertArrayEquals(objectMapper.writeValueAsBytes(Result.error("错误")), body);
+    }
+
+    @Test
+    void testWriteUsesCurrentLocale() throws Exception {
+        // Arrange
+        LocaleContextHolder.setLocale(Locale.CHINESE);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // Act
+        errorResponseCache.write(response, ResultCode.ERROR);
+
+        // Assert
+        byte[] expected = objectMapper.writeValueAsBytes(Result.error("错误"));
+        assertEquals(MediaType.APPLICATION_JSON_VALUE, response.getContentType());
+        assertEquals(expected.length, response.getContentLength());
+        assertArrayEquals(expected, response.getContentAsByteArray());
+    }
+
+    @Test
+    void testReloadReplacesBodies() throws Exception {
+        // Arrange
+        byte[] before = errorResponseCache.get(ResultCode.ERROR, Locale.CHINESE);
+        write("messages_zh.properties", "error=系统错误\n");
+
+        // Act
+        messageCatalog.reload();
+
+        // Assert
+        assertArrayEquals(objectMapper.writeValueAsBytes(Result.error("错误")), before);
+        assertArrayEquals(objectMapper.writeValueAsBytes(Result.error("系统错误")),
+            errorResponseCache.get(ResultCode.ERROR, Locale.CHINESE));
+    }
+
+    private void write(String filename, String content) throws Exception {
+        Files.writeString(dir.resolve(filename), content, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,110 @@
+package cn.tangrl.i18n.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Locale;
+import java.util.Set;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+public class I18NLocaleResolverTest {
+
+    private static final Locale ZH_CN = Locale.of("zh", "CN");
+
+    private Locale defaultLocale;
+
+    private I18NLocaleResolver resolver;
+
+    @BeforeEach
+    void setUp() {
+        defaultLocale = Locale.getDefault();
+        Locale.setDefault(Locale.ENGLISH);
+        resolver = new I18NLocaleResolver(Set.of(Locale.ENGLISH, Locale.CHINESE, ZH_CN), 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        Locale.setDefault(defaultLocale);
+    }
+
+    @Test
+    void testHighestQValueWins() {
+        // Act & Assert - 与请求头中的顺序无关，按 q 值从高到低匹配
+        assertSame(Locale.ENGLISH, resolver.negotiate("fr;q=0.9,zh;q=0.5,en;q=0.8"));
+        assertSame(ZH_CN, resolver.negotiate("zh-CN,zh;q=0.9,en;q=0.8"));
+    }
+
+    @Test
+    void testFullTagThenLanguage() {
+        // Act & Assert - zh-TW 不支持时匹配语言 zh，大小写不敏感
+        assertSame(Locale.CHINESE, resolver.negotiate("zh-TW"));
+        assertSame(ZH_CN, resolver.negotiate("ZH-cn"));
+    }
+
+    @Test
+    void testZeroWeightWildcardAndUnsupported() {
+        // Act & Assert - q=0 表示不接受，* 和不支持的语言使用默认 Locale
+        assertEquals(Locale.getDefault(), resolver.negotiate("zh;q=0,fr"));
+        assertEquals(Locale.getDefault(), resolver.negotiate("*"));
+        assertEquals(Locale.getDefault(), resolver.negotiate("de-DE,fr;q=0.5"));
+    }
+
+    @Test
+    void testMalformedHeaderUsesDefault() {
+        // Act & Assert
+        assertEquals(Locale.getDefault(), resolver.negotiate("zh;q=abc"));
+        assertEquals(Locale.getDefault(), resolver.resolveLocale(request(null)));
+    }
+
+    @Test
+    void testCacheIsBounded() {
+        // Act - 容量为 2，解析大量不同的请求头
+        for (int i = 0; i < 100; i++) {
+            String header = String.format("zh,en;q=0.%03d", i + 1);
+            assertSame(Locale.CHINESE, resolver.resolveLocale(request(header)));
+        }
+
+        // Assert - 超出容量的请求头被淘汰，而不是停止缓存
+        assertTrue(resolver.cachedHeaderCount() <= 2);
+        assertSame(ZH_CN, resolver.resolveLocale(request("zh-CN")));
+        assertSame(ZH_CN, resolver.resolveLocale(request("zh-CN")));
+    }
+
+    @Test
+    void testLongHeadersAreNotCached() {
+        // Arrange
+        String header = "en;q=0.1," + "fr;q=0.5,".repeat(20) + "zh";
+
+        // Act
+        Locale locale = resolver.resolveLocale(request(header));
+
+        // Assert
+        assertSame(Locale.CHINESE, locale);
+        assertEquals(0, resolver.cachedHeaderCount());
+    }
+
+    @Test
+    void testSetSupportedLocalesDropsCachedResults() {
+        // Arrange
+        assertSame(Locale.CHINESE, resolver.resolveLocale(request("zh-TW")));
+
+        // Act
+        Locale zhTw = Locale.of("zh", "TW");
+        resolver.setSupportedLocales(Set.of(Locale.ENGLISH, Locale.CHINESE, zhTw));
+
+        // Assert - 重新加载后按新的 Locale 协商
+        assertEquals(zhTw, resolver.resolveLocale(request("zh-TW")));
+    }
+
+    private static MockHttpServletRequest request(String acceptLanguage) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        if (acceptLanguage != null) {
+            request.addHeader("Accept-Language", acceptLanguage);
+        }
+        return request;
+    }
+}
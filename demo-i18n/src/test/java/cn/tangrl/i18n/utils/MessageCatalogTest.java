@@ -0,0 +1,143 @@
+package cn.tangrl.i18n.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.NoSuchMessageException;
+import org.springframework.context.support.DefaultMessageSourceResolvable;
+
+public class MessageCatalogTest {
+
+    private static final Locale ZH_CN = Locale.of("zh", "CN");
+
+    private Locale defaultLocale;
+
+    private MessageCatalog catalog;
+
+    @BeforeEach
+    void setUp() {
+        defaultLocale = Locale.getDefault();
+        Locale.setDefault(Locale.ENGLISH);
+
+        Map<Locale, Properties> messages = Map.of(
+            Locale.ROOT, properties("greeting", "hello {0}", "root.only", "root",
+                "shared", "messages root"),
+            Locale.ENGLISH, properties("greeting", "Hello, {0}!", "count", "{0,number} users"),
+            Locale.CHINESE, properties("greeting", "你好，{0}", "language.only", "中文"),
+            ZH_CN, properties("greeting", "您好，{0}", "quoted", "'{0}' 的值是 ''{1}''"));
+        Map<Locale, Properties> validation = Map.of(
+            Locale.ROOT, properties("shared", "validation root", "validation.only", "校验"),
+            Locale.CHINESE, properties("greeting", "校验消息"));
+        catalog = MessageCatalog.of(List.of(messages, validation));
+    }
+
+    @AfterEach
+    void tearDown() {
+        Locale.setDefault(defaultLocale);
+    }
+
+    @Test
+    void testFullLocaleThenLanguageThenRoot() {
+        // Act & Assert - 同一个 basename 内 完整 Locale > 语言 > 根文件
+        assertEquals("您好，{0}", catalog.getRawMessage("greeting", ZH_CN));
+        assertEquals("中文", catalog.getRawMessage("language.only", ZH_CN));
+        assertEquals("root", catalog.getRawMessage("root.only", ZH_CN));
+    }
+
+    @Test
+    void testEarlierBasenameWins() {
+        // Act & Assert - 靠前 basename 的根文件优先于靠后 basename 的语言文件
+        assertEquals("你好，{0}", catalog.getRawMessage("greeting", Locale.CHINESE));
+        assertEquals("messages root", catalog.getRawMessage("shared", Locale.CHINESE));
+        assertEquals("校验", catalog.getRawMessage("validation.only", Locale.CHINESE));
+    }
+
+    @Test
+    void testCountryWithoutFilesUsesLanguage() {
+        // Act & Assert - zh_TW 没有资源文件，按语言 zh 查找
+        assertEquals("你好，{0}", catalog.getRawMessage("greeting", Locale.of("zh", "TW")));
+    }
+
+    @Test
+    void testUnknownLocaleUsesSystemDefault() {
+        // Act & Assert - 没有任何资源文件的 Locale 整体使用系统默认 Locale 的消息
+        assertEquals("Hello, {0}!", catalog.getRawMessage("greeting", Locale.FRENCH));
+        assertEquals("Hello, {0}!", catalog.getRawMessage("greeting", null));
+    }
+
+    @Test
+    void testMissingKeyDoesNotFallBackToSystemDefault() {
+        // Act & Assert - zh 有资源文件，count 只存在于系统默认 Locale（en），不会逐个 key 回退
+        assertNull(catalog.getRawMessage("count", Locale.CHINESE));
+        assertThrows(NoSuchMessageException.class,
+            () -> catalog.getMessage("count", new Object[]{1}, Locale.CHINESE));
+        assertEquals("default", catalog.getMessage("count", null, "default", Locale.CHINESE));
+    }
+
+    @Test
+    void testSimpleArguments() {
+        // Act & Assert
+        assertEquals("您好，Tom", catalog.getMessage("greeting", new Object[]{"Tom"}, ZH_CN));
+        // 缺少的参数与 MessageFormat 一样原样输出占位符
+        assertEquals("Hi Tom, {1}", MessageCatalog.MessageTemplate.compile("Hi {0}, {1}")
+            .render(new Object[]{"Tom"}, Locale.ENGLISH, catalog));
+    }
+
+    @Test
+    void testNoArgumentsReturnsRawMessage() {
+        // Act & Assert - 与 AbstractMessageSource 一致，没有参数时不处理引号和占位符
+        assertEquals("'{0}' 的值是 ''{1}''", catalog.getMessage("quoted", null, ZH_CN));
+    }
+
+    @Test
+    void testQuotesMatchMessageFormat() {
+        // Act & Assert - 单引号中的 {0} 不替换，两个单引号输出一个
+        assertEquals("{0} 的值是 'b'",
+            catalog.getMessage("quoted", new Object[]{"a", "b"}, ZH_CN));
+    }
+
+    @Test
+    void testFormattedArgumentsUseMessageFormat() {
+        // Act & Assert - {0,number} 以及非字符串参数交给 MessageFormat 按 Locale 格式化
+        assertEquals("1,234 users",
+            catalog.getMessage("count", new Object[]{1234}, Locale.ENGLISH));
+        assertEquals("Hello, 1,234!",
+            catalog.getMessage("greeting", new Object[]{1234}, Locale.ENGLISH));
+    }
+
+    @Test
+    void testResolvableCodesAndDefaultMessage() {
+        // Arrange
+        DefaultMessageSourceResolvable resolvable = new DefaultMessageSourceResolvable(
+            new String[]{"missing", "greeting"}, new Object[]{"Tom"});
+        DefaultMessageSourceResolvable defaulted = new DefaultMessageSourceResolvable(
+            new String[]{"missing"}, new Object[]{"Tom"}, "hi {0}");
+
+        // Act & Assert - 依次尝试每个 code，都找不到时格式化默认消息
+        assertEquals("Hello, Tom!", catalog.getMessage(resolvable, Locale.ENGLISH));
+        assertEquals("hi Tom", catalog.getMessage(defaulted, Locale.ENGLISH));
+    }
+
+    @Test
+    void testLocalesExcludeRoot() {
+        // Act & Assert
+        assertEquals(Set.of(Locale.ENGLISH, Locale.CHINESE, ZH_CN), catalog.getLocales());
+    }
+
+    private static Properties properties(String... keyValues) {
+        Properties properties = new Properties();
+        for (int i = 0; i < keyValues.length; i += 2) {
+            properties.setProperty(keyValues[i], keyValues[i + 1]);
+        }
+        return properties;
+    }
+}
@@ -0,0 +1,123 @@
+package cn.tangrl.i18n.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class ReloadableMessageCatalogTest {
+
+    @TempDir
+    private Path dir;
+
+    private ReloadableMessageCatalog messageCatalog;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        write("messages.properties", "error=error\n");
+        write("messages_zh.properties", "error=错误\n");
+        // 外部目录优先，classpath 中的资源文件兜底
+        messageCatalog = new ReloadableMessageCatalog(StandardCharsets.UTF_8,
+            dir.toUri() + "messages", "i18n/messages");
+    }
+
+    @Test
+    void testReloadSwapsCatalog() throws Exception {
+        // Arrange
+        MessageCatalog before = messageCatalog.current();
+        List<MessageCatalog> notified = new ArrayList<>();
+        messageCatalog.addReloadListener(notified::add);
+        write("messages_zh.properties", "error=系统错误\n");
+        write("messages_en.properties", "error=system error\n");
+
+        // Act
+        boolean reloaded = messageCatalog.reload();
+
+        // Assert - 一次替换发布新目录，旧目录的内容不变
+        assertTrue(reloaded);
+        assertNotSame(before, messageCatalog.current());
+        assertEquals("错误", before.getRawMessage("error", Locale.CHINESE));
+        assertEquals("系统错误", messageCatalog.getRawMessage("error", Locale.CHINESE));
+        assertEquals("system error", messageCatalog.getRawMessage("error", Locale.ENGLISH));
+        assertEquals(List.of(messageCatalog.current()), notified);
+        assertEquals(1, messageCatalog.getReloadCount());
+    }
+
+    @Test
+    void testExternalFilesOverrideClasspath() {
+        // Act & Assert - 外部目录没有的 key 使用 classpath 中的消息
+        assertEquals("错误", messageCatalog.getRawMessage("error", Locale.CHINESE));
+        assertEquals("业务逻辑异常",
+            messageCatalog.getRawMessage("business.exception", Locale.CHINESE));
+    }
+
+    @Test
+    void testFailedReloadKeepsPreviousCatalog() throws Exception {
+        // Arrange - 非法的 unicode 转义
+        MessageCatalog before = messageCatalog.current();
+        write("messages_zh.properties", "error=\\uZZZZ\n");
+
+        // Act
+        boolean reloaded = messageCatalog.reload();
+
+        // Assert
+        assertFalse(reloaded);
+        assertSame(before, messageCatalog.current());
+        assertEquals("错误", messageCatalog.getRawMessage("error", Locale.CHINESE));
+        assertEquals(1, messageCatalog.getFailureCount());
+        assertNotNull(messageCatalog.getLastFailure());
+    }
+
+    @Test
+    void testFailingListenerDoesNotBlockOthers() throws Exception {
+        // Arrange
+        List<MessageCatalog> notified = new ArrayList<>();
+        messageCatalog.addReloadListener(catalog -> {
+            throw new IllegalStateException("listener failed");
+        });
+        messageCatalog.addReloadListener(notified::add);
+
+        // Act
+        boolean reloaded = messageCatalog.reload();
+
+        // Assert
+        assertTrue(reloaded);
+        assertEquals(1, notified.size());
+    }
+
+    @Test
+    void testWatcherReloadsChangedFiles() throws Exception {
+        // Arrange
+        try (MessageBundleWatcher watcher = new MessageBundleWatcher(dir, messageCatalog, 50)) {
+            watcher.start();
+
+            // Act
+            write("messages_zh.properties", "error=系统错误\n");
+
+            // Assert - 后台线程重新加载
+            long deadline = System.currentTimeMillis() + 10_000;
+            while (!"系统错误".equals(messageCatalog.getRawMessage("error", Locale.CHINESE))
+                && System.currentTimeMillis() < deadline) {
+                Thread.sleep(20);
+            }
+            assertEquals("系统错误", messageCatalog.getRawMessage("error", Locale.CHINESE));
+            assertTrue(messageCatalog.getReloadCount() >= 1);
+        }
+    }
+
+    private void write(String filename, String content) throws Exception {
+        Files.writeString(dir.resolve(filename), content, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,292 @@
+package cn.tangrl.i18n.validation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+import cn.tangrl.i18n.controller.request.UserReq;
+import cn.tangrl.i18n.utils.CatalogMessageInterpolator;
+import cn.tangrl.i18n.utils.ReloadableMessageCatalog;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import org.hibernate.validator.HibernateValidatorConfiguration;
+import org.hibernate.validator.cfg.ConstraintMapping;
+import org.hibernate.validator.cfg.defs.SizeDef;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.validation.MessageInterpolatorFactory;
+import org.springframework.context.i18n.LocaleContextHolder;
+import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.validation.DirectFieldBindingResult;
+import org.springframework.validation.Errors;
+import org.springframework.validation.FieldError;
+import org.springframework.validation.Validator;
+import org.springframework.validation.beanvalidation.LocalValidatorFactoryBean;
+
+public class CompiledValidatorTest {
+
+    private static LocalValidatorFactoryBean defaultValidator;
+
+    private static ReloadableMessageCatalog messageCatalog;
+
+    private static LocalValidatorFactoryBean catalogValidator;
+
+    @BeforeAll
+    static void setUpValidators() throws Exception {
+        defaultValidator = new LocalValidatorFactoryBean();
+        defaultValidator.afterPropertiesSet();
+        // 与 ValidationConfiguration 相同的配置
+        messageCatalog = new ReloadableMessageCatalog(StandardCharsets.UTF_8, "i18n/messages",
+            "ValidationMessages");
+        catalogValidator = new LocalValidatorFactoryBean();
+        catalogValidator.setMessageInterpolator(new CatalogMessageInterpolator(messageCatalog,
+            new MessageInterpolatorFactory().getObject()));
+        catalogValidator.afterPropertiesSet();
+    }
+
+    @AfterAll
+    static void closeValidators() {
+        defaultValidator.close();
+        catalogValidator.close();
+    }
+
+    @AfterEach
+    void tearDown() {
+        LocaleContextHolder.resetLocaleContext();
+    }
+
+    @Test
+    void testCompileSimpleDto() {
+        // Act & Assert - 字段上的约束同时出现在字段类型的注解中，不影响编译
+        assertNotNull(compile(UserReq.class));
+        assertNotNull(compile(PlainListReq.class));
+        assertNotNull(compile(LiteralReq.class));
+    }
+
+    @Test
+    void testContainerElementConstraintsAreNotCompiled() {
+        // Act & Assert - 类型参数、嵌套的类型参数、数组元素、通配符上界、getter 返回类型上的约束都交给默认校验器
+        assertNull(compile(TagsReq.class));
+        assertNull(compile(NestedReq.class));
+        assertNull(compile(ArrayReq.class));
+        assertNull(compile(WildcardReq.class));
+        assertNull(compile(GetterReq.class));
+        assertNull(compile(CascadedElementReq.class));
+    }
+
+    @Test
+    void testConstraintsOutsideFieldsAreNotCompiled() {
+        // Act & Assert - 接口方法上的约束、重复声明的约束只出现在默认校验器的元数据中
+        assertNull(compile(InterfaceReq.class));
+        assertNull(compile(RepeatedReq.class));
+    }
+
+    @Test
+    void testProgrammaticMappingIsNotCompiled() {
+        // Arrange - 通过 Hibernate Validator 的编程 API 给 UserReq.username 增加 @Size
+        LocalValidatorFactoryBean mappedValidator = new LocalValidatorFactoryBean();
+        mappedValidator.setConfigurationInitializer(configuration -> {
+            HibernateValidatorConfiguration hibernate =
+                (HibernateValidatorConfiguration) configuration;
+            ConstraintMapping mapping = hibernate.createConstraintMapping();
+            mapping.type(UserReq.class).field("username").constraint(new SizeDef().min(3));
+            hibernate.addMapping(mapping);
+        });
+        mappedValidator.afterPropertiesSet();
+        CompiledValidatorAdapter adapter = new CompiledValidatorAdapter(mappedValidator,
+            messageCatalog, false);
+        UserReq req = new UserReq();
+        req.setUsername("ab");
+        req.setPassword("secret");
+
+        // Act
+        Errors errors = validate(adapter, req);
+
+        // Assert - 交给默认校验器，编程方式声明的约束生效
+        assertFalse(adapter.isCompiled(UserReq.class));
+        assertEquals(1, errors.getFieldErrorCount());
+        assertEquals("Size", errors.getFieldError("username").getCode());
+        mappedValidator.close();
+    }
+
+    @Test
+    void testAdapterValidatesContainerElementsWithDefaultValidator() {
+        // Arrange
+        CompiledValidatorAdapter adapter = new CompiledValidatorAdapter(defaultValidator,
+            mock(ReloadableMessageCatalog.class), false);
+        TagsReq req = new TagsReq();
+        req.name = "John";
+        req.tags = List.of("a", " ");
+        DirectFieldBindingResult errors = new DirectFieldBindingResult(req, "tagsReq");
+
+        // Act
+        adapter.validate(req, errors);
+
+        // Assert - 元素的约束生效，与直接使用默认校验器的结果相同
+        assertFalse(adapter.isCompiled(TagsReq.class));
+        assertEquals(1, errors.getFieldErrorCount());
+        assertEquals("tags[1]", errors.getFieldError().getField());
+        assertEquals("tag is blank", errors.getFieldError().getDefaultMessage());
+        assertTrue(adapter.isCompiled(UserReq.class));
+    }
+
+    @Test
+    void testSameErrorsAsHibernateValidator() {
+        // Arrange
+        CompiledValidatorAdapter adapter = new CompiledValidatorAdapter(catalogValidator,
+            messageCatalog, false);
+        assertTrue(adapter.isCompiled(UserReq.class));
+        assertTrue(adapter.isCompiled(LiteralReq.class));
+        List<Object> targets = List.of(userReq(null, null), userReq("", " "), userReq("a", null),
+            userReq("a", "b"), literalReq(null, null, null), literalReq("", "  ", List.of()),
+            literalReq("x", "\t", List.of("a")), literalReq("x", "y", null));
+
+        for (Locale locale : List.of(Locale.CHINESE, Locale.ENGLISH, Locale.FRENCH)) {
+            LocaleContextHolder.setLocale(locale);
+            for (Object target : targets) {
+                // Act
+                Set<String> compiled = describe(validate(adapter, target));
+                Set<String> hibernate = describe(validate(catalogValidator, target));
+
+                // Assert - 字段、错误码、本地化后的消息都相同
+                assertEquals(hibernate, compiled, locale + " " + target);
+            }
+        }
+    }
+
+    private static CompiledValidator compile(Class<?> clazz) {
+        return CompiledValidator.compile(clazz, defaultValidator.getConstraintsForClass(clazz));
+    }
+
+    private static Errors validate(Validator validator, Object target) {
+        Errors errors = new BeanPropertyBindingResult(target, "target");
+        validator.validate(target, errors);
+        return errors;
+    }
+
+    private static Set<String> describe(Errors errors) {
+        Set<String> described = new HashSet<>();
+        for (FieldError fieldError : errors.getFieldErrors()) {
+            described.add(fieldError.getField() + "|" + fieldError.getCode() + "|"
+                + fieldError.getDefaultMessage() + "|" + fieldError.getRejectedValue());
+        }
+        return described;
+    }
+
+    private static UserReq userReq(String username, String password) {
+        UserReq req = new UserReq();
+        req.setUsername(username);
+        req.setPassword(password);
+        return req;
+    }
+
+    private static LiteralReq literalReq(String parentName, String name, List<String> tags) {
+        LiteralReq req = new LiteralReq();
+        req.parentName = parentName;
+        req.name = name;
+        req.tags = tags;
+        return req;
+    }
+
+    public static class BaseReq {
+
+        @NotNull(message = "parent name is null")
+        public String parentName;
+    }
+
+    public static class LiteralReq extends BaseReq {
+
+        @NotBlank(message = "name is blank")
+        public String name;
+
+        @NotEmpty(message = "tags is empty")
+        public List<String> tags;
+
+        @Override
+        public String toString() {
+            return "LiteralReq(" + parentName + ", " + name + ", " + tags + ")";
+        }
+    }
+
+    public interface Named {
+
+        @NotBlank(message = "name is blank")
+        String getName();
+    }
+
+    public static class InterfaceReq implements Named {
+
+        @NotNull(message = "id is null")
+        public Long id;
+
+        private String name;
+
+        @Override
+        public String getName() {
+            return name;
+        }
+    }
+
+    public static class RepeatedReq {
+
+        @NotNull(message = "first")
+        @NotNull(message = "second")
+        public String name;
+    }
+
+    public static class PlainListReq {
+
+        @NotNull(message = "tags is null")
+        public List<String> tags;
+    }
+
+    public static class TagsReq {
+
+        @NotBlank(message = "name is blank")
+        public String name;
+
+        public List<@NotBlank(message = "tag is blank") String> tags;
+    }
+
+    public static class NestedReq {
+
+        public Map<String, List<@NotNull(message = "value is null") Integer>> values;
+    }
+
+    public static class ArrayReq {
+
+        public List<@NotBlank(message = "tag is blank") String>[] tags;
+    }
+
+    public static class WildcardReq {
+
+        public List<? extends @NotBlank(message = "tag is blank") CharSequence> tags;
+    }
+
+    public static class GetterReq {
+
+        private List<String> tags;
+
+        public List<@NotBlank(message = "tag is blank") String> getTags() {
+            return tags;
+        }
+    }
+
+    public static class CascadedElementReq {
+
+        public List<@Valid UserReq> users;
+    }
+}
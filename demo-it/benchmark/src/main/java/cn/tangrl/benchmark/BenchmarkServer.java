@@ -0,0 +1,29 @@
+package cn.tangrl.benchmark;
+
+import cn.tangrl.server.ItApplication;
+import org.springframework.boot.SpringApplication;
+
+/**
+ * 使用 H2 内存数据库启动 server，用于没有 MySQL 时在本地压测
+ * <p>
+ * 命令行参数会传给 Spring Boot，例如 --app.virtual-threads.enabled=true 开启虚拟线程模式，
+ * --server.tomcat.threads.max=50 调整平台线程池大小，--spring.profiles.active=prod 使用生产环境的连接池配置。
+ */
+public class BenchmarkServer {
+
+    public static void main(String[] args) {
+        useH2();
+        SpringApplication.run(ItApplication.class, args);
+    }
+
+    // 系统属性的优先级高于 application.properties，命令行参数仍然可以覆盖
+    // IGNORE_UNKNOWN_SETTINGS 使 H2 忽略 prod 配置中 MySQL Connector/J 的连接属性
+    static void useH2() {
+        System.setProperty("spring.datasource.url",
+            "jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1;IGNORE_UNKNOWN_SETTINGS=TRUE");
+        System.setProperty("spring.datasource.username", "sa");
+        System.setProperty("spring.datasource.password", "");
+        System.setProperty("spring.datasource.driver-class-name", "org.h2.Driver");
+        System.setProperty("spring.jpa.show-sql", "false");
+    }
+}
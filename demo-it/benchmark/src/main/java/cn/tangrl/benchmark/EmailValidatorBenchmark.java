@@ -0,0 +1,114 @@
+package cn.tangrl.benchmark;
+
+import cn.tangrl.common.validation.EmailValidator;
+import cn.tangrl.common.validation.ValidEmail;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+import jakarta.validation.constraints.Email;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * 邮箱格式校验：原来的 String.matches、预编译的 Pattern、手写的 {@link EmailValidator}，
+ * 以及 Bean Validation 中的 @Email 与 @ValidEmail
+ * <p>
+ * 每次调用校验 {@link #EMAILS} 中的全部地址，结果按单个地址计算。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EmailValidatorBenchmark {
+
+    private static final String REGEX = "^[A-Za-z0-9+_.-]+@(.+)$";
+
+    private static final Pattern PATTERN = Pattern.compile(REGEX);
+
+    // 有效和无效的地址各占一半
+    private static final String[] EMAILS = {"john.doe@example.com", "jane_doe+news@mail.example.org",
+        "j@x.io", "first.last-name@sub.domain.example.co.uk", "john.doeexample.com",
+        "john doe@example.com", "@example.com", "o'brien@example.com"};
+
+    private ValidatorFactory validatorFactory;
+
+    private Validator validator;
+
+    @Setup
+    public void setUp() {
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        validator = validatorFactory.getValidator();
+    }
+
+    @TearDown
+    public void tearDown() {
+        validatorFactory.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(8)
+    public void stringMatches(Blackhole blackhole) {
+        for (String email : EMAILS) {
+            blackhole.consume(email.matches(REGEX));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(8)
+    public void precompiledPattern(Blackhole blackhole) {
+        for (String email : EMAILS) {
+            blackhole.consume(PATTERN.matcher(email).matches());
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(8)
+    public void handWritten(Blackhole blackhole) {
+        for (String email : EMAILS) {
+            blackhole.consume(EmailValidator.isValid(email));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(8)
+    public void hibernateEmail(Blackhole blackhole) {
+        for (String email : EMAILS) {
+            blackhole.consume(validator.validateValue(HibernateEmailBean.class, "email", email));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(8)
+    public void validEmail(Blackhole blackhole) {
+        for (String email : EMAILS) {
+            blackhole.consume(validator.validateValue(ValidEmailBean.class, "email", email));
+        }
+    }
+
+    public static class HibernateEmailBean {
+
+        @Email
+        private String email;
+    }
+
+    public static class ValidEmailBean {
+
+        @ValidEmail
+        private String email;
+    }
+}
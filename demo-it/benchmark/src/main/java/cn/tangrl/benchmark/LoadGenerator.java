@@ -0,0 +1,128 @@
+package cn.tangrl.benchmark;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 简单的 HTTP 压测工具
+ * <p>
+ * 每个并发用户是一个虚拟线程，循环同步发送请求，压测端本身不会成为瓶颈。
+ * 结束后输出吞吐量和延迟分位数，用于对比 server 在平台线程池和虚拟线程模式下的表现。
+ * URL 中的 {n} 每次请求替换为 [0, load.names) 中的随机数（系统属性，默认 2000），用于查询不同的姓名。
+ * <pre>
+ * java -cp ... cn.tangrl.benchmark.LoadGenerator [url] [并发数] [压测秒数] [预热秒数]
+ * </pre>
+ */
+public class LoadGenerator {
+
+    private static final String DEFAULT_URL = "http://localhost:8080/api/users/name/John%20Doe";
+
+    public static void main(String[] args) throws Exception {
+        String url = args.length > 0 ? args[0] : DEFAULT_URL;
+        int concurrency = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 30;
+        int warmupSeconds = args.length > 3 ? Integer.parseInt(args[3]) : 10;
+
+        HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+        HttpRequest[] requests;
+        if (url.contains("{n}")) {
+            requests = new HttpRequest[Integer.getInteger("load.names", 2000)];
+            for (int i = 0; i < requests.length; i++) {
+                requests[i] = HttpRequest.newBuilder(URI.create(url.replace("{n}", String.valueOf(i))))
+                    .GET().build();
+            }
+        } else {
+            requests = new HttpRequest[]{HttpRequest.newBuilder(URI.create(url)).GET().build()};
+        }
+
+        System.out.printf("url=%s concurrency=%d duration=%ds warmup=%ds%n", url, concurrency,
+            seconds, warmupSeconds);
+        run(client, requests, concurrency, warmupSeconds);
+        Result result = run(client, requests, concurrency, seconds);
+        result.print(seconds);
+    }
+
+    static Result run(HttpClient client, HttpRequest[] requests, int concurrency, int seconds)
+        throws Exception {
+        long deadline = System.nanoTime() + Duration.ofSeconds(seconds).toNanos();
+        LongAdder errors = new LongAdder();
+        List<Future<long[]>> futures = new ArrayList<>(concurrency);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < concurrency; i++) {
+                futures.add(executor.submit(() -> {
+                    long[] latencies = new long[1024];
+                    int count = 0;
+                    while (System.nanoTime() < deadline) {
+                        HttpRequest request = requests.length == 1 ? requests[0]
+                            : requests[ThreadLocalRandom.current().nextInt(requests.length)];
+                        long start = System.nanoTime();
+                        try {
+                            HttpResponse<Void> response = client.send(request,
+                                HttpResponse.BodyHandlers.discarding());
+                            if (response.statusCode() != 200) {
+                                errors.increment();
+                                continue;
+                            }
+                        } catch (Exception e) {
+                            errors.increment();
+                            continue;
+                        }
+                        if (count == latencies.length) {
+                            latencies = Arrays.copyOf(latencies, count * 2);
+                        }
+                        latencies[count++] = System.nanoTime() - start;
+                    }
+                    return Arrays.copyOf(latencies, count);
+                }));
+            }
+        }
+        int total = 0;
+        List<long[]> parts = new ArrayList<>(concurrency);
+        for (Future<long[]> future : futures) {
+            long[] part = future.get();
+            parts.add(part);
+            total += part.length;
+        }
+        long[] latencies = new long[total];
+        int offset = 0;
+        for (long[] part : parts) {
+            System.arraycopy(part, 0, latencies, offset, part.length);
+            offset += part.length;
+        }
+        Arrays.sort(latencies);
+        return new Result(latencies, errors.sum());
+    }
+
+    record Result(long[] latencies, long errors) {
+
+        void print(int seconds) {
+            System.out.printf("requests=%d errors=%d throughput=%.1f req/s%n", latencies.length,
+                errors, (double) latencies.length / seconds);
+            if (latencies.length == 0) {
+                return;
+            }
+            System.out.printf("p50=%.2fms p90=%.2fms p99=%.2fms p99.9=%.2fms max=%.2fms%n",
+                percentile(0.50), percentile(0.90), percentile(0.99), percentile(0.999),
+                latencies[latencies.length - 1] / 1e6);
+        }
+
+        double percentile(double p) {
+            int index = (int) Math.ceil(p * latencies.length) - 1;
+            return latencies[Math.max(index, 0)] / 1e6;
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package cn.tangrl.benchmark;
+
+import cn.tangrl.server.ItApplication;
+import cn.tangrl.server.model.UserImportReport;
+import cn.tangrl.server.service.UserImportService;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * 批量导入：每次调用导入 rows 行 CSV，吞吐量 = rows / 耗时
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class UserImportBenchmark {
+
+    @Param("100000")
+    private int rows;
+
+    @Param("1000")
+    private int batchSize;
+
+    private ConfigurableApplicationContext context;
+
+    private UserImportService userImportService;
+
+    private byte[] csv;
+
+    @Setup
+    public void setUp() {
+        BenchmarkServer.useH2();
+        context = new SpringApplicationBuilder(ItApplication.class)
+            .properties("server.port=0", "logging.level.root=WARN",
+                "app.users.import.batch-size=" + batchSize)
+            .run();
+        userImportService = context.getBean(UserImportService.class);
+
+        StringBuilder builder = new StringBuilder("name,email\n");
+        for (int i = 0; i < rows; i++) {
+            builder.append("user-").append(i % 1000).append(",user").append(i)
+                .append("@example.com\n");
+        }
+        csv = builder.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public UserImportReport importCsv() throws IOException {
+        return userImportService.importCsv(new ByteArrayInputStream(csv));
+    }
+}
@@ -0,0 +1,117 @@
+package cn.tangrl.benchmark;
+
+import cn.tangrl.server.ItApplication;
+import cn.tangrl.server.model.User;
+import cn.tangrl.server.repository.UserRepository;
+import cn.tangrl.server.service.UserService;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * 按姓名查询用户：经过缓存的 UserService 与直接查询数据库的 UserRepository
+ * <p>
+ * 查询的姓名服从 Zipf 分布，少数姓名被反复查询。SampleTime 模式会输出 p50/p99 等分位数。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserLookupBenchmark {
+
+    private static final int SAMPLES = 1 << 16;
+
+    @Param("20000")
+    private int rows;
+
+    @Param("2000")
+    private int names;
+
+    private ConfigurableApplicationContext context;
+
+    private UserService userService;
+
+    private UserRepository userRepository;
+
+    private String[] lookups;
+
+    private int next;
+
+    @Setup
+    public void setUp() {
+        BenchmarkServer.useH2();
+        context = new SpringApplicationBuilder(ItApplication.class)
+            .properties("server.port=0", "logging.level.root=WARN")
+            .run();
+        userService = context.getBean(UserService.class);
+        userRepository = context.getBean(UserRepository.class);
+
+        List<User> users = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            users.add(new User(null, "user-" + (i % names), "user" + i + "@example.com"));
+        }
+        userRepository.saveAll(users);
+
+        lookups = zipf(names, SAMPLES, new SplittableRandom(42));
+    }
+
+    @Setup(Level.Iteration)
+    public void resetCursor() {
+        next = 0;
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<User> cached() {
+        return userService.findUsersByName(nextName());
+    }
+
+    @Benchmark
+    public List<User> uncached() {
+        return userRepository.findByName(nextName());
+    }
+
+    private String nextName() {
+        return lookups[next++ & (SAMPLES - 1)];
+    }
+
+    // 生成服从 Zipf 分布（s = 1）的姓名序列
+    private static String[] zipf(int names, int samples, SplittableRandom random) {
+        double[] cumulative = new double[names];
+        double sum = 0;
+        for (int i = 0; i < names; i++) {
+            sum += 1.0 / (i + 1);
+            cumulative[i] = sum;
+        }
+        String[] result = new String[samples];
+        for (int i = 0; i < samples; i++) {
+            double target = random.nextDouble() * sum;
+            int index = Arrays.binarySearch(cumulative, target);
+            result[i] = "user-" + (index >= 0 ? index : -index - 1);
+        }
+        return result;
+    }
+}
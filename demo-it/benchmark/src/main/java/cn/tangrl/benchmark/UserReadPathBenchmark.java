@@ -0,0 +1,108 @@
+package cn.tangrl.benchmark;
+
+import cn.tangrl.server.ItApplication;
+import cn.tangrl.server.model.User;
+import cn.tangrl.server.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.hibernate.jpa.HibernateHints;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * 按姓名查询用户的读路径：普通事务中加载受管理的实体，与只读事务中加载只读实体
+ * <p>
+ * 配合 -prof gc 查看每次查询的内存分配（gc.alloc.rate.norm），只读实体不保存脏检查快照，提交时也不 flush。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserReadPathBenchmark {
+
+    private static final String FIND_BY_NAME = "SELECT u FROM User u WHERE u.name = :name";
+
+    // 每个姓名对应的用户数
+    @Param("50")
+    private int usersPerName;
+
+    private ConfigurableApplicationContext context;
+
+    private UserRepository userRepository;
+
+    private EntityManager entityManager;
+
+    private TransactionTemplate readWrite;
+
+    private TransactionTemplate readOnly;
+
+    @Setup
+    public void setUp() {
+        BenchmarkServer.useH2();
+        context = new SpringApplicationBuilder(ItApplication.class)
+            .properties("server.port=0", "logging.level.root=WARN")
+            .run();
+        userRepository = context.getBean(UserRepository.class);
+        entityManager = SharedEntityManagerCreator.createSharedEntityManager(
+            context.getBean(EntityManagerFactory.class));
+        PlatformTransactionManager transactionManager = context.getBean(
+            PlatformTransactionManager.class);
+        readWrite = new TransactionTemplate(transactionManager);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+
+        List<User> users = new ArrayList<>(usersPerName);
+        for (int i = 0; i < usersPerName; i++) {
+            users.add(new User(null, "John Doe", "john" + i + "@example.com"));
+        }
+        userRepository.saveAll(users);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    // 原来的读路径：实体受管理，保存快照，提交前做脏检查
+    @Benchmark
+    public List<User> managed() {
+        return readWrite.execute(status -> entityManager.createQuery(FIND_BY_NAME, User.class)
+            .setParameter("name", "John Doe")
+            .getResultList());
+    }
+
+    // 只读事务 + 只读查询
+    @Benchmark
+    public List<User> readOnly() {
+        return readOnly.execute(status -> entityManager.createQuery(FIND_BY_NAME, User.class)
+            .setParameter("name", "John Doe")
+            .setHint(HibernateHints.HINT_READ_ONLY, true)
+            .getResultList());
+    }
+
+    // 现在的读路径：只读事务中调用 UserRepository.findByName（带只读查询提示）
+    @Benchmark
+    public List<User> repository() {
+        return readOnly.execute(status -> userRepository.findByName("John Doe"));
+    }
+}
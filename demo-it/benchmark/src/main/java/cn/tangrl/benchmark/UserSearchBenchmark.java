@@ -0,0 +1,138 @@
+package cn.tangrl.benchmark;
+
+import cn.tangrl.server.model.UserNameMatch;
+import cn.tangrl.server.repository.UserRepository;
+import cn.tangrl.server.service.UserNameIndex;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+/**
+ * 按姓名前缀搜索用户：{@link UserNameIndex} 与逐个比较全部姓名
+ * <p>
+ * 姓名由 "名 姓" 两个单词组成，搜索词为其中一个单词的前 {@code prefixLength} 个字符，结果最多 10 个。
+ * 不启动 Spring，直接用生成的姓名加载索引。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+public class UserSearchBenchmark {
+
+    private static final int LIMIT = 10;
+
+    private static final int QUERIES = 1024;
+
+    @Param("1000000")
+    private int users;
+
+    @Param({"2", "5"})
+    private int prefixLength;
+
+    private UserNameIndex index;
+
+    private String[] names;
+
+    private String[] queries;
+
+    private int next;
+
+    @Setup
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        names = new String[users];
+        for (int i = 0; i < users; i++) {
+            names[i] = word(random) + " " + word(random);
+        }
+        index = new UserNameIndex(repository(names), new NoOpTransactionManager());
+        index.load();
+
+        queries = new String[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            String[] words = names[random.nextInt(users)].split(" ");
+            String word = words[random.nextInt(words.length)];
+            queries[i] = word.substring(0, Math.min(prefixLength, word.length()));
+        }
+    }
+
+    @Benchmark
+    public List<UserNameMatch> index() {
+        return index.search(nextQuery(), LIMIT);
+    }
+
+    @Benchmark
+    public List<UserNameMatch> linearScan() {
+        String query = nextQuery().toLowerCase(Locale.ROOT);
+        List<UserNameMatch> matches = new ArrayList<>(LIMIT);
+        for (int i = 0; i < names.length && matches.size() < LIMIT; i++) {
+            String name = names[i].toLowerCase(Locale.ROOT);
+            if (name.startsWith(query) || name.contains(" " + query)) {
+                matches.add(new UserNameMatch((long) i, names[i]));
+            }
+        }
+        return matches;
+    }
+
+    private String nextQuery() {
+        return queries[next++ & (QUERIES - 1)];
+    }
+
+    // 首字母大写的 3 到 8 个字母
+    private static String word(SplittableRandom random) {
+        char[] chars = new char[3 + random.nextInt(6)];
+        chars[0] = (char) ('A' + random.nextInt(26));
+        for (int i = 1; i < chars.length; i++) {
+            chars[i] = (char) ('a' + random.nextInt(26));
+        }
+        return new String(chars);
+    }
+
+    // 只实现 streamAllNames 的 UserRepository
+    private static UserRepository repository(String[] names) {
+        return (UserRepository) Proxy.newProxyInstance(UserRepository.class.getClassLoader(),
+            new Class<?>[]{UserRepository.class}, (proxy, method, args) -> {
+                if (method.getName().equals("streamAllNames")) {
+                    return IntStream.range(0, names.length)
+                        .mapToObj(i -> new UserNameMatch((long) i, names[i]));
+                }
+                throw new UnsupportedOperationException(method.getName());
+            });
+    }
+
+    private static class NoOpTransactionManager implements PlatformTransactionManager {
+
+        @Override
+        public TransactionStatus getTransaction(TransactionDefinition definition) {
+            return new SimpleTransactionStatus();
+        }
+
+        @Override
+        public void commit(TransactionStatus status) {
+        }
+
+        @Override
+        public void rollback(TransactionStatus status) {
+        }
+    }
+}
@@ -4,11 +4,13 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 
 import cn.tangrl.server.model.User;
 import java.util.List;
+import java.util.Map;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.context.DynamicPropertyRegistry;
 import org.springframework.test.context.DynamicPropertySource;
 import org.testcontainers.containers.MySQLContainer;
@@ -27,6 +29,9 @@ class UserRepositoryIT {
     @Autowired
     private UserRepository userRepository;  // 注入 UserRepository 用于测试
 
+    @Autowired
+    private JdbcTemplate jdbcTemplate;  // 用于查看执行计划
+
     @DynamicPropertySource  // 动态配置测试数据库属性，将容器中的数据库连接信息注入 Spring 的环境配置中
     static void configureTestDatabase(DynamicPropertyRegistry registry) {
         registry.add("spring.datasource.url", mysqlContainer::getJdbcUrl);
@@ -65,4 +70,25 @@ class UserRepositoryIT {
         assertEquals(1, janes.size(), "Should find one Jane Doe");
         assertEquals("Jane Doe", janes.get(0).getName());
     }
+
+    @Test
+    void testFindByNameUsesIndex() {
+        // Act - 查看 Flyway 创建的表上按姓名查询的执行计划
+        Map<String, Object> plan = jdbcTemplate.queryForMap(
+            "EXPLAIN SELECT u.id, u.email, u.name FROM users u WHERE u.name = ?", "John Doe");
+
+        // Assert - 使用 idx_users_name 索引
+        assertEquals("idx_users_name", plan.get("key"));
+    }
+
+    @Test
+    void testIdIsNotAutoIncrement() {
+        // Act - 查看 Flyway 脚本执行后 id 列的定义
+        String extra = jdbcTemplate.queryForObject("SELECT EXTRA FROM information_schema.COLUMNS "
+            + "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'users' AND COLUMN_NAME = 'id'",
+            String.class);
+
+        // Assert - ID 只由 id_generator 分配，不会与 Hibernate 预先取走的一段 ID 冲突
+        assertEquals("", extra);
+    }
 }
@@ -0,0 +1,55 @@
+package cn.tangrl.reactive.config;
+
+import cn.tangrl.reactive.model.User;
+import cn.tangrl.reactive.repository.UserRepository;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+
+/**
+ * 启动时生成压测数据：app.demo-data.rows 个用户，姓名为 user0 到 user{names - 1}
+ * <p>
+ * 与 benchmark 模块压测 server 时导入的 CSV 相同，两个版本查询的数据量一致。
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty("app.demo-data.rows")
+public class DemoDataInitializer implements ApplicationRunner {
+
+    private static final int BATCH_SIZE = 1000;
+
+    private final UserRepository userRepository;
+
+    private final int rows;
+
+    private final int names;
+
+    public DemoDataInitializer(UserRepository userRepository,
+        @Value("${app.demo-data.rows}") int rows,
+        @Value("${app.demo-data.names:2000}") int names) {
+        this.userRepository = userRepository;
+        this.rows = rows;
+        this.names = names;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        Long inserted = Flux.range(0, (rows + BATCH_SIZE - 1) / BATCH_SIZE)
+            .concatMap(batch -> {
+                List<User> users = new ArrayList<>(BATCH_SIZE);
+                for (int i = batch * BATCH_SIZE; i < Math.min(rows, (batch + 1) * BATCH_SIZE); i++) {
+                    users.add(new User(null, "user" + (i % names), "user" + i + "@example.com"));
+                }
+                return userRepository.insertAll(users);
+            })
+            .reduce(0L, Long::sum)
+            .block();
+        log.info("Inserted {} demo users", inserted);
+    }
+}
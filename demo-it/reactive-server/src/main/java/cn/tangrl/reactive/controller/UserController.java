@@ -0,0 +1,37 @@
+package cn.tangrl.reactive.controller;
+
+import cn.tangrl.reactive.model.User;
+import cn.tangrl.reactive.service.UserService;
+import java.util.List;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * 与 server 模块的 UserController 相同的接口，请求在 Netty 的事件循环线程上处理，等待数据库时不占用线程
+ */
+@RestController
+@RequestMapping("/api/users")
+public class UserController {
+
+    @Autowired
+    private UserService userService;
+
+    // 根据姓名查找用户，返回 JSON 数组
+    @GetMapping("/name/{name}")
+    public Mono<List<User>> getUsersByName(@PathVariable String name) {
+        return userService.findUsersByName(name);
+    }
+
+    // 根据姓名流式返回用户，每行一个 JSON 对象（NDJSON）
+    // 写出一个对象后才向上游请求下一个，客户端读取慢时数据库查询也随之放慢
+    @GetMapping(value = "/name/{name}/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<User> streamUsersByName(@PathVariable String name) {
+        return userService.streamUsersByName(name);
+    }
+}
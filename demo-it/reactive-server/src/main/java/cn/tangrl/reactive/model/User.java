@@ -0,0 +1,28 @@
+package cn.tangrl.reactive.model;
+
+import cn.tangrl.common.validation.EmailValidator;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 用户，字段和 JSON 格式（id、name、email、validEmail）与 server 模块的 User 实体相同
+ * <p>
+ * 只通过 {@link cn.tangrl.reactive.repository.UserRepository} 中的 SQL 读写，不需要映射注解。
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class User {
+
+    private Long id;
+
+    private String name;
+
+    private String email;
+
+    // 与 server 模块的 User 相同，序列化为 JSON 的 validEmail 字段
+    public boolean isValidEmail() {
+        return EmailValidator.isValid(this.email);
+    }
+}
@@ -0,0 +1,56 @@
+package cn.tangrl.reactive.repository;
+
+import cn.tangrl.reactive.model.User;
+import io.r2dbc.spi.Readable;
+import io.r2dbc.spi.Result;
+import io.r2dbc.spi.Statement;
+import java.util.List;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * 基于 DatabaseClient 的用户表读写，SQL 与 server 模块的 UserRepository 对应
+ */
+@Repository
+public class UserRepository {
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    // 根据姓名查找用户，按 id 排序
+    // 结果按下游的请求量从驱动读取，下游处理不过来时不会把整个结果集读入内存
+    public Flux<User> findByName(String name) {
+        return databaseClient.sql("SELECT id, name, email FROM users WHERE name = :name ORDER BY id")
+            .bind("name", name)
+            .map(UserRepository::toUser)
+            .all();
+    }
+
+    // 批量插入，同一条语句绑定多组参数，一次发送给数据库，返回插入的行数
+    // 直接使用 R2DBC 的 Statement，占位符写法与驱动有关（H2 为 $1，MySQL 为 ?）
+    public Mono<Long> insertAll(List<User> users) {
+        if (users.isEmpty()) {
+            return Mono.just(0L);
+        }
+        return databaseClient.inConnectionMany(connection -> {
+                Statement statement = connection.createStatement(
+                    "INSERT INTO users (name, email) VALUES ($1, $2)");
+                for (int i = 0; i < users.size(); i++) {
+                    if (i > 0) {
+                        statement.add();
+                    }
+                    statement.bind(0, users.get(i).getName()).bind(1, users.get(i).getEmail());
+                }
+                return Flux.from(statement.execute()).flatMap(Result::getRowsUpdated);
+            })
+            .reduce(0L, Long::sum);
+    }
+
+    private static User toUser(Readable row) {
+        return new User(row.get("id", Long.class), row.get("name", String.class),
+            row.get("email", String.class));
+    }
+}
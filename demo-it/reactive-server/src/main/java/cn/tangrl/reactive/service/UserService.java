@@ -0,0 +1,42 @@
+package cn.tangrl.reactive.service;
+
+import cn.tangrl.reactive.model.User;
+import cn.tangrl.reactive.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.util.List;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * 与 server 模块的 UserService 语义相同：按姓名查询的结果会被缓存，同一姓名的并发未命中只查询一次数据库
+ * <p>
+ * Spring 6.0 的 @Cacheable 不支持 Mono/Flux 返回值（会缓存 Mono 对象本身），这里直接使用 Caffeine 的 AsyncCache，
+ * 缓存的是查询结果的 CompletableFuture，查询完成前到达的请求等待同一个 Future。
+ */
+@Service
+public class UserService {
+
+    private final UserRepository userRepository;
+
+    private final AsyncCache<String, List<User>> usersByName;
+
+    public UserService(UserRepository userRepository,
+        @Value("${app.users.cache.spec:maximumSize=10000,expireAfterWrite=10m}") String cacheSpec) {
+        this.userRepository = userRepository;
+        this.usersByName = Caffeine.from(cacheSpec).buildAsync();
+    }
+
+    // 根据姓名查找用户，结果会被缓存；查询失败的结果不会被缓存
+    public Mono<List<User>> findUsersByName(String name) {
+        return Mono.fromFuture(() -> usersByName.get(name,
+            (key, executor) -> userRepository.findByName(key).collectList().toFuture()));
+    }
+
+    // 根据姓名逐个返回用户，不经过缓存，按下游的请求量从数据库读取
+    public Flux<User> streamUsersByName(String name) {
+        return userRepository.findByName(name);
+    }
+}
@@ -0,0 +1,9 @@
+-- 用户表，与 server 模块 Flyway 脚本 V1、V2 创建的表结构相同
+CREATE TABLE IF NOT EXISTS users (
+    id    BIGINT       NOT NULL AUTO_INCREMENT,
+    name  VARCHAR(255),
+    email VARCHAR(255),
+    PRIMARY KEY (id)
+);
+-- 按姓名等值查询，避免全表扫描
+CREATE INDEX IF NOT EXISTS idx_users_name ON users (name);
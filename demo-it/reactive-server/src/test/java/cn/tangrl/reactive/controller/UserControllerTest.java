@@ -0,0 +1,80 @@
+package cn.tangrl.reactive.controller;
+
+import static org.mockito.Mockito.when;
+
+import cn.tangrl.reactive.model.User;
+import cn.tangrl.reactive.service.UserService;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+@WebFluxTest(UserController.class)  // 仅加载与 UserController 相关的 WebFlux 组件进行测试
+public class UserControllerTest {
+
+    @Autowired
+    private WebTestClient webTestClient;  // 注入 WebTestClient 用于模拟 HTTP 请求
+
+    @MockBean
+    private UserService userService;  // 模拟 UserService 依赖
+
+    @Test
+    void testGetUsersByName() {
+        // Arrange - 设置测试数据和模拟行为
+        User user = new User(1L, "John Doe", "john.doe@example.com");
+        when(userService.findUsersByName("John Doe")).thenReturn(Mono.just(List.of(user)));
+
+        // Act & Assert - 与 server 模块相同的 JSON 数组
+        webTestClient.get().uri("/api/users/name/{name}", "John Doe")
+            .exchange()
+            .expectStatus().isOk()
+            .expectBody()
+            .jsonPath("$[0].id").isEqualTo(1)
+            .jsonPath("$[0].name").isEqualTo("John Doe")
+            .jsonPath("$[0].email").isEqualTo("john.doe@example.com")
+            .jsonPath("$[0].validEmail").isEqualTo(true);
+    }
+
+    @Test
+    void testUserJsonFieldsMatchServer() {
+        // Arrange - 邮箱格式错误
+        User user = new User(1L, "John Doe", "invalid-email");
+        when(userService.findUsersByName("John Doe")).thenReturn(Mono.just(List.of(user)));
+
+        // Act & Assert - 与 server 模块的 User 序列化的字段完全相同
+        webTestClient.get().uri("/api/users/name/{name}", "John Doe")
+            .exchange()
+            .expectStatus().isOk()
+            .expectBody()
+            .json("[{\"id\":1,\"name\":\"John Doe\",\"email\":\"invalid-email\",\"validEmail\":false}]", true);
+    }
+
+    @Test
+    void testStreamUsersByName() {
+        // Arrange
+        when(userService.streamUsersByName("John Doe")).thenReturn(Flux.just(
+            new User(1L, "John Doe", "john.doe@example.com"),
+            new User(2L, "John Doe", "john.doe2@example.com")));
+
+        // Act
+        Flux<User> body = webTestClient.get().uri("/api/users/name/{name}/stream", "John Doe")
+            .accept(MediaType.APPLICATION_NDJSON)
+            .exchange()
+            .expectStatus().isOk()
+            .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+            .returnResult(User.class)
+            .getResponseBody();
+
+        // Assert - 每行一个用户
+        StepVerifier.create(body)
+            .expectNextMatches(user -> user.getId() == 1L)
+            .expectNextMatches(user -> user.getId() == 2L)
+            .verifyComplete();
+    }
+}
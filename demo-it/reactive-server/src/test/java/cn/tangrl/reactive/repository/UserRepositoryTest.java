@@ -0,0 +1,77 @@
+package cn.tangrl.reactive.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import cn.tangrl.reactive.model.User;
+import java.time.Duration;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import reactor.test.StepVerifier;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+public class UserRepositoryTest {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    @DynamicPropertySource  // 动态设置测试环境下的数据库相关属性
+    private static void setProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.r2dbc.url",
+            () -> "r2dbc:h2:mem:///repositorydb;MODE=MySQL;DB_CLOSE_DELAY=-1;DATABASE_TO_LOWER=true");
+    }
+
+    @AfterEach
+    void tearDown() {
+        databaseClient.sql("DELETE FROM users").then().block();
+    }
+
+    @Test
+    void testInsertAllAndFindByName() {
+        // Arrange
+        List<User> users = List.of(new User(null, "John Doe", "john1@example.com"),
+            new User(null, "Jane Doe", "jane@example.com"),
+            new User(null, "John Doe", "john2@example.com"));
+
+        // Act
+        Long inserted = userRepository.insertAll(users).block();
+
+        // Assert - 只返回同名的用户，按 id 排序
+        assertEquals(3L, inserted);
+        StepVerifier.create(userRepository.findByName("John Doe"))
+            .assertNext(user -> assertEquals("john1@example.com", user.getEmail()))
+            .assertNext(user -> assertEquals("john2@example.com", user.getEmail()))
+            .verifyComplete();
+    }
+
+    @Test
+    void testFindByNameFollowsDemand() {
+        // Arrange
+        userRepository.insertAll(List.of(new User(null, "John Doe", "john1@example.com"),
+            new User(null, "John Doe", "john2@example.com"),
+            new User(null, "John Doe", "john3@example.com"))).block();
+
+        // Act & Assert - 每次只请求一个，下游请求之前不会收到下一个用户
+        StepVerifier.create(userRepository.findByName("John Doe"), 1)
+            .assertNext(user -> assertEquals("john1@example.com", user.getEmail()))
+            .expectNoEvent(Duration.ofMillis(100))
+            .thenRequest(1)
+            .assertNext(user -> assertEquals("john2@example.com", user.getEmail()))
+            .thenCancel()
+            .verify();
+    }
+
+    @Test
+    void testFindByNameNotFound() {
+        StepVerifier.create(userRepository.findByName("Nobody")).verifyComplete();
+        StepVerifier.create(userRepository.insertAll(List.of())).expectNext(0L).verifyComplete();
+    }
+}
@@ -0,0 +1,94 @@
+package cn.tangrl.reactive.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import cn.tangrl.reactive.model.User;
+import cn.tangrl.reactive.repository.UserRepository;
+import java.time.Duration;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+public class UserServiceTest {
+
+    @Mock
+    private UserRepository userRepository;  // 模拟 UserRepository 依赖
+
+    private UserService userService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);  // 初始化 Mockito 注解
+        userService = new UserService(userRepository, "maximumSize=100");
+    }
+
+    @Test
+    void testFindUsersByNameIsCached() {
+        // Arrange
+        User user = new User(1L, "John Doe", "john.doe@example.com");
+        when(userRepository.findByName("John Doe")).thenReturn(Flux.just(user));
+
+        // Act - 查询两次
+        StepVerifier.create(userService.findUsersByName("John Doe")).expectNext(List.of(user))
+            .verifyComplete();
+        StepVerifier.create(userService.findUsersByName("John Doe")).expectNext(List.of(user))
+            .verifyComplete();
+
+        // Assert - 第二次来自缓存
+        verify(userRepository, times(1)).findByName("John Doe");
+    }
+
+    @Test
+    void testConcurrentMissesQueryOnce() {
+        // Arrange - 查询需要 100 毫秒才返回
+        User user = new User(1L, "John Doe", "john.doe@example.com");
+        when(userRepository.findByName("John Doe")).thenReturn(
+            Flux.just(user).delayElements(Duration.ofMillis(100)));
+
+        // Act - 查询完成前同时发起 3 次查询
+        List<List<User>> results = Flux.merge(userService.findUsersByName("John Doe"),
+            userService.findUsersByName("John Doe"), userService.findUsersByName("John Doe"))
+            .collectList().block();
+
+        // Assert
+        assertEquals(List.of(List.of(user), List.of(user), List.of(user)), results);
+        verify(userRepository, times(1)).findByName("John Doe");
+    }
+
+    @Test
+    void testFailureIsNotCached() {
+        // Arrange - 第一次查询失败，第二次成功
+        User user = new User(1L, "John Doe", "john.doe@example.com");
+        when(userRepository.findByName("John Doe")).thenReturn(
+            Flux.error(new IllegalStateException("database unavailable")), Flux.just(user));
+
+        // Act & Assert
+        StepVerifier.create(userService.findUsersByName("John Doe"))
+            .verifyError(IllegalStateException.class);
+        StepVerifier.create(userService.findUsersByName("John Doe")).expectNext(List.of(user))
+            .verifyComplete();
+    }
+
+    @Test
+    void testStreamUsersByNameIsNotCached() {
+        // Arrange
+        User user = new User(1L, "John Doe", "john.doe@example.com");
+        when(userRepository.findByName("John Doe")).thenReturn(Flux.just(user));
+
+        // Act
+        StepVerifier.create(userService.streamUsersByName("John Doe")).expectNext(user)
+            .verifyComplete();
+        StepVerifier.create(userService.streamUsersByName("John Doe")).expectNext(user)
+            .verifyComplete();
+
+        // Assert
+        verify(userRepository, times(2)).findByName("John Doe");
+    }
+}
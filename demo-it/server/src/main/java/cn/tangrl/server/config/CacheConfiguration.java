@@ -0,0 +1,18 @@
+package cn.tangrl.server.config;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 进程内缓存
+ * <p>
+ * 缓存由 spring.cache.* 配置创建（Caffeine，按容量和过期时间淘汰，W-TinyLFU 准入策略），
+ * 配置了 recordStats 后命中、未命中、淘汰次数通过 /actuator/metrics/cache.* 暴露。
+ */
+@Configuration(proxyBeanMethods = false)
+@EnableCaching
+public class CacheConfiguration {
+
+    // 按姓名查询用户的缓存，key 为姓名
+    public static final String USERS_BY_NAME = "usersByName";
+}
@@ -0,0 +1,68 @@
+package cn.tangrl.server.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+/**
+ * 按 CPU 核数设置连接池大小
+ * <p>
+ * 配置 app.datasource.pool.auto-size=true 后（prod 配置中开启），HikariCP 的最大连接数设为
+ * 核数 * 2 + 磁盘数（HikariCP 文档中 "About Pool Sizing" 的公式），最小空闲连接数与最大连接数相同，
+ * 即固定大小的连接池。连接数超过数据库能并行处理的数量后，多出的连接只会在数据库中排队，
+ * 还会增加上下文切换和锁竞争；请求在连接池中排队的时间通过 hikaricp.connections.pending、
+ * hikaricp.connections.acquire 指标观察。
+ * <p>
+ * User 的表主键生成器在单独的连接和事务中从 id_generator 取下一段 ID，此时当前事务的连接仍被占用，
+ * 连接池全部借出时会等待到获取连接超时，因此在公式之外多留 {@link #ID_GENERATOR_CONNECTIONS} 个连接
+ * （同一个生成器同时只有一个线程取 ID）。
+ * <p>
+ * 显式配置了 spring.datasource.hikari.maximum-pool-size 时以配置为准，同样需要包含这个连接。
+ */
+@Slf4j
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "app.datasource.pool.auto-size", havingValue = "true")
+public class DataSourcePoolConfiguration {
+
+    // 主键生成器取 ID 时额外使用的连接数
+    static final int ID_GENERATOR_CONNECTIONS = 1;
+
+    private static final String MAXIMUM_POOL_SIZE = "spring.datasource.hikari.maximum-pool-size";
+
+    // BeanPostProcessor 需要在其他 Bean 之前创建，使用 static 方法避免提前初始化配置类
+    @Bean
+    public static BeanPostProcessor hikariPoolSizer(Environment environment) {
+        int cores = environment.getProperty("app.datasource.pool.cores", Integer.class,
+            Runtime.getRuntime().availableProcessors());
+        int spindles = environment.getProperty("app.datasource.pool.spindles", Integer.class, 1);
+        boolean explicit = environment.containsProperty(MAXIMUM_POOL_SIZE);
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof HikariDataSource dataSource && !explicit) {
+                    int poolSize = poolSize(cores, spindles) + ID_GENERATOR_CONNECTIONS;
+                    dataSource.setMaximumPoolSize(poolSize);
+                    dataSource.setMinimumIdle(poolSize);
+                    log.info("Connection pool {} sized to {} ({} cores, {} spindles, {} for ids)",
+                        dataSource.getPoolName(), poolSize, cores, spindles, ID_GENERATOR_CONNECTIONS);
+                }
+                return bean;
+            }
+        };
+    }
+
+    /**
+     * 连接池大小：核数 * 2 + 磁盘数
+     *
+     * @param cores    数据库可用的 CPU 核数
+     * @param spindles 磁盘数，SSD 或数据全部在内存中时取 1
+     * @return 最大连接数
+     */
+    public static int poolSize(int cores, int spindles) {
+        return Math.max(1, cores) * 2 + Math.max(0, spindles);
+    }
+}
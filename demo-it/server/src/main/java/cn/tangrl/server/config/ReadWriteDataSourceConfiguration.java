@@ -0,0 +1,105 @@
+package cn.tangrl.server.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import javax.sql.DataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.util.StringUtils;
+
+/**
+ * 读写分离：只读事务（例如 UserRepository 的 findByName）从只读副本读取，写入使用主库
+ * <p>
+ * 配置 app.datasource.replicas.enabled=true 后，spring.datasource 配置的数据源作为主库（Bean primaryDataSource，
+ * 连接池配置、{@link DataSourcePoolConfiguration} 的自动大小和 hikaricp.* 指标都与原来相同），
+ * app.datasource.replicas.urls 中的每个 URL 创建一个只读的连接池，复制主库的连接池配置。
+ * JPA、Flyway 等使用的默认数据源是 {@link LazyConnectionDataSourceProxy} 包装的 {@link ReadWriteRoutingDataSource}。
+ * Flyway 在事务外执行，只迁移主库，副本的表结构通过数据库复制同步。
+ */
+@Slf4j
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "app.datasource.replicas.enabled", havingValue = "true")
+public class ReadWriteDataSourceConfiguration {
+
+    // 与 Spring Boot 自动配置的 HikariCP 数据源相同，spring.datasource.hikari.* 绑定到连接池
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder()
+            .type(HikariDataSource.class).build();
+        if (StringUtils.hasText(properties.getName())) {
+            dataSource.setPoolName(properties.getName());
+        }
+        return dataSource;
+    }
+
+    @Bean
+    public ReadWriteRoutingDataSource readWriteRoutingDataSource(HikariDataSource primaryDataSource,
+        ObjectProvider<MeterRegistry> meterRegistry,
+        @Value("${app.datasource.replicas.urls:}") String urls,
+        @Value("${app.datasource.replicas.username:}") String username,
+        @Value("${app.datasource.replicas.password:}") String password,
+        @Value("${app.datasource.replicas.selection:round-robin}") String selection,
+        @Value("${app.datasource.replicas.health-check-interval-millis:5000}") long healthCheckIntervalMillis,
+        @Value("${app.datasource.replicas.health-check-timeout-millis:1000}") long healthCheckTimeoutMillis) {
+        List<HikariDataSource> replicas = new ArrayList<>();
+        for (String url : StringUtils.commaDelimitedListToStringArray(urls)) {
+            if (StringUtils.hasText(url)) {
+                replicas.add(replica(primaryDataSource, url.trim(), username, password, replicas.size(),
+                    meterRegistry.getIfAvailable()));
+            }
+        }
+        ReadWriteRoutingDataSource.Selection replicaSelection = ReadWriteRoutingDataSource.Selection.valueOf(
+            selection.trim().toUpperCase(Locale.ROOT).replace('-', '_'));
+        ReadWriteRoutingDataSource routingDataSource = new ReadWriteRoutingDataSource(primaryDataSource,
+            replicas, replicaSelection, healthCheckTimeoutMillis);
+        routingDataSource.startHealthChecks(healthCheckIntervalMillis);
+        meterRegistry.ifAvailable(registry -> Gauge.builder("datasource.replicas.healthy",
+                routingDataSource, ReadWriteRoutingDataSource::healthyReplicas)
+            .description("Read replicas currently used for read-only transactions")
+            .register(registry));
+        log.info("Routing read-only transactions to {} replicas ({})", replicas.size(), replicaSelection);
+        return routingDataSource;
+    }
+
+    // 事务开始时只读标记还没有设置，推迟到第一条语句执行时再选择数据源
+    @Bean
+    @Primary
+    public DataSource dataSource(ReadWriteRoutingDataSource readWriteRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(readWriteRoutingDataSource);
+    }
+
+    // 复制主库的连接池配置（大小、超时、连接属性），只修改 URL、连接池名称和只读标记
+    // 连接池在第一次获取连接时创建，副本启动时不可用不影响应用启动
+    private static HikariDataSource replica(HikariDataSource primary, String url, String username,
+        String password, int index, MeterRegistry meterRegistry) {
+        HikariDataSource replica = new HikariDataSource();
+        primary.copyStateTo(replica);
+        replica.setJdbcUrl(url);
+        replica.setPoolName((primary.getPoolName() == null ? "" : primary.getPoolName() + "-")
+            + "replica-" + index);
+        replica.setReadOnly(true);
+        if (StringUtils.hasText(username)) {
+            replica.setUsername(username);
+            replica.setPassword(password);
+        }
+        // 主库已经绑定了指标时复制的配置中已有，不能重复设置
+        if (meterRegistry != null && replica.getMetricRegistry() == null
+            && replica.getMetricsTrackerFactory() == null) {
+            replica.setMetricRegistry(meterRegistry);
+        }
+        return replica;
+    }
+}
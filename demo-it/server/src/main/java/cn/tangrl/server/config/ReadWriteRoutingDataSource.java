@@ -0,0 +1,279 @@
+package cn.tangrl.server.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import javax.sql.DataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * 读写分离的数据源：只读事务中的连接从只读副本获取，其他连接（读写事务、事务外）使用主库
+ * <p>
+ * 需要包装在 {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy} 中使用：
+ * 事务开始时还没有设置只读标记，代理把获取连接推迟到第一条语句执行时。
+ * <p>
+ * 副本按 {@link Selection} 选择，只在健康的副本中选择。获取副本连接失败时立即标记为不健康并改用主库，
+ * {@link #checkReplicas()} 定期检查所有副本，恢复后重新使用。没有健康的副本时全部使用主库。
+ * 健康检查在自己的线程中执行（{@link #startHealthChecks}），不占用 {@code @Scheduled} 共享的调度线程；
+ * 每个副本的检查最多等待 healthCheckTimeoutMillis，获取连接阻塞（最长为连接池的 connectionTimeout）时直接标记为不健康。
+ * <p>
+ * 副本有复制延迟，写入后立即在只读事务中读取可能读到旧数据。不能读到旧数据的查询（全表导出、写入后立即重新加载缓存）
+ * 放在 {@link #callOnPrimary} / {@link #runOnPrimary} 中执行，其中的只读事务也使用主库。
+ */
+@Slf4j
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource implements DisposableBean {
+
+    static final String PRIMARY = "primary";
+
+    // 当前线程的查询必须使用主库
+    private static final ThreadLocal<Boolean> ON_PRIMARY = new ThreadLocal<>();
+
+    /**
+     * 副本选择策略
+     */
+    public enum Selection {
+        // 依次使用每个健康的副本
+        ROUND_ROBIN,
+        // 使用借出和等待的连接数最少的副本
+        LEAST_BUSY
+    }
+
+    private final DataSource primary;
+
+    private final List<Replica> replicas;
+
+    private final Selection selection;
+
+    private final AtomicInteger next = new AtomicInteger();
+
+    private final long healthCheckTimeoutMillis;
+
+    // 执行每个副本的检查，检查超时后继续在后台等待连接，不阻塞下一次检查
+    private final ExecutorService probes = Executors.newCachedThreadPool(threadFactory("replica-probe-"));
+
+    private volatile ScheduledExecutorService healthChecks;
+
+    public ReadWriteRoutingDataSource(DataSource primary, List<HikariDataSource> replicas,
+        Selection selection, long healthCheckTimeoutMillis) {
+        this.primary = primary;
+        this.selection = selection;
+        this.healthCheckTimeoutMillis = healthCheckTimeoutMillis;
+        this.replicas = new ArrayList<>(replicas.size());
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        for (int i = 0; i < replicas.size(); i++) {
+            Replica replica = new Replica("replica-" + i, replicas.get(i));
+            this.replicas.add(replica);
+            targets.put(replica.key, replica.dataSource);
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        // 目标数据源已经解析好，不需要在容器中初始化也可以使用
+        afterPropertiesSet();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        Replica replica = selectReplica();
+        if (replica != null) {
+            try {
+                return replica.dataSource.getConnection();
+            } catch (SQLException e) {
+                markDown(replica, e.getMessage());
+            }
+        }
+        return primary.getConnection();
+    }
+
+    // 指定用户名和密码的 getConnection 由父类按这里的 key 选择数据源，不做失败后的切换
+    @Override
+    protected Object determineCurrentLookupKey() {
+        Replica replica = selectReplica();
+        return replica == null ? PRIMARY : replica.key;
+    }
+
+    /**
+     * 在主库上执行 action，其中的只读事务也不使用副本；没有开启读写分离时直接执行
+     * <p>
+     * 只影响 action 中获取的连接：在外层已经获取了连接的事务中调用时，继续使用原来的连接。
+     */
+    public static <T> T callOnPrimary(Supplier<T> action) {
+        if (ON_PRIMARY.get() != null) {
+            return action.get();
+        }
+        ON_PRIMARY.set(Boolean.TRUE);
+        try {
+            return action.get();
+        } finally {
+            ON_PRIMARY.remove();
+        }
+    }
+
+    /**
+     * @see #callOnPrimary
+     */
+    public static void runOnPrimary(Runnable action) {
+        callOnPrimary(() -> {
+            action.run();
+            return null;
+        });
+    }
+
+    /**
+     * 每 intervalMillis 毫秒在单独的线程中执行一次 {@link #checkReplicas()}
+     */
+    public synchronized void startHealthChecks(long intervalMillis) {
+        if (healthChecks == null && !replicas.isEmpty()) {
+            healthChecks = Executors.newSingleThreadScheduledExecutor(threadFactory("replica-health-check-"));
+            healthChecks.scheduleWithFixedDelay(this::checkReplicas, intervalMillis, intervalMillis,
+                TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * 检查所有副本，标记为不健康的副本恢复后重新使用
+     * <p>
+     * 所有副本同时检查，最多等待 healthCheckTimeoutMillis；上一次的检查还在等待连接的副本不再重复检查。
+     */
+    public void checkReplicas() {
+        for (Replica replica : replicas) {
+            if (replica.probe == null || replica.probe.isDone()) {
+                replica.probe = CompletableFuture.runAsync(() -> probe(replica), probes);
+            }
+        }
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(healthCheckTimeoutMillis);
+        for (Replica replica : replicas) {
+            try {
+                replica.probe.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                if (!replica.healthy) {
+                    replica.healthy = true;
+                    log.info("Replica {} is healthy again", replica.key);
+                }
+            } catch (TimeoutException e) {
+                markDown(replica, "no connection within " + healthCheckTimeoutMillis + " ms");
+            } catch (ExecutionException e) {
+                markDown(replica, e.getCause().getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * @return 健康的副本数
+     */
+    public int healthyReplicas() {
+        int healthy = 0;
+        for (Replica replica : replicas) {
+            if (replica.healthy) {
+                healthy++;
+            }
+        }
+        return healthy;
+    }
+
+    @Override
+    public void destroy() {
+        if (healthChecks != null) {
+            healthChecks.shutdownNow();
+        }
+        probes.shutdownNow();
+        replicas.forEach(replica -> replica.dataSource.close());
+    }
+
+    // 只读事务中选择一个健康的副本，其他情况（包括 callOnPrimary 中）返回 null
+    private Replica selectReplica() {
+        if (replicas.isEmpty() || ON_PRIMARY.get() != null
+            || !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return null;
+        }
+        if (selection == Selection.LEAST_BUSY) {
+            Replica selected = null;
+            int selectedLoad = Integer.MAX_VALUE;
+            for (Replica replica : replicas) {
+                int load = replica.load();
+                if (replica.healthy && load < selectedLoad) {
+                    selected = replica;
+                    selectedLoad = load;
+                }
+            }
+            return selected;
+        }
+        int start = next.getAndIncrement();
+        for (int i = 0; i < replicas.size(); i++) {
+            Replica replica = replicas.get(Math.floorMod(start + i, replicas.size()));
+            if (replica.healthy) {
+                return replica;
+            }
+        }
+        return null;
+    }
+
+    private void probe(Replica replica) {
+        try (Connection connection = replica.dataSource.getConnection()) {
+            // isValid 的超时以秒为单位，检查本身在 healthCheckTimeoutMillis 后不再等待
+            int timeoutSeconds = (int) Math.max(1, TimeUnit.MILLISECONDS.toSeconds(healthCheckTimeoutMillis));
+            if (!connection.isValid(timeoutSeconds)) {
+                throw new SQLException("Connection is not valid");
+            }
+        } catch (SQLException e) {
+            throw new CompletionException(e);
+        }
+    }
+
+    private void markDown(Replica replica, String reason) {
+        if (replica.healthy) {
+            replica.healthy = false;
+            log.warn("Replica {} is unhealthy, routing its reads to the primary: {}", replica.key, reason);
+        }
+    }
+
+    private static CustomizableThreadFactory threadFactory(String prefix) {
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory(prefix);
+        threadFactory.setDaemon(true);
+        return threadFactory;
+    }
+
+    private static final class Replica {
+
+        private final String key;
+
+        private final HikariDataSource dataSource;
+
+        private volatile boolean healthy = true;
+
+        // 最近一次健康检查
+        private volatile CompletableFuture<Void> probe;
+
+        private Replica(String key, HikariDataSource dataSource) {
+            this.key = key;
+            this.dataSource = dataSource;
+        }
+
+        // 借出和等待的连接数，连接池在第一次获取连接时才创建
+        private int load() {
+            HikariPoolMXBean pool = dataSource.getHikariPoolMXBean();
+            return pool == null ? 0 : pool.getActiveConnections() + pool.getThreadsAwaitingConnection();
+        }
+    }
+}
@@ -1,24 +1,129 @@
 package cn.tangrl.server.controller;
 
 import cn.tangrl.server.model.User;
+import cn.tangrl.server.model.UserImportReport;
+import cn.tangrl.server.model.UserNameMatch;
+import cn.tangrl.server.model.UserPage;
+import cn.tangrl.server.service.UserImportService;
 import cn.tangrl.server.service.UserService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.util.List;
+import java.util.Map;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @RestController
 @RequestMapping("/api/users")
 public class UserController {
 
+    private static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+
+    private static final MediaType APPLICATION_NDJSON = MediaType.parseMediaType(APPLICATION_NDJSON_VALUE);
+
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private UserImportService userImportService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // 每页最多返回的用户数
+    @Value("${app.users.page.max-limit:1000}")
+    private int maxPageLimit;
+
+    // 搜索结果最多返回的用户数
+    @Value("${app.users.search.max-limit:50}")
+    private int maxSearchLimit;
+
+    // 批量查询一次最多包含的姓名数
+    @Value("${app.users.names.max-names:1000}")
+    private int maxNames;
+
     // 根据姓名查找用户
     @GetMapping("/name/{name}")
     public List<User> getUsersByName(@PathVariable String name) {
         return userService.findUsersByName(name);
     }
+
+    // 根据多个姓名批量查找用户，请求体为姓名的 JSON 数组，返回以姓名为 key 的用户列表
+    @PostMapping("/names")
+    public Map<String, List<User>> getUsersByNames(@RequestBody List<String> names) {
+        if (names.size() > maxNames) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                "At most " + maxNames + " names are allowed, got " + names.size());
+        }
+        return userService.findUsersByNames(names);
+    }
+
+    // 根据姓名分页查找用户，after 为上一页返回的 nextCursor，第一页不传
+    @GetMapping("/name/{name}/page")
+    public UserPage getUsersByNamePage(@PathVariable String name,
+        @RequestParam(defaultValue = "0") long after,
+        @RequestParam(defaultValue = "100") int limit) {
+        return userService.findUsersByName(name, after, Math.max(1, Math.min(limit, maxPageLimit)));
+    }
+
+    // 根据姓名流式返回用户，每行一个 JSON 对象（NDJSON）
+    @GetMapping("/name/{name}/stream")
+    public ResponseEntity<StreamingResponseBody> streamUsersByName(@PathVariable String name) {
+        // 写完一个对象后不关闭、不刷新输出流，由 Servlet 的缓冲区决定何时发送
+        ObjectWriter writer = objectMapper.writerFor(User.class)
+            .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+            .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        StreamingResponseBody body = outputStream -> userService.streamUsersByName(name, user -> {
+            try {
+                writer.writeValue(outputStream, user);
+                outputStream.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return ResponseEntity.ok().contentType(APPLICATION_NDJSON).body(body);
+    }
+
+    // 按姓名中任意单词的前缀搜索用户，不区分大小写，开启姓名索引时由内存中的索引返回
+    @GetMapping("/search")
+    public List<UserNameMatch> searchUsers(@RequestParam String q,
+        @RequestParam(defaultValue = "10") int limit) {
+        return userService.searchUsers(q, Math.max(1, Math.min(limit, maxSearchLimit)));
+    }
+
+    // 批量导入用户，请求体为 JSON 数组或 NDJSON，边读边导入
+    @PostMapping(value = "/import",
+        consumes = {MediaType.APPLICATION_JSON_VALUE, APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<UserImportReport> importJson(InputStream body) throws IOException {
+        return toResponse(userImportService.importJson(body));
+    }
+
+    // 批量导入用户，请求体为带表头（name,email）的 CSV
+    @PostMapping(value = "/import", consumes = "text/csv")
+    public ResponseEntity<UserImportReport> importCsv(InputStream body) throws IOException {
+        return toResponse(userImportService.importCsv(body));
+    }
+
+    // 导入中止（请求体格式错误）时返回 400，结果中包含已导入的行数
+    private static ResponseEntity<UserImportReport> toResponse(UserImportReport report) {
+        return report.failure() == null ? ResponseEntity.ok(report)
+            : ResponseEntity.badRequest().body(report);
+    }
 }
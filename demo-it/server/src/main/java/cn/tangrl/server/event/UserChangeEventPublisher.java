@@ -0,0 +1,91 @@
+package cn.tangrl.server.event;
+
+import cn.tangrl.server.event.UserChangedEvent.Type;
+import cn.tangrl.server.model.User;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostCommitInsertEventListener;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+/**
+ * 监听 Hibernate 的提交后事件，把 User 的新增、修改、删除转换为 {@link UserChangedEvent}
+ * <p>
+ * 修改事件中带有修改前的状态，可以同时得到新旧姓名；通过 UserRepository 以外的方式（原生 SQL、批量 JPQL）修改的数据不会触发事件。
+ */
+@Component
+public class UserChangeEventPublisher implements PostCommitInsertEventListener,
+    PostCommitUpdateEventListener, PostCommitDeleteEventListener {
+
+    private static final String NAME_PROPERTY = "name";
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    public UserChangeEventPublisher(EntityManagerFactory entityManagerFactory,
+        ApplicationEventPublisher eventPublisher) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.eventPublisher = eventPublisher;
+    }
+
+    @PostConstruct
+    void register() {
+        EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+            .getServiceRegistry().getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_COMMIT_INSERT, this);
+        registry.appendListeners(EventType.POST_COMMIT_UPDATE, this);
+        registry.appendListeners(EventType.POST_COMMIT_DELETE, this);
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return persister.getMappedClass() == User.class;
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        User user = (User) event.getEntity();
+        eventPublisher.publishEvent(new UserChangedEvent(user.getId(), user.getName(), null, Type.CREATED));
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        User user = (User) event.getEntity();
+        String previousName = null;
+        Object[] oldState = event.getOldState();
+        if (oldState != null) {
+            previousName = (String) oldState[event.getPersister().getPropertyIndex(NAME_PROPERTY)];
+        }
+        eventPublisher.publishEvent(
+            new UserChangedEvent(user.getId(), user.getName(), previousName, Type.UPDATED));
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        User user = (User) event.getEntity();
+        eventPublisher.publishEvent(new UserChangedEvent(user.getId(), user.getName(), null, Type.DELETED));
+    }
+
+    // 事务已经回滚，数据没有变化
+    @Override
+    public void onPostInsertCommitFailed(PostInsertEvent event) {
+    }
+
+    @Override
+    public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+    }
+
+    @Override
+    public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+    }
+}
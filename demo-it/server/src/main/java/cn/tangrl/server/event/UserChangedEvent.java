@@ -0,0 +1,16 @@
+package cn.tangrl.server.event;
+
+/**
+ * 用户数据变更事件，在事务提交后发布
+ *
+ * @param id           用户 ID
+ * @param name         变更后的姓名，删除时为被删除用户的姓名
+ * @param previousName 变更前的姓名，新增时为 null
+ * @param type         变更类型
+ */
+public record UserChangedEvent(Long id, String name, String previousName, Type type) {
+
+    public enum Type {
+        CREATED, UPDATED, DELETED
+    }
+}
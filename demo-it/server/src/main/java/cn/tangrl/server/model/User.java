@@ -1,35 +1,50 @@
 package cn.tangrl.server.model;
 
+import cn.tangrl.common.validation.EmailValidator;
+import cn.tangrl.common.validation.ValidEmail;
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.Table;
-import jakarta.validation.constraints.Email;
+import jakarta.persistence.TableGenerator;
 import jakarta.validation.constraints.NotBlank;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Entity
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
-@Table(name = "users")
+// 二级缓存，区域配置见 demo-common 的 users-ehcache.xml；READ_WRITE 在更新、删除提交前锁定缓存条目，提交后写入新值，不会读到旧数据
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "users")
+// 索引由 Flyway 脚本 V2__add_users_name_index.sql 创建，这里声明是为了与表结构保持一致
+@Table(name = "users", indexes = @Index(name = "idx_users_name", columnList = "name"))
 public class User {
 
+    // IDENTITY 会让 Hibernate 关闭批量插入，这里改为基于表的 hi/lo 主键生成，每次从 id_generator 表取一段 ID
+    // 表和初始值由 Flyway 脚本 V3__add_id_generator.sql 创建，V4 去掉了 id 列的 AUTO_INCREMENT，其他程序插入时也要从该表取 ID
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "users_id")
+    @TableGenerator(name = "users_id", table = "id_generator", pkColumnName = "sequence_name",
+        valueColumnName = "next_val", pkColumnValue = "users", allocationSize = 1000)
     private Long id;
 
     @NotBlank(message = "Name is mandatory")
     private String name;
 
-    @Email(message = "Email should be valid")
+    // 与 isValidEmail 使用同一个校验器
+    @ValidEmail(message = "Email should be valid")
     private String email;
 
     // 简单的业务逻辑：验证电子邮件格式
     public boolean isValidEmail() {
-        return this.email != null && this.email.matches("^[A-Za-z0-9+_.-]+@(.+)$");
+        return EmailValidator.isValid(this.email);
     }
 }
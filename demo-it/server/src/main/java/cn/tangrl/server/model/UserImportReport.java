@@ -0,0 +1,18 @@
+package cn.tangrl.server.model;
+
+import java.util.List;
+
+/**
+ * 批量导入的结果
+ *
+ * @param imported      成功导入的行数
+ * @param rejected      校验失败被跳过的行数
+ * @param batches       提交的批次数
+ * @param elapsedMillis 耗时（毫秒）
+ * @param errors        校验失败的行及原因，最多 app.users.import.max-errors 条
+ * @param failure       导致导入中止的错误（例如格式错误），为 null 时表示全部处理完成；中止前已提交的批次不会回滚
+ */
+public record UserImportReport(long imported, long rejected, int batches, long elapsedMillis,
+                               List<String> errors, String failure) {
+
+}
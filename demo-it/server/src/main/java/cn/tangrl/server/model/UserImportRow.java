@@ -0,0 +1,11 @@
+package cn.tangrl.server.model;
+
+/**
+ * 批量导入的一行数据，JSON 的字段名和 CSV 的表头都是 name、email
+ *
+ * @param name  姓名
+ * @param email 电子邮件
+ */
+public record UserImportRow(String name, String email) {
+
+}
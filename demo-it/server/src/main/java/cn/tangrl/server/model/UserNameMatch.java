@@ -0,0 +1,11 @@
+package cn.tangrl.server.model;
+
+/**
+ * 姓名搜索的结果
+ *
+ * @param id   用户 ID，完整信息通过其他接口查询
+ * @param name 姓名
+ */
+public record UserNameMatch(Long id, String name) {
+
+}
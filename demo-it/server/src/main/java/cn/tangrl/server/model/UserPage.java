@@ -0,0 +1,13 @@
+package cn.tangrl.server.model;
+
+import java.util.List;
+
+/**
+ * 键集分页的结果
+ *
+ * @param users      本页的用户，按 id 升序
+ * @param nextCursor 下一页的游标（本页最后一个用户的 id），没有下一页时为 null
+ */
+public record UserPage(List<User> users, Long nextCursor) {
+
+}
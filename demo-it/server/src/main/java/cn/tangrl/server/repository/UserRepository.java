@@ -1,14 +1,68 @@
 package cn.tangrl.server.repository;
 
 import cn.tangrl.server.model.User;
+import cn.tangrl.server.model.UserNameMatch;
+import jakarta.persistence.QueryHint;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 public interface UserRepository extends JpaRepository<User, Long> {
 
     // 自定义查询方法：根据用户名查找用户
+    // 以只读方式加载实体，Hibernate 不保存用于脏检查的快照，对返回的实体的修改不会写回数据库
+    // 查询结果缓存在查询缓存 users.findByName 中，users 表有写入时失效
+    // 只读事务中 Hibernate 使用 FlushMode.MANUAL，提交时不做脏检查和 flush
+    @Transactional(readOnly = true)
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "users.findByName")})
     @Query("SELECT u FROM User u WHERE u.name = :name")
     List<User> findByName(@Param("name") String name);
+
+    // 根据多个姓名查找用户，用于批量查询，IN 列表的长度由调用方分组控制
+    // 参数个数补齐到 2 的幂（hibernate.query.in_clause_parameter_padding），不同长度的列表复用同一条 SQL
+    @Transactional(readOnly = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    @Query("SELECT u FROM User u WHERE u.name IN :names ORDER BY u.id")
+    List<User> findByNameIn(@Param("names") Collection<String> names);
+
+    // 键集分页：返回 id 大于 afterId 的用户，按 id 升序，条数由 pageable 限制
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    @Query("SELECT u FROM User u WHERE u.name = :name AND u.id > :afterId ORDER BY u.id")
+    List<User> findByNameAfterId(@Param("name") String name, @Param("afterId") long afterId,
+        Pageable pageable);
+
+    // 按姓名中任意单词的前缀搜索，参数为以 ! 转义的小写 LIKE 模式，关闭姓名索引时使用
+    // LOWER(name) 不能使用 idx_users_name，需要扫描全表，按 id 排序
+    @Transactional(readOnly = true)
+    @Query("SELECT new cn.tangrl.server.model.UserNameMatch(u.id, u.name) FROM User u"
+        + " WHERE LOWER(u.name) LIKE :prefix ESCAPE '!' OR LOWER(u.name) LIKE :wordPrefix ESCAPE '!'"
+        + " ORDER BY u.id")
+    List<UserNameMatch> searchByNamePrefix(@Param("prefix") String prefix,
+        @Param("wordPrefix") String wordPrefix, Pageable pageable);
+
+    // 流式查询：按批次从数据库读取，需要在事务中消费并关闭 Stream
+    // MySQL 需要在连接 URL 中配置 useCursorFetch=true，fetch size 才会生效
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")})
+    @Query("SELECT u FROM User u WHERE u.name = :name ORDER BY u.id")
+    Stream<User> streamByName(@Param("name") String name);
+
+    // 流式读取全部用户的 id 和姓名，用于加载姓名索引，不创建实体
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT new cn.tangrl.server.model.UserNameMatch(u.id, u.name) FROM User u")
+    Stream<UserNameMatch> streamAllNames();
+
+    // 流式读取全部用户，用于导出快照；构造表达式创建的 User 不是托管实体，不会留在持久化上下文中
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT new cn.tangrl.server.model.User(u.id, u.name, u.email) FROM User u")
+    Stream<User> streamAllUsers();
 }
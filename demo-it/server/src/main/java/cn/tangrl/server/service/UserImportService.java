@@ -0,0 +1,152 @@
+package cn.tangrl.server.service;
+
+import cn.tangrl.server.model.User;
+import cn.tangrl.server.model.UserImportReport;
+import cn.tangrl.server.model.UserImportRow;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * 批量导入用户
+ * <p>
+ * 边读边解析请求体，不把整个文件读入内存；每 batch-size 行在一个事务中插入，
+ * 插入后清空持久化上下文，Hibernate 按 JDBC 批次发送 INSERT。每个批次提交后输出一条进度日志。
+ */
+@Slf4j
+@Service
+public class UserImportService {
+
+    private final ObjectReader jsonReader;
+
+    private final ObjectReader csvReader;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final Validator validator;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${app.users.import.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${app.users.import.max-errors:100}")
+    private int maxErrors;
+
+    public UserImportService(ObjectMapper objectMapper, PlatformTransactionManager transactionManager,
+        Validator validator) {
+        this.jsonReader = objectMapper.readerFor(UserImportRow.class);
+        this.csvReader = new CsvMapper().readerFor(UserImportRow.class)
+            .with(CsvSchema.emptySchema().withHeader());
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.validator = validator;
+    }
+
+    // 导入 JSON 数组或 NDJSON（每行一个 JSON 对象）
+    public UserImportReport importJson(InputStream inputStream) throws IOException {
+        try (MappingIterator<UserImportRow> rows = jsonReader.readValues(inputStream)) {
+            return importRows(rows);
+        }
+    }
+
+    // 导入带表头的 CSV，表头为 name,email
+    public UserImportReport importCsv(InputStream inputStream) throws IOException {
+        try (MappingIterator<UserImportRow> rows = csvReader.readValues(inputStream)) {
+            return importRows(rows);
+        }
+    }
+
+    private UserImportReport importRows(MappingIterator<UserImportRow> rows) {
+        long start = System.nanoTime();
+        List<User> batch = new ArrayList<>(batchSize);
+        List<String> errors = new ArrayList<>();
+        long imported = 0;
+        long rejected = 0;
+        long rowNumber = 0;
+        int batches = 0;
+        String failure = null;
+        try {
+            while (rows.hasNextValue()) {
+                UserImportRow row = rows.nextValue();
+                rowNumber++;
+                User user = new User(null, row.name(), row.email());
+                Set<ConstraintViolation<User>> violations = validator.validate(user);
+                if (!violations.isEmpty()) {
+                    rejected++;
+                    if (errors.size() < maxErrors) {
+                        errors.add(describe(rowNumber, violations));
+                    }
+                    continue;
+                }
+                batch.add(user);
+                if (batch.size() == batchSize) {
+                    imported += insert(batch);
+                    batches++;
+                    logProgress(batches, imported, rejected, start);
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            // 格式错误时无法继续解析，已提交的批次保留
+            String message = e instanceof JsonProcessingException jsonException
+                ? jsonException.getOriginalMessage() : e.getMessage();
+            failure = "Row " + (rowNumber + 1) + ": " + message;
+            log.warn("User import aborted after {} rows: {}", rowNumber, message);
+        }
+        if (failure == null && !batch.isEmpty()) {
+            imported += insert(batch);
+            batches++;
+            logProgress(batches, imported, rejected, start);
+        }
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        return new UserImportReport(imported, rejected, batches, elapsedMillis, errors, failure);
+    }
+
+    // 在一个事务中插入一批用户，返回插入的行数
+    private int insert(List<User> batch) {
+        int size = batch.size();
+        transactionTemplate.executeWithoutResult(status -> {
+            entityManager.unwrap(Session.class).setJdbcBatchSize(batchSize);
+            for (User user : batch) {
+                entityManager.persist(user);
+            }
+            entityManager.flush();
+            entityManager.clear();
+        });
+        batch.clear();
+        return size;
+    }
+
+    private static void logProgress(int batches, long imported, long rejected, long start) {
+        long elapsedNanos = System.nanoTime() - start;
+        log.info("User import batch {} committed: {} imported, {} rejected, {} rows/s", batches,
+            imported, rejected, elapsedNanos == 0 ? 0 : imported * 1_000_000_000L / elapsedNanos);
+    }
+
+    private static String describe(long rowNumber, Set<ConstraintViolation<User>> violations) {
+        StringBuilder builder = new StringBuilder("Row ").append(rowNumber).append(':');
+        for (ConstraintViolation<User> violation : violations) {
+            builder.append(' ').append(violation.getPropertyPath()).append(' ')
+                .append(violation.getMessage()).append(';');
+        }
+        return builder.toString();
+    }
+}
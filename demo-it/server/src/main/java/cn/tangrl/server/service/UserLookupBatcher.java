@@ -0,0 +1,200 @@
+package cn.tangrl.server.service;
+
+import cn.tangrl.server.model.User;
+import cn.tangrl.server.repository.UserRepository;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * 合并并发的按姓名查询
+ * <p>
+ * 一个时间窗口（app.users.batching.window-millis）内到达的查询合并为一次 {@link UserRepository#findByNameIn}，
+ * 窗口内的姓名达到 app.users.batching.max-size 个时立即执行。每个调用方拿到自己姓名对应的结果，
+ * 查询失败时所有调用方都收到同一个异常。
+ * <p>
+ * 结果按 {@link UserNames#groupByName} 分组：MySQL 默认的排序规则不区分大小写和重音，IN 查询会返回大小写、重音不同的行，
+ * 不能确定归属的姓名改为单独执行 {@link UserRepository#findByName}，保证结果与不合并时相同。
+ * 批量查询在固定大小的线程池中执行，线程数默认与连接池的最大连接数相同（app.users.batching.threads）。
+ * <p>
+ * 合并减少了数据库查询次数和连接的占用，代价是每个查询最多多等待一个窗口。通过以下指标调整窗口：
+ * <ul>
+ *     <li>users.lookup.batch.size：每批的姓名数，接近 1 说明窗口内没有可以合并的查询</li>
+ *     <li>users.lookup.batch.wait：从调用到所在批次开始查询的等待时间，即合并带来的额外延迟</li>
+ *     <li>users.lookup.batch.query：每批查询的耗时</li>
+ *     <li>users.lookup.batch.fallback：因为大小写、重音不同重新查询的姓名数</li>
+ * </ul>
+ * 与 hikaricp.connections.pending、hikaricp.connections.acquire 对比：等待时间小于原来获取连接的排队时间时才有收益。
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.users.batching.enabled", havingValue = "true")
+public class UserLookupBatcher implements DisposableBean {
+
+    private final UserRepository userRepository;
+
+    private final long windowNanos;
+
+    private final int maxSize;
+
+    // 触发时间窗口结束后的查询
+    private final ScheduledExecutorService scheduler;
+
+    // 执行批量查询，查询期间下一个窗口继续收集；线程数不超过连接数，多出的批次排队等待线程而不是连接
+    private final ExecutorService executor;
+
+    private final DistributionSummary batchSize;
+
+    private final Timer batchWait;
+
+    private final Timer batchQuery;
+
+    private final Counter fallbacks;
+
+    private final Object lock = new Object();
+
+    // 当前窗口内的姓名和等待结果的调用方，同一姓名只查询一次
+    private Map<String, List<Waiter>> pending = new LinkedHashMap<>();
+
+    @Autowired
+    public UserLookupBatcher(UserRepository userRepository, MeterRegistry meterRegistry,
+        ObjectProvider<HikariDataSource> dataSource,
+        @Value("${app.users.batching.window-millis:2}") long windowMillis,
+        @Value("${app.users.batching.max-size:100}") int maxSize,
+        @Value("${app.users.batching.threads:0}") int threads) {
+        this(userRepository, meterRegistry, windowMillis, maxSize,
+            threads > 0 ? threads : maximumPoolSize(dataSource.getIfAvailable()));
+    }
+
+    UserLookupBatcher(UserRepository userRepository, MeterRegistry meterRegistry, long windowMillis,
+        int maxSize, int threads) {
+        this.userRepository = userRepository;
+        this.windowNanos = TimeUnit.MILLISECONDS.toNanos(windowMillis);
+        this.maxSize = maxSize;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(
+            threadFactory("user-lookup-batch-timer-"));
+        this.executor = Executors.newFixedThreadPool(threads, threadFactory("user-lookup-batch-"));
+        this.batchSize = DistributionSummary.builder("users.lookup.batch.size")
+            .description("Number of distinct names per batched lookup")
+            .register(meterRegistry);
+        this.batchWait = Timer.builder("users.lookup.batch.wait")
+            .description("Time a lookup waits for its batch to start")
+            .register(meterRegistry);
+        this.batchQuery = Timer.builder("users.lookup.batch.query")
+            .description("Time spent running a batched lookup")
+            .register(meterRegistry);
+        this.fallbacks = Counter.builder("users.lookup.batch.fallback")
+            .description("Names looked up individually because the batch returned case or accent variants")
+            .register(meterRegistry);
+        log.info("User lookup batching enabled, window {} ms, max size {}, {} threads", windowMillis,
+            maxSize, threads);
+    }
+
+    /**
+     * 加入当前窗口，窗口结束或姓名数达到上限后查询
+     *
+     * @param name 姓名
+     * @return 与 {@link UserRepository#findByName} 相同的结果（可能相等的姓名单独查询，见类注释）
+     */
+    public CompletableFuture<List<User>> load(String name) {
+        Waiter waiter = new Waiter(new CompletableFuture<>(), System.nanoTime());
+        Map<String, List<Waiter>> full = null;
+        synchronized (lock) {
+            if (pending.isEmpty()) {
+                Map<String, List<Waiter>> window = pending;
+                scheduler.schedule(() -> flush(window), windowNanos, TimeUnit.NANOSECONDS);
+            }
+            pending.computeIfAbsent(name, key -> new ArrayList<>(1)).add(waiter);
+            if (pending.size() >= maxSize) {
+                full = pending;
+                pending = new LinkedHashMap<>();
+            }
+        }
+        if (full != null) {
+            Map<String, List<Waiter>> batch = full;
+            executor.execute(() -> run(batch));
+        }
+        return waiter.future();
+    }
+
+    // 窗口结束：如果这个窗口还没有因为达到上限被取走，取走并查询
+    private void flush(Map<String, List<Waiter>> window) {
+        synchronized (lock) {
+            if (pending != window) {
+                return;
+            }
+            pending = new LinkedHashMap<>();
+        }
+        executor.execute(() -> run(window));
+    }
+
+    private void run(Map<String, List<Waiter>> batch) {
+        long start = System.nanoTime();
+        batchSize.record(batch.size());
+        for (List<Waiter> waiters : batch.values()) {
+            for (Waiter waiter : waiters) {
+                batchWait.record(start - waiter.enqueuedNanos(), TimeUnit.NANOSECONDS);
+            }
+        }
+        Map<String, List<User>> usersByName;
+        try {
+            List<String> names = new ArrayList<>(batch.keySet());
+            usersByName = UserNames.groupByName(names, userRepository.findByNameIn(batch.keySet()),
+                userRepository, fallbacks::increment);
+        } catch (RuntimeException e) {
+            batch.values().forEach(waiters -> waiters.forEach(
+                waiter -> waiter.future().completeExceptionally(e)));
+            return;
+        } finally {
+            batchQuery.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+        batch.forEach((name, waiters) -> waiters.forEach(
+            waiter -> waiter.future().complete(usersByName.get(name))));
+    }
+
+    // 已经加入窗口的查询在关闭时仍然会执行
+    @Override
+    public void destroy() throws InterruptedException {
+        scheduler.shutdown();
+        scheduler.awaitTermination(1, TimeUnit.SECONDS);
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    // 连接池还没有启动时 maximumPoolSize 未设置，取 HikariCP 的默认值 10
+    private static int maximumPoolSize(HikariDataSource dataSource) {
+        if (dataSource == null || dataSource.getMaximumPoolSize() < 1) {
+            return 10;
+        }
+        return dataSource.getMaximumPoolSize();
+    }
+
+    private static CustomizableThreadFactory threadFactory(String prefix) {
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory(prefix);
+        threadFactory.setDaemon(true);
+        return threadFactory;
+    }
+
+    private record Waiter(CompletableFuture<List<User>> future, long enqueuedNanos) {
+
+    }
+}
@@ -0,0 +1,162 @@
+package cn.tangrl.server.service;
+
+import cn.tangrl.server.config.ReadWriteRoutingDataSource;
+import cn.tangrl.server.event.UserChangedEvent;
+import cn.tangrl.server.model.UserNameMatch;
+import cn.tangrl.server.repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.stream.Stream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * 所有用户姓名的布隆过滤器，按姓名查询前排除一定不存在的姓名，不查询数据库
+ * <p>
+ * 启动后流式读取全部姓名创建，之后根据 {@link UserChangedEvent} 加入新增和改名后的姓名；
+ * 布隆过滤器不支持删除，按 app.users.bloom-filter.rebuild-interval-millis 定期重建，清除已删除的姓名。
+ * 重建期间的新增同时写入新旧两个过滤器，切换前后都不会漏掉已经提交的姓名。
+ * <p>
+ * 姓名按 {@link #key} 比较，数据库按排序规则认为相等的姓名得到相同的 key（见 key 的注释）。
+ * 只能感知本进程通过 UserRepository 的写入：多实例部署或有其他程序写 users 表时，其他来源新增的姓名在下次重建前会被误判为不存在。
+ * 指标：users.bloom-filter.bytes（占用内存）、users.bloom-filter.expected-fpp（按当前置位比例估算的误判率）、
+ * users.bloom-filter.rejected（没有查询数据库直接返回的次数）。
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.users.bloom-filter.enabled", havingValue = "true")
+public class UserNameBloomFilter {
+
+    private final UserRepository userRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final double falsePositiveRate;
+
+    private final long insertHeadroom;
+
+    private final Counter rejected;
+
+    // 加载完成前为 null，此时所有姓名都视为可能存在
+    private volatile BloomFilter current;
+
+    // 正在重建的过滤器，重建期间的新增同时写入
+    private volatile BloomFilter building;
+
+    public UserNameBloomFilter(UserRepository userRepository,
+        PlatformTransactionManager transactionManager, MeterRegistry meterRegistry,
+        @Value("${app.users.bloom-filter.false-positive-rate:0.01}") double falsePositiveRate,
+        @Value("${app.users.bloom-filter.insert-headroom:100000}") long insertHeadroom) {
+        this.userRepository = userRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.falsePositiveRate = falsePositiveRate;
+        this.insertHeadroom = insertHeadroom;
+        this.rejected = Counter.builder("users.bloom-filter.rejected")
+            .description("Lookups answered as empty without querying the database")
+            .register(meterRegistry);
+        Gauge.builder("users.bloom-filter.bytes", this, filter -> filter.sizeInBytes())
+            .description("Memory used by the user name bloom filter")
+            .baseUnit("bytes")
+            .register(meterRegistry);
+        Gauge.builder("users.bloom-filter.expected-fpp", this,
+                filter -> filter.estimatedFalsePositiveRate())
+            .description("Estimated false positive rate of the user name bloom filter")
+            .register(meterRegistry);
+    }
+
+    /**
+     * @return false 表示一定没有这个姓名的用户
+     */
+    public boolean mightContain(String name) {
+        BloomFilter filter = current;
+        if (filter == null || name == null || filter.mightContain(key(name))) {
+            return true;
+        }
+        rejected.increment();
+        return false;
+    }
+
+    public long sizeInBytes() {
+        BloomFilter filter = current;
+        return filter == null ? 0 : filter.sizeInBytes();
+    }
+
+    public double estimatedFalsePositiveRate() {
+        BloomFilter filter = current;
+        return filter == null ? 0 : filter.estimatedFalsePositiveRate();
+    }
+
+    // 应用启动完成后创建，之后定期重建
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${app.users.bloom-filter.rebuild-interval-millis:3600000}",
+        fixedDelayString = "${app.users.bloom-filter.rebuild-interval-millis:3600000}")
+    public synchronized void rebuild() {
+        long start = System.nanoTime();
+        // 从主库读取：副本有复制延迟，之前提交的新增可能还没有同步到副本，新的过滤器会漏掉这些姓名
+        BloomFilter filter = ReadWriteRoutingDataSource.callOnPrimary(this::load);
+        log.info("User name bloom filter rebuilt in {} ms: {} bits, {} hashes, {} KB,"
+                + " estimated false positive rate {}", (System.nanoTime() - start) / 1_000_000,
+            filter.bitCount(), filter.hashCount(), filter.sizeInBytes() / 1024,
+            String.format("%.4f", filter.estimatedFalsePositiveRate()));
+    }
+
+    private BloomFilter load() {
+        // 按当前行数加上两次重建之间预计的新增计算大小，行数不少于不同姓名数
+        BloomFilter filter = BloomFilter.create(userRepository.count() + insertHeadroom,
+            falsePositiveRate);
+        // 先发布 building 再读取：之后提交的新增一定会写入新的过滤器，之前提交的新增在读取时可见
+        building = filter;
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                try (Stream<UserNameMatch> users = userRepository.streamAllNames()) {
+                    users.forEach(user -> {
+                        if (user.name() != null) {
+                            filter.put(key(user.name()));
+                        }
+                    });
+                }
+            });
+            current = filter;
+        } finally {
+            building = null;
+        }
+        return filter;
+    }
+
+    // 在清除 usersByName 缓存之前执行，否则清除后、写入过滤器前的查询会把空结果重新放入缓存
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @EventListener
+    public void onUserChanged(UserChangedEvent event) {
+        if (event.type() == UserChangedEvent.Type.DELETED || event.name() == null) {
+            return;
+        }
+        String key = key(event.name());
+        // 先读取 building 再写入 current：重建在两次读取之间完成时，新的过滤器已经由 building 写入
+        BloomFilter rebuilding = building;
+        BloomFilter filter = current;
+        if (filter != null) {
+            filter.put(key);
+        }
+        if (rebuilding != null) {
+            rebuilding.put(key);
+        }
+    }
+
+    // 布隆过滤器不能漏掉数据库认为相等的姓名，使用近似 MySQL 默认排序规则的宽松 key（NFKC、大小写折叠、去掉重音）：
+    // 覆盖大小写、重音、全角/半角、连字和 ß/ss 等常见的等价关系，只会增加误判；
+    // key 没有覆盖的排序规则等价关系（例如某些语言特定的规则）可能被误判为不存在，这类排序规则下不要开启
+    static String key(String name) {
+        return UserNames.collationKey(name);
+    }
+}
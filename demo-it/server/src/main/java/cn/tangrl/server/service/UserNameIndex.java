@@ -0,0 +1,227 @@
+package cn.tangrl.server.service;
+
+import cn.tangrl.server.config.ReadWriteRoutingDataSource;
+import cn.tangrl.server.event.UserChangedEvent;
+import cn.tangrl.server.model.UserNameMatch;
+import cn.tangrl.server.repository.UserRepository;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * 内存中的姓名索引，用于按前缀、不区分大小写搜索用户
+ * <p>
+ * 姓名统一转换为 NFKC 和小写后，姓名中每个单词开始的后缀都作为一个 key 放入有序的跳表，
+ * 例如 "John Doe" 对应 "john doe" 和 "doe" 两个 key，输入 "jo" 或 "do" 都能找到。
+ * 前缀搜索从第一个不小于前缀的 key 开始顺序读取，耗时与结果数有关，与用户总数无关。
+ * <p>
+ * 启动后从数据库加载全部姓名，之后根据 {@link UserChangedEvent} 更新；加载期间收到的事件在加载完成后按顺序重放。
+ * 事件的应用和重放都持有同一把锁，逐个生效；搜索不加锁。
+ * 通过 UserRepository 以外的方式修改的数据不会触发事件，需要调用 {@link #reload()}。
+ * <p>
+ * 每个用户常驻堆内存：两个单词的姓名约 220 字节（跳表节点、key 和后缀字符串），另加姓名字符串本身，
+ * 100 万用户约 210 MB。内存不足时配置 app.users.search-index.enabled=false 关闭，搜索改为查询数据库。
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.users.search-index.enabled", havingValue = "true", matchIfMissing = true)
+public class UserNameIndex {
+
+    private static final Comparator<Key> KEY_ORDER = Comparator.comparing(Key::term)
+        .thenComparingLong(Key::id);
+
+    // key 为 (单词开始的后缀, 用户 ID)，value 为原始姓名
+    private final ConcurrentSkipListMap<Key, String> index = new ConcurrentSkipListMap<>(KEY_ORDER);
+
+    private final AtomicLong size = new AtomicLong();
+
+    private final UserRepository userRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final Object lock = new Object();
+
+    // 加载期间收到的事件，加载完成后为 null
+    private List<UserChangedEvent> pendingEvents = new ArrayList<>();
+
+    public UserNameIndex(UserRepository userRepository, PlatformTransactionManager transactionManager) {
+        this.userRepository = userRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+    }
+
+    /**
+     * 按前缀搜索，不区分大小写
+     *
+     * @param query 姓名中任意一个单词的前缀
+     * @param limit 最多返回的用户数
+     * @return 按匹配的单词排序，同一个用户只返回一次
+     */
+    public List<UserNameMatch> search(String query, int limit) {
+        String prefix = normalize(query);
+        if (prefix.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        List<UserNameMatch> matches = new ArrayList<>(Math.min(limit, 16));
+        Set<Long> seen = new HashSet<>();
+        for (Map.Entry<Key, String> entry : index.tailMap(new Key(prefix, Long.MIN_VALUE)).entrySet()) {
+            Key key = entry.getKey();
+            if (!key.term().startsWith(prefix)) {
+                break;
+            }
+            if (seen.add(key.id())) {
+                matches.add(new UserNameMatch(key.id(), entry.getValue()));
+                if (matches.size() == limit) {
+                    break;
+                }
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * 索引中的用户数
+     */
+    public long size() {
+        return size.get();
+    }
+
+    // 应用启动完成后加载，不阻塞其他 Bean 的初始化
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        long start = System.nanoTime();
+        // 从主库读取：加载开始前提交、还没有同步到副本的修改不会再收到事件
+        long count = ReadWriteRoutingDataSource.callOnPrimary(() -> transactionTemplate.execute(status -> {
+            long loaded = 0;
+            try (Stream<UserNameMatch> users = userRepository.streamAllNames()) {
+                for (UserNameMatch user : (Iterable<UserNameMatch>) users::iterator) {
+                    add(user.id(), user.name());
+                    loaded++;
+                }
+            }
+            return loaded;
+        }));
+        List<UserChangedEvent> events;
+        synchronized (lock) {
+            events = pendingEvents;
+            pendingEvents = null;
+            // 持有锁重放，保证重放完成前新的事件不会先于旧的事件生效
+            if (events != null) {
+                events.forEach(this::apply);
+            }
+        }
+        log.info("User name index loaded {} users in {} ms, replayed {} events", count,
+            (System.nanoTime() - start) / 1_000_000, events == null ? 0 : events.size());
+    }
+
+    /**
+     * 清空后重新加载
+     */
+    public void reload() {
+        synchronized (lock) {
+            if (pendingEvents == null) {
+                pendingEvents = new ArrayList<>();
+            }
+            index.clear();
+            size.set(0);
+        }
+        load();
+    }
+
+    @EventListener
+    public void onUserChanged(UserChangedEvent event) {
+        synchronized (lock) {
+            if (pendingEvents != null) {
+                pendingEvents.add(event);
+                return;
+            }
+            // 与重放一样持有锁应用：事件按取得锁的顺序逐个生效，
+            // 不会出现后到的事件先生效，或两个 UPDATED 的删除旧姓名、加入新姓名交错执行
+            apply(event);
+        }
+    }
+
+    private void apply(UserChangedEvent event) {
+        switch (event.type()) {
+            case CREATED -> add(event.id(), event.name());
+            case UPDATED -> {
+                remove(event.id(), event.previousName());
+                add(event.id(), event.name());
+            }
+            case DELETED -> remove(event.id(), event.name());
+        }
+    }
+
+    private void add(Long id, String name) {
+        if (id == null || name == null) {
+            return;
+        }
+        boolean added = false;
+        for (String term : terms(name)) {
+            added |= index.put(new Key(term, id), name) == null;
+        }
+        if (added) {
+            size.incrementAndGet();
+        }
+    }
+
+    private void remove(Long id, String name) {
+        if (id == null || name == null) {
+            return;
+        }
+        boolean removed = false;
+        for (String term : terms(name)) {
+            removed |= index.remove(new Key(term, id)) != null;
+        }
+        if (removed) {
+            size.decrementAndGet();
+        }
+    }
+
+    // 姓名中每个单词开始的后缀，例如 "john doe" -> ["john doe", "doe"]
+    static List<String> terms(String name) {
+        String normalized = normalize(name);
+        List<String> terms = new ArrayList<>(2);
+        for (int i = 0; i < normalized.length(); i++) {
+            if (i == 0 || normalized.charAt(i - 1) == ' ') {
+                terms.add(normalized.substring(i));
+            }
+        }
+        return terms;
+    }
+
+    // 全角/半角等兼容字符统一后转小写，连续的空白合并为一个空格，搜索词和姓名使用相同的规则
+    static String normalize(String text) {
+        String normalized = Normalizer.normalize(text, Normalizer.Form.NFKC).toLowerCase(Locale.ROOT)
+            .strip();
+        StringBuilder builder = new StringBuilder(normalized.length());
+        for (int i = 0; i < normalized.length(); i++) {
+            char c = normalized.charAt(i);
+            if (!Character.isWhitespace(c)) {
+                builder.append(c);
+            } else if (!Character.isWhitespace(normalized.charAt(i - 1))) {
+                builder.append(' ');
+            }
+        }
+        return builder.toString();
+    }
+
+    private record Key(String term, long id) {
+
+    }
+}
@@ -0,0 +1,106 @@
+package cn.tangrl.server.service;
+
+import cn.tangrl.server.model.User;
+import cn.tangrl.server.repository.UserRepository;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.IntConsumer;
+
+/**
+ * 姓名比较的工具方法
+ */
+final class UserNames {
+
+    private UserNames() {
+    }
+
+    /**
+     * 近似 MySQL 默认排序规则（utf8mb4_0900_ai_ci 等，不区分大小写和重音）的比较 key
+     * <p>
+     * 依次做 NFKC（全角/半角、连字等兼容字符统一，例如 "ＡＢ" -> "AB"、"ﬁ" -> "fi"）、
+     * 大写再小写（近似 Unicode case folding，例如 "ß" -> "ss"）、NFD 后去掉组合附加符号（重音）。
+     * 0900 排序规则是 NO PAD 的，末尾的空格参与比较（"John " 与 "John" 不相等），所以 key 保留末尾的空白。
+     * 数据库认为相等的姓名通常得到相同的 key；key 比排序规则更宽松，只用于判断“可能相等”。
+     */
+    static String collationKey(String name) {
+        String folded = Normalizer.normalize(name, Normalizer.Form.NFKC).toUpperCase(Locale.ROOT)
+            .toLowerCase(Locale.ROOT);
+        String decomposed = Normalizer.normalize(folded, Normalizer.Form.NFD);
+        StringBuilder builder = new StringBuilder(decomposed.length());
+        for (int i = 0; i < decomposed.length(); i++) {
+            char c = decomposed.charAt(i);
+            if (Character.getType(c) != Character.NON_SPACING_MARK) {
+                builder.append(c);
+            }
+        }
+        return builder.toString();
+    }
+
+    /**
+     * 把 {@link UserRepository#findByNameIn} 返回的行分给各个姓名，结果与对每个姓名执行 findByName 相同
+     * <p>
+     * MySQL 默认的排序规则不区分大小写和重音，IN 查询会返回与请求的姓名不完全相同的行。
+     * 与姓名完全相同、且同一批中没有其他姓名与它 {@link #collationKey} 相同的行属于这个姓名；
+     * 返回了 key 相同但不完全相同的行的姓名、同一批中 key 相同的多个姓名无法判断归属，改为单独执行 findByName。
+     * 有 key 不属于任何姓名的行时（排序规则的等价关系超出了 key 的范围），不知道它属于剩下的哪个姓名，
+     * 把剩下的姓名分成两半分别执行 IN 查询再递归分组，只有包含这类行的那一半继续拆分，最后只有受影响的姓名单独查询。
+     * 只有一个姓名时 IN 查询与 findByName 相同，所有行都属于它。
+     *
+     * @param names      不重复的姓名
+     * @param rows       names 的 IN 查询结果
+     * @param repository 单独查询使用
+     * @param requeried  每次额外查询后调用，参数为这次查询的姓名数
+     * @return 按 names 的顺序，每个姓名对应的行
+     */
+    static Map<String, List<User>> groupByName(List<String> names, List<User> rows,
+        UserRepository repository, IntConsumer requeried) {
+        Map<String, List<User>> usersByName = new LinkedHashMap<>();
+        if (names.size() == 1) {
+            usersByName.put(names.get(0), new ArrayList<>(rows));
+            return usersByName;
+        }
+        Map<String, Integer> keyCounts = new HashMap<>();
+        for (String name : names) {
+            usersByName.put(name, new ArrayList<>());
+            keyCounts.merge(collationKey(name), 1, Integer::sum);
+        }
+        Set<String> variantKeys = new HashSet<>();
+        for (User user : rows) {
+            List<User> users = usersByName.get(user.getName());
+            if (users != null) {
+                users.add(user);
+            } else if (user.getName() != null) {
+                variantKeys.add(collationKey(user.getName()));
+            }
+        }
+        List<String> rest = new ArrayList<>();
+        for (Map.Entry<String, List<User>> entry : usersByName.entrySet()) {
+            String key = collationKey(entry.getKey());
+            if (variantKeys.contains(key) || keyCounts.get(key) > 1) {
+                entry.setValue(repository.findByName(entry.getKey()));
+                requeried.accept(1);
+            } else {
+                rest.add(entry.getKey());
+            }
+        }
+        if (!rest.isEmpty() && !keyCounts.keySet().containsAll(variantKeys)) {
+            int half = rest.size() / 2;
+            for (List<String> part : List.of(rest.subList(0, half), rest.subList(half, rest.size()))) {
+                if (!part.isEmpty()) {
+                    List<String> partNames = List.copyOf(part);
+                    requeried.accept(partNames.size());
+                    usersByName.putAll(groupByName(partNames, repository.findByNameIn(partNames),
+                        repository, requeried));
+                }
+            }
+        }
+        return usersByName;
+    }
+}
@@ -1,20 +1,257 @@
 package cn.tangrl.server.service;
 
+import cn.tangrl.server.config.CacheConfiguration;
+import cn.tangrl.server.config.ReadWriteRoutingDataSource;
+import cn.tangrl.server.event.UserChangedEvent;
 import cn.tangrl.server.model.User;
+import cn.tangrl.server.model.UserNameMatch;
+import cn.tangrl.server.model.UserPage;
 import cn.tangrl.server.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 @Service
 public class UserService {
 
+    private static final int NAME_VERSION_STRIPES = 1024;
+
     @Autowired
     private UserRepository userRepository;
 
-    // 根据姓名查找用户
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    private volatile Cache usersByNameCache;
+
+    // 按姓名的排序规则 key 分段的变更版本号，用户数据变更时在清除缓存之前加一
+    // 查询期间版本号发生变化说明读到的可能是变更前的数据，查询结果不保留在缓存中
+    private final AtomicLongArray nameVersions = new AtomicLongArray(NAME_VERSION_STRIPES);
+
+    // 同样分段的最后一次变更时间（System.nanoTime），变更后 replicaMaxLagMillis 内的查询从主库读取
+    private final AtomicLongArray nameChangedAt = new AtomicLongArray(NAME_VERSION_STRIPES);
+
+    // 开启读写分离时副本的最大复制延迟
+    @Value("${app.datasource.replicas.enabled:false}")
+    private boolean replicasEnabled;
+
+    @Value("${app.datasource.replicas.max-lag-millis:5000}")
+    private long replicaMaxLagMillis;
+
+    // 批量查询时每条 IN 语句最多包含的姓名数
+    @Value("${app.users.names.chunk-size:500}")
+    private int namesChunkSize;
+
+    // app.users.search-index.enabled 没有关闭时存在，按前缀搜索姓名时不查询数据库
+    @Autowired(required = false)
+    private UserNameIndex userNameIndex;
+
+    // 开启 app.users.batching.enabled 后存在，不同姓名的并发查询合并为一次 IN 查询
+    @Autowired(required = false)
+    private UserLookupBatcher userLookupBatcher;
+
+    // 开启 app.users.bloom-filter.enabled 后存在，一定不存在的姓名不查询数据库
+    @Autowired(required = false)
+    private UserNameBloomFilter userNameBloomFilter;
+
+    // 开启 app.users.snapshot.enabled 后存在，快照没有过期时直接从内存映射的文件读取
+    @Autowired(required = false)
+    private UserSnapshot userSnapshot;
+
+    // 根据姓名查找用户，结果会被缓存，同一姓名的并发未命中只查询一次数据库
+    // 缓存的是与持久化上下文无关的用户副本组成的不可修改列表，调用方之间不共享可修改的实体
+    // 查询开始后同一姓名发生了变更时，查询结果返回给本次调用，但从缓存中清除，
+    // 否则在变更提交后清除缓存之前读到旧数据的查询，会在清除之后把旧数据重新放入缓存
+    // 不在这里开启事务：合并查询时调用方要等待一个时间窗口，事务会在等待期间一直占用连接
+    // 查询本身在 UserRepository 声明的只读事务中执行
     public List<User> findUsersByName(String name) {
+        Cache cache = usersByNameCache();
+        int stripe = nameVersionStripe(name);
+        long[] loadedVersion = {-1};
+        List<User> users = cache.get(name, () -> {
+            loadedVersion[0] = nameVersions.get(stripe);
+            return detachedCopy(loadUsersByName(name));
+        });
+        if (loadedVersion[0] >= 0 && nameVersions.get(stripe) != loadedVersion[0]) {
+            cache.evict(name);
+        }
+        return users;
+    }
+
+    // 根据多个姓名批量查找用户，按请求中姓名的顺序返回，没有找到的姓名对应空列表
+    // 已缓存的姓名直接从 usersByName 缓存读取，其余的按 namesChunkSize 分组，每组执行一次 IN 查询
+    // 每个姓名的结果与 findUsersByName 相同（包括 MySQL 排序规则下大小写、重音不同的行），与是否命中缓存无关：
+    // IN 查询的结果按 UserNames.groupByName 分组，不能确定归属的姓名单独查询
+    // 查询结果不写入缓存；从缓存读取的列表不可修改，返回的列表都不应修改
+    @Transactional(readOnly = true)
+    public Map<String, List<User>> findUsersByNames(Collection<String> names) {
+        Cache cache = usersByNameCache();
+        Map<String, List<User>> usersByName = new LinkedHashMap<>();
+        List<String> misses = new ArrayList<>();
+        for (String name : names) {
+            if (name == null || usersByName.containsKey(name)) {
+                continue;
+            }
+            List<User> cached = cachedUsers(cache, name);
+            if (cached != null) {
+                usersByName.put(name, cached);
+            } else if (userNameBloomFilter != null && !userNameBloomFilter.mightContain(name)) {
+                usersByName.put(name, List.of());
+            } else {
+                // 先占位，保持请求中姓名的顺序
+                usersByName.put(name, List.of());
+                misses.add(name);
+            }
+        }
+        Runnable query = () -> {
+            for (int from = 0; from < misses.size(); from += namesChunkSize) {
+                List<String> chunk = misses.subList(from, Math.min(misses.size(), from + namesChunkSize));
+                List<User> rows = userRepository.findByNameIn(chunk);
+                usersByName.putAll(UserNames.groupByName(chunk, rows, userRepository, requeried -> { }));
+            }
+        };
+        // 连接在第一条语句执行时才获取，整个请求使用同一个数据源
+        if (misses.stream().anyMatch(this::recentlyChanged)) {
+            ReadWriteRoutingDataSource.runOnPrimary(query);
+        } else {
+            query.run();
+        }
+        return usersByName;
+    }
+
+    // 根据姓名分页查找用户，返回 id 大于 afterId 的至多 limit 个用户
+    @Transactional(readOnly = true)
+    public UserPage findUsersByName(String name, long afterId, int limit) {
+        List<User> users = userRepository.findByNameAfterId(name, afterId, PageRequest.of(0, limit));
+        Long nextCursor = users.size() < limit ? null : users.get(users.size() - 1).getId();
+        return new UserPage(users, nextCursor);
+    }
+
+    // 按姓名中任意单词的前缀搜索用户，不区分大小写，至多返回 limit 个用户
+    // 有姓名索引时从内存中读取，否则在数据库中用 LIKE 查询（全表扫描，按 id 排序，NFKC 只作用于搜索词）
+    public List<UserNameMatch> searchUsers(String query, int limit) {
+        if (userNameIndex != null) {
+            return userNameIndex.search(query, limit);
+        }
+        String prefix = escapeLike(UserNameIndex.normalize(query));
+        if (prefix.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        return userRepository.searchByNamePrefix(prefix + "%", "% " + prefix + "%",
+            PageRequest.of(0, limit));
+    }
+
+    // 根据姓名逐个处理用户，处理完的实体立即从持久化上下文中移除，内存占用与结果数量无关
+    @Transactional(readOnly = true)
+    public void streamUsersByName(String name, Consumer<User> consumer) {
+        try (Stream<User> users = userRepository.streamByName(name)) {
+            users.forEach(user -> {
+                consumer.accept(user);
+                entityManager.detach(user);
+            });
+        }
+    }
+
+    // 用户数据变更后，清除新旧姓名对应的缓存
+    // 批量导入时每一行都会触发，直接操作 Cache，不使用 @CacheEvict（每次都要计算 SpEL 表达式）
+    @EventListener
+    public void onUserChanged(UserChangedEvent event) {
+        Cache cache = usersByNameCache();
+        if (event.name() != null) {
+            changed(event.name());
+            cache.evict(event.name());
+        }
+        if (event.previousName() != null) {
+            changed(event.previousName());
+            cache.evict(event.previousName());
+        }
+    }
+
+    // 清除缓存后的第一次查询可能发生在副本同步这次变更之前，复制延迟内直接从主库读取，
+    // 不经过快照和合并查询（合并查询在其他线程执行，不能指定主库）
+    private List<User> loadUsersByName(String name) {
+        if (recentlyChanged(name)) {
+            return ReadWriteRoutingDataSource.callOnPrimary(() -> userRepository.findByName(name));
+        }
+        if (userNameBloomFilter != null && !userNameBloomFilter.mightContain(name)) {
+            return List.of();
+        }
+        if (userSnapshot != null) {
+            List<User> users = userSnapshot.find(name);
+            if (users != null) {
+                return users;
+            }
+        }
+        if (userLookupBatcher != null) {
+            return userLookupBatcher.load(name).join();
+        }
         return userRepository.findByName(name);
     }
 
+    private void changed(String name) {
+        int stripe = nameVersionStripe(name);
+        nameChangedAt.set(stripe, System.nanoTime());
+        nameVersions.incrementAndGet(stripe);
+    }
+
+    // 同一分段中的其他姓名也会从主库读取，只多占用主库的连接
+    private boolean recentlyChanged(String name) {
+        if (!replicasEnabled) {
+            return false;
+        }
+        long changedAt = nameChangedAt.get(nameVersionStripe(name));
+        return changedAt != 0 && System.nanoTime() - changedAt < replicaMaxLagMillis * 1_000_000;
+    }
+
+    // 按排序规则 key 分段：数据库认为相等的姓名（例如大小写不同）使用同一个版本号
+    private static int nameVersionStripe(String name) {
+        return UserNames.collationKey(name).hashCode() & (NAME_VERSION_STRIPES - 1);
+    }
+
+    private static List<User> detachedCopy(List<User> users) {
+        List<User> copies = new ArrayList<>(users.size());
+        for (User user : users) {
+            copies.add(new User(user.getId(), user.getName(), user.getEmail()));
+        }
+        return List.copyOf(copies);
+    }
+
+    // 转义 LIKE 的通配符，与 searchByNamePrefix 中的 ESCAPE '!' 对应；不使用反斜杠，MySQL 的字符串中反斜杠本身是转义符
+    private static String escapeLike(String text) {
+        return text.replace("!", "!!").replace("%", "!%").replace("_", "!_");
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<User> cachedUsers(Cache cache, String name) {
+        Cache.ValueWrapper wrapper = cache.get(name);
+        return wrapper == null ? null : (List<User>) wrapper.get();
+    }
+
+    private Cache usersByNameCache() {
+        Cache cache = usersByNameCache;
+        if (cache == null) {
+            cache = cacheManager.getCache(CacheConfiguration.USERS_BY_NAME);
+            usersByNameCache = cache;
+        }
+        return cache;
+    }
+
 }
@@ -0,0 +1,254 @@
+package cn.tangrl.server.service;
+
+import cn.tangrl.server.config.ReadWriteRoutingDataSource;
+import cn.tangrl.server.event.UserChangedEvent;
+import cn.tangrl.server.model.User;
+import cn.tangrl.server.repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Clock;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * users 表的只读快照，按姓名查询时不访问数据库
+ * <p>
+ * 按 app.users.snapshot.refresh-interval-millis 在后台把 users 表导出到 app.users.snapshot.directory 下按姓名排序的文件
+ * （格式见 {@link UserSnapshotFile}），写完后原子重命名并映射到内存，再替换当前快照。文件在堆外，缓存数百万用户也几乎不占用 Java 堆。
+ * 重启时直接使用目录中最新的、没有超过刷新间隔的快照。
+ * <p>
+ * 以下情况 {@link #find} 返回 null，由调用方查询数据库：
+ * <ul>
+ *     <li>还没有快照，或快照导出的时间早于 app.users.snapshot.max-staleness-millis 之前</li>
+ *     <li>快照导出之后本进程修改过这个姓名的用户（新增、改名前后的姓名、删除），根据 {@link UserChangedEvent} 按
+ *     {@link UserNames#collationKey} 记录，大小写、重音不同的姓名也查询数据库</li>
+ *     <li>快照中有与这个姓名大小写、重音不同的行，无法判断 MySQL 默认的排序规则是否认为它们相等</li>
+ * </ul>
+ * 其他实例或其他程序的修改只能等下次导出，最多在 max-staleness-millis 内读到旧数据。
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.users.snapshot.enabled", havingValue = "true")
+public class UserSnapshot {
+
+    private static final String SUFFIX = ".snapshot";
+
+    private final UserRepository userRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final Path directory;
+
+    private final long refreshIntervalMillis;
+
+    private final long maxStalenessMillis;
+
+    private final Counter hits;
+
+    private final Counter fallbacks;
+
+    private Clock clock = Clock.systemUTC();
+
+    private volatile Snapshot current;
+
+    // 正在导出的快照对应的已修改姓名的 key，导出期间的修改同时记录到当前快照和新快照
+    private volatile Set<String> buildingChanges;
+
+    public UserSnapshot(UserRepository userRepository, PlatformTransactionManager transactionManager,
+        MeterRegistry meterRegistry,
+        @Value("${app.users.snapshot.directory:${java.io.tmpdir}/users-snapshot}") String directory,
+        @Value("${app.users.snapshot.refresh-interval-millis:300000}") long refreshIntervalMillis,
+        @Value("${app.users.snapshot.max-staleness-millis:600000}") long maxStalenessMillis) {
+        this.userRepository = userRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.directory = Paths.get(directory);
+        this.refreshIntervalMillis = refreshIntervalMillis;
+        this.maxStalenessMillis = maxStalenessMillis;
+        this.hits = Counter.builder("users.snapshot.lookups").tag("result", "hit")
+            .description("Lookups answered from the user snapshot")
+            .register(meterRegistry);
+        this.fallbacks = Counter.builder("users.snapshot.lookups").tag("result", "fallback")
+            .description("Lookups that fell back to the database")
+            .register(meterRegistry);
+        Gauge.builder("users.snapshot.age", this, snapshot -> snapshot.ageMillis() / 1000.0)
+            .description("Time since the current user snapshot was exported")
+            .baseUnit("seconds")
+            .register(meterRegistry);
+        Gauge.builder("users.snapshot.rows", this, snapshot -> snapshot.rowCount())
+            .description("Rows in the current user snapshot")
+            .register(meterRegistry);
+        Gauge.builder("users.snapshot.bytes", this, snapshot -> snapshot.sizeInBytes())
+            .description("Size of the memory-mapped user snapshot")
+            .baseUnit("bytes")
+            .register(meterRegistry);
+    }
+
+    /**
+     * @return 与 findByName 相同的用户；快照不存在、过期、这个姓名已经修改过或有大小写、重音不同的行时返回 null
+     */
+    public List<User> find(String name) {
+        Snapshot snapshot = current;
+        List<User> users = null;
+        if (snapshot != null && name != null
+            && clock.millis() - snapshot.file().createdAtMillis() <= maxStalenessMillis
+            && !snapshot.changedNames().contains(UserNames.collationKey(name))) {
+            users = snapshot.file().find(name);
+        }
+        (users == null ? fallbacks : hits).increment();
+        return users;
+    }
+
+    public long ageMillis() {
+        Snapshot snapshot = current;
+        return snapshot == null ? -1 : clock.millis() - snapshot.file().createdAtMillis();
+    }
+
+    public long rowCount() {
+        Snapshot snapshot = current;
+        return snapshot == null ? 0 : snapshot.file().rowCount();
+    }
+
+    public long sizeInBytes() {
+        Snapshot snapshot = current;
+        return snapshot == null ? 0 : snapshot.file().sizeInBytes();
+    }
+
+    // 应用启动完成后优先使用已有的快照，之后定期重新导出
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void load() {
+        if (current == null) {
+            current = openLatest();
+        }
+        if (current == null) {
+            refresh();
+        }
+    }
+
+    /**
+     * 重新导出并替换当前快照，失败时保留原来的快照
+     */
+    @Scheduled(initialDelayString = "${app.users.snapshot.refresh-interval-millis:300000}",
+        fixedDelayString = "${app.users.snapshot.refresh-interval-millis:300000}")
+    public synchronized void refresh() {
+        long start = clock.millis();
+        Set<String> changes = ConcurrentHashMap.newKeySet();
+        // 先发布 buildingChanges 再读取：之后提交的修改会记录到新快照，之前提交的修改在读取时可见
+        buildingChanges = changes;
+        Path file = directory.resolve("users-" + start + SUFFIX);
+        Path temp = directory.resolve("users-" + start + SUFFIX + ".tmp");
+        try {
+            Files.createDirectories(directory);
+            // 从主库读取：副本有复制延迟，导出开始前提交的修改可能还没有同步，也不会记录到新快照的已修改姓名中
+            ReadWriteRoutingDataSource.runOnPrimary(() -> transactionTemplate.executeWithoutResult(status -> {
+                try (Stream<User> users = userRepository.streamAllUsers()) {
+                    UserSnapshotFile.write(temp, users.iterator(), start);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }));
+            Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE);
+            Snapshot snapshot = new Snapshot(UserSnapshotFile.open(file), changes, file);
+            Snapshot previous = current;
+            current = snapshot;
+            // 已经映射的旧文件删除后仍然可以读取，映射在旧快照被回收时释放
+            if (previous != null) {
+                Files.deleteIfExists(previous.path());
+            }
+            log.info("User snapshot exported {} rows ({} KB) to {} in {} ms",
+                snapshot.file().rowCount(), snapshot.file().sizeInBytes() / 1024, file,
+                clock.millis() - start);
+        } catch (IOException | RuntimeException e) {
+            log.warn("User snapshot export failed, keeping the previous snapshot", e);
+            try {
+                Files.deleteIfExists(temp);
+            } catch (IOException ignored) {
+                // 下次启动时清理
+            }
+        } finally {
+            buildingChanges = null;
+        }
+    }
+
+    // 在清除 usersByName 缓存之前执行，否则清除后的查询会从快照读到旧数据再放入缓存
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @EventListener
+    public void onUserChanged(UserChangedEvent event) {
+        // 先读取 buildingChanges 再读取 current：导出在两次读取之间完成时，新快照的记录已经由 buildingChanges 写入
+        Set<String> building = buildingChanges;
+        Snapshot snapshot = current;
+        for (String name : new String[]{event.name(), event.previousName()}) {
+            if (name == null) {
+                continue;
+            }
+            String key = UserNames.collationKey(name);
+            if (snapshot != null) {
+                snapshot.changedNames().add(key);
+            }
+            if (building != null) {
+                building.add(key);
+            }
+        }
+    }
+
+    // 目录中最新的快照，超过刷新间隔的快照和其他文件（包括没有写完的临时文件）都删除
+    private Snapshot openLatest() {
+        if (!Files.isDirectory(directory)) {
+            return null;
+        }
+        Snapshot latest = null;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "users-*" + SUFFIX + "*")) {
+            for (Path path : files) {
+                Snapshot snapshot = null;
+                if (path.toString().endsWith(SUFFIX)) {
+                    try {
+                        snapshot = new Snapshot(UserSnapshotFile.open(path), ConcurrentHashMap.newKeySet(), path);
+                    } catch (IOException e) {
+                        log.warn("Ignoring unreadable user snapshot {}: {}", path, e.getMessage());
+                    }
+                }
+                if (snapshot != null
+                    && clock.millis() - snapshot.file().createdAtMillis() <= refreshIntervalMillis
+                    && (latest == null || snapshot.file().createdAtMillis() > latest.file().createdAtMillis())) {
+                    if (latest != null) {
+                        Files.deleteIfExists(latest.path());
+                    }
+                    latest = snapshot;
+                } else {
+                    Files.deleteIfExists(path);
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Failed to list user snapshots in {}", directory, e);
+        }
+        if (latest != null) {
+            log.info("Using existing user snapshot {} with {} rows", latest.path(), latest.file().rowCount());
+        }
+        return latest;
+    }
+
+    private record Snapshot(UserSnapshotFile file, Set<String> changedNames, Path path) {
+
+    }
+}
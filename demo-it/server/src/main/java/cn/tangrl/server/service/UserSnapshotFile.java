@@ -0,0 +1,269 @@
+package cn.tangrl.server.service;
+
+import cn.tangrl.server.model.User;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * 只读的用户快照文件，按姓名排序，通过内存映射读取
+ * <p>
+ * 文件格式（大端序）：
+ * <pre>
+ * 头部    int magic, int version, long 导出开始时间, long 行数, long 索引位置
+ * 数据    每行 long id, int key 长度, key（UTF-8）, int 姓名长度, 姓名（UTF-8）, int 邮箱长度（null 为 -1）, 邮箱（UTF-8），
+ *         按读取顺序写入，key 为姓名的 {@link UserNames#collationKey}
+ * 索引    每行数据的位置（long），按 key 的 UTF-8 字节、id 排序
+ * </pre>
+ * 查询在索引上二分查找，只为返回的行创建对象，文件内容不占用 Java 堆。
+ * MySQL 默认的排序规则不区分大小写和重音，按 key 找出可能相等的所有行：都与查询的姓名完全相同时就是数据库的结果，
+ * 有大小写、重音不同的行时无法判断数据库是否认为它们相等，{@link #find} 返回 null 由调用方查询数据库。
+ * 单个 {@link MappedByteBuffer} 最大 2 GB。
+ */
+final class UserSnapshotFile {
+
+    private static final int MAGIC = 0x55534E50;
+
+    private static final int VERSION = 2;
+
+    private static final int HEADER_BYTES = 32;
+
+    private final MappedByteBuffer buffer;
+
+    private final long createdAtMillis;
+
+    private final int rowCount;
+
+    private final int indexOffset;
+
+    private UserSnapshotFile(MappedByteBuffer buffer, long createdAtMillis, int rowCount,
+        int indexOffset) {
+        this.buffer = buffer;
+        this.createdAtMillis = createdAtMillis;
+        this.rowCount = rowCount;
+        this.indexOffset = indexOffset;
+    }
+
+    /**
+     * 写入快照文件，没有姓名的行不写入
+     *
+     * @param createdAtMillis 开始读取数据的时间，之后提交的修改不在快照中
+     */
+    static void write(Path path, Iterator<User> users, long createdAtMillis) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+            StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            channel.position(HEADER_BYTES);
+            // 不关闭：关闭会同时关闭 channel
+            DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(Channels.newOutputStream(channel), 64 * 1024));
+            long[] offsets = new long[1024];
+            int count = 0;
+            long position = HEADER_BYTES;
+            while (users.hasNext()) {
+                User user = users.next();
+                if (user.getName() == null) {
+                    continue;
+                }
+                byte[] key = UserNames.collationKey(user.getName()).getBytes(StandardCharsets.UTF_8);
+                byte[] name = user.getName().getBytes(StandardCharsets.UTF_8);
+                byte[] email = user.getEmail() == null ? null : user.getEmail().getBytes(StandardCharsets.UTF_8);
+                if (count == offsets.length) {
+                    offsets = Arrays.copyOf(offsets, count * 2);
+                }
+                offsets[count++] = position;
+                out.writeLong(user.getId());
+                out.writeInt(key.length);
+                out.write(key);
+                out.writeInt(name.length);
+                out.write(name);
+                out.writeInt(email == null ? -1 : email.length);
+                if (email != null) {
+                    out.write(email);
+                }
+                position += Long.BYTES + Integer.BYTES + key.length + Integer.BYTES + name.length
+                    + Integer.BYTES + (email == null ? 0 : email.length);
+            }
+            out.flush();
+            long indexOffset = position;
+            if (indexOffset + (long) count * Long.BYTES > Integer.MAX_VALUE) {
+                throw new IOException("Snapshot exceeds 2 GB: " + count + " rows");
+            }
+
+            // 按 key 排序只保存每行的位置，比较时从映射的数据中读取 key；在 offsets 上原地堆排序，
+            // 除了 offsets 本身（8 字节/行，按倍数扩容时最多 16 字节/行）不再占用堆内存
+            MappedByteBuffer data = channel.map(FileChannel.MapMode.READ_ONLY, 0, indexOffset);
+            sortRows(data, offsets, count);
+            for (int i = 0; i < count; i++) {
+                out.writeLong(offsets[i]);
+            }
+            out.flush();
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).putInt(MAGIC).putInt(VERSION)
+                .putLong(createdAtMillis).putLong(count).putLong(indexOffset).flip();
+            channel.write(header, 0);
+            channel.force(true);
+        }
+    }
+
+    /**
+     * 映射快照文件，关闭文件后映射仍然有效，文件被删除后（Linux）也可以继续读取
+     */
+    static UserSnapshotFile open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_BYTES || size > Integer.MAX_VALUE) {
+                throw new IOException("Invalid snapshot size " + size + ": " + path);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+                throw new IOException("Not a user snapshot: " + path);
+            }
+            long rowCount = buffer.getLong(16);
+            long indexOffset = buffer.getLong(24);
+            if (indexOffset < HEADER_BYTES || indexOffset + rowCount * Long.BYTES != size) {
+                throw new IOException("Truncated snapshot: " + path);
+            }
+            return new UserSnapshotFile(buffer, buffer.getLong(8), (int) rowCount, (int) indexOffset);
+        }
+    }
+
+    /**
+     * @return 姓名完全相同的用户，按 id 升序；有 key 相同但姓名不同的行时返回 null
+     */
+    List<User> find(String name) {
+        byte[] key = UserNames.collationKey(name).getBytes(StandardCharsets.UTF_8);
+        byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+        // 第一个 key 不小于查询 key 的位置
+        int low = 0;
+        int high = rowCount;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (compareKey(rowOffset(middle), key) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        List<User> users = new ArrayList<>(1);
+        for (int i = low; i < rowCount; i++) {
+            int offset = rowOffset(i);
+            if (compareKey(offset, key) != 0) {
+                break;
+            }
+            if (compareName(offset, bytes) != 0) {
+                return null;
+            }
+            users.add(readUser(offset, name));
+        }
+        return users;
+    }
+
+    long createdAtMillis() {
+        return createdAtMillis;
+    }
+
+    int rowCount() {
+        return rowCount;
+    }
+
+    long sizeInBytes() {
+        return buffer.capacity();
+    }
+
+    private int rowOffset(int index) {
+        return (int) buffer.getLong(indexOffset + index * Long.BYTES);
+    }
+
+    // 姓名已经确认与查询的姓名相同，直接使用，不再解码
+    private User readUser(int offset, String name) {
+        int nameOffset = nameOffset(buffer, offset);
+        int emailOffset = nameOffset + Integer.BYTES + buffer.getInt(nameOffset);
+        int emailLength = buffer.getInt(emailOffset);
+        String email = null;
+        if (emailLength >= 0) {
+            byte[] bytes = new byte[emailLength];
+            buffer.get(emailOffset + Integer.BYTES, bytes);
+            email = new String(bytes, StandardCharsets.UTF_8);
+        }
+        return new User(buffer.getLong(offset), name, email);
+    }
+
+    // 按无符号字节比较 UTF-8 编码的 key（即按 Unicode 码点），排序和查询使用同一个顺序
+    private int compareKey(int offset, byte[] key) {
+        return compareBytes(buffer, offset + Long.BYTES + Integer.BYTES, buffer.getInt(offset + Long.BYTES),
+            ByteBuffer.wrap(key), 0, key.length);
+    }
+
+    private int compareName(int offset, byte[] name) {
+        int nameOffset = nameOffset(buffer, offset);
+        return compareBytes(buffer, nameOffset + Integer.BYTES, buffer.getInt(nameOffset),
+            ByteBuffer.wrap(name), 0, name.length);
+    }
+
+    // 姓名长度字段的位置
+    private static int nameOffset(ByteBuffer data, int offset) {
+        return offset + Long.BYTES + Integer.BYTES + data.getInt(offset + Long.BYTES);
+    }
+
+    private static int compareRows(ByteBuffer data, int a, int b) {
+        int cmp = compareBytes(data, a + Long.BYTES + Integer.BYTES, data.getInt(a + Long.BYTES),
+            data, b + Long.BYTES + Integer.BYTES, data.getInt(b + Long.BYTES));
+        return cmp != 0 ? cmp : Long.compare(data.getLong(a), data.getLong(b));
+    }
+
+    // 堆排序 offsets 的前 count 个元素，不需要额外的数组，也不需要把 long 装箱
+    private static void sortRows(ByteBuffer data, long[] offsets, int count) {
+        for (int i = count / 2 - 1; i >= 0; i--) {
+            siftDown(data, offsets, i, count);
+        }
+        for (int end = count - 1; end > 0; end--) {
+            long top = offsets[0];
+            offsets[0] = offsets[end];
+            offsets[end] = top;
+            siftDown(data, offsets, 0, end);
+        }
+    }
+
+    private static void siftDown(ByteBuffer data, long[] offsets, int index, int size) {
+        long value = offsets[index];
+        while (true) {
+            int child = 2 * index + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size
+                && compareRows(data, (int) offsets[child + 1], (int) offsets[child]) > 0) {
+                child++;
+            }
+            if (compareRows(data, (int) offsets[child], (int) value) <= 0) {
+                break;
+            }
+            offsets[index] = offsets[child];
+            index = child;
+        }
+        offsets[index] = value;
+    }
+
+    private static int compareBytes(ByteBuffer a, int startA, int lengthA, ByteBuffer b, int startB,
+        int lengthB) {
+        int common = Math.min(lengthA, lengthB);
+        for (int i = 0; i < common; i++) {
+            int cmp = Byte.compareUnsigned(a.get(startA + i), b.get(startB + i));
+            if (cmp != 0) {
+                return cmp;
+            }
+        }
+        return Integer.compare(lengthA, lengthB);
+    }
+}
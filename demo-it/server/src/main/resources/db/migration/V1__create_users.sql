@@ -0,0 +1,8 @@
+-- 用户表，与 User 实体对应
+-- 使用 IF NOT EXISTS，兼容之前由 spring.jpa.hibernate.ddl-auto=update 创建的表
+CREATE TABLE IF NOT EXISTS users (
+    id    BIGINT       NOT NULL AUTO_INCREMENT,
+    name  VARCHAR(255),
+    email VARCHAR(255),
+    PRIMARY KEY (id)
+);
@@ -0,0 +1,2 @@
+-- UserRepository.findByName 按姓名等值查询，避免全表扫描
+CREATE INDEX idx_users_name ON users (name);
@@ -0,0 +1,10 @@
+-- User 主键生成表（@TableGenerator），每次取一段 ID，使 Hibernate 可以批量插入
+CREATE TABLE id_generator (
+    sequence_name VARCHAR(255) NOT NULL,
+    next_val      BIGINT,
+    PRIMARY KEY (sequence_name)
+);
+
+-- 从已有数据的最大 ID 之后开始分配
+INSERT INTO id_generator (sequence_name, next_val)
+SELECT 'users', COALESCE(MAX(id), 0) + 1 FROM users;
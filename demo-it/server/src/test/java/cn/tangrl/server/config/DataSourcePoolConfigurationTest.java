@@ -0,0 +1,88 @@
+package cn.tangrl.server.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.sql.Connection;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.autoconfigure.metrics.MetricsAutoConfiguration;
+import org.springframework.boot.actuate.autoconfigure.metrics.export.simple.SimpleMetricsExportAutoConfiguration;
+import org.springframework.boot.actuate.autoconfigure.metrics.jdbc.DataSourcePoolMetricsAutoConfiguration;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+
+public class DataSourcePoolConfigurationTest {
+
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+        .withConfiguration(AutoConfigurations.of(DataSourceAutoConfiguration.class,
+            MetricsAutoConfiguration.class, SimpleMetricsExportAutoConfiguration.class,
+            DataSourcePoolMetricsAutoConfiguration.class))
+        .withUserConfiguration(DataSourcePoolConfiguration.class)
+        .withPropertyValues("spring.datasource.url=jdbc:h2:mem:pooldb",
+            "spring.datasource.hikari.pool-name=test-pool");
+
+    @Test
+    void testPoolSizeFormula() {
+        assertThat(DataSourcePoolConfiguration.poolSize(1, 1)).isEqualTo(3);
+        assertThat(DataSourcePoolConfiguration.poolSize(8, 1)).isEqualTo(17);
+        assertThat(DataSourcePoolConfiguration.poolSize(4, 0)).isEqualTo(8);
+    }
+
+    @Test
+    void testDefaultPoolSizeWhenDisabled() {
+        // 未开启时保持 HikariCP 的默认值，连接池启动时取 10
+        contextRunner.run(context -> {
+            HikariDataSource dataSource = context.getBean(HikariDataSource.class);
+            try (Connection ignored = dataSource.getConnection()) {
+                assertThat(dataSource.getMaximumPoolSize()).isEqualTo(10);
+            }
+        });
+    }
+
+    @Test
+    void testPoolSizedFromCores() {
+        // 开启后按核数计算并多留一个主键生成器使用的连接，最小空闲连接数与最大连接数相同
+        contextRunner.withPropertyValues("app.datasource.pool.auto-size=true",
+                "app.datasource.pool.cores=4")
+            .run(context -> {
+                HikariDataSource dataSource = context.getBean(HikariDataSource.class);
+                assertThat(dataSource.getMaximumPoolSize()).isEqualTo(10);
+                assertThat(dataSource.getMinimumIdle()).isEqualTo(10);
+            });
+    }
+
+    @Test
+    void testExplicitPoolSizeWins() {
+        contextRunner.withPropertyValues("app.datasource.pool.auto-size=true",
+                "spring.datasource.hikari.maximum-pool-size=5")
+            .run(context ->
+                assertThat(context.getBean(HikariDataSource.class).getMaximumPoolSize()).isEqualTo(5));
+    }
+
+    @Test
+    void testPoolMetricsRegistered() {
+        contextRunner.withPropertyValues("app.datasource.pool.auto-size=true",
+                "app.datasource.pool.cores=1")
+            .run(context -> {
+                // Arrange：连接池在第一次获取连接时启动并注册指标
+                HikariDataSource dataSource = context.getBean(HikariDataSource.class);
+                MeterRegistry registry = context.getBean(MeterRegistry.class);
+
+                // Act
+                try (Connection ignored = dataSource.getConnection()) {
+                    // Assert：借出的连接计入 active，获取连接的耗时和超时次数都有记录
+                    assertThat(registry.get("hikaricp.connections.active").tag("pool", "test-pool")
+                        .gauge().value()).isEqualTo(1);
+                }
+                assertThat(registry.get("hikaricp.connections.max").gauge().value()).isEqualTo(4);
+                assertThat(registry.get("hikaricp.connections.idle").gauge()).isNotNull();
+                assertThat(registry.get("hikaricp.connections.pending").gauge()).isNotNull();
+                assertThat(registry.get("hikaricp.connections.acquire").timer().count())
+                    .isGreaterThanOrEqualTo(1);
+                assertThat(registry.get("hikaricp.connections.timeout").counter().count())
+                    .isZero();
+            });
+    }
+}
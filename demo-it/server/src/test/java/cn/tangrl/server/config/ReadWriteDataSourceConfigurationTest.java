@@ -0,0 +1,145 @@
+package cn.tangrl.server.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import cn.tangrl.server.model.User;
+import cn.tangrl.server.repository.UserRepository;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.List;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.autoconfigure.metrics.MetricsAutoConfiguration;
+import org.springframework.boot.actuate.autoconfigure.metrics.export.simple.SimpleMetricsExportAutoConfiguration;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceTransactionManagerAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.autoconfigure.jdbc.JdbcTemplateAutoConfiguration;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
+import org.springframework.boot.autoconfigure.transaction.TransactionAutoConfiguration;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+public class ReadWriteDataSourceConfigurationTest {
+
+    // 三个 H2 内存数据库分别作为主库和两个副本，表 marker 中保存数据库的名称
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+        .withConfiguration(AutoConfigurations.of(DataSourceAutoConfiguration.class,
+            DataSourceTransactionManagerAutoConfiguration.class, TransactionAutoConfiguration.class,
+            JdbcTemplateAutoConfiguration.class, MetricsAutoConfiguration.class,
+            SimpleMetricsExportAutoConfiguration.class))
+        .withUserConfiguration(ReadWriteDataSourceConfiguration.class)
+        .withPropertyValues(
+            "spring.datasource.url=jdbc:h2:mem:rwprimary;DB_CLOSE_DELAY=-1;"
+                + "INIT=CREATE TABLE IF NOT EXISTS marker AS SELECT 'primary' AS name",
+            "spring.datasource.hikari.pool-name=test-pool",
+            "spring.datasource.hikari.maximum-pool-size=4",
+            "app.datasource.replicas.urls="
+                + "jdbc:h2:mem:rwreplica0;DB_CLOSE_DELAY=-1;"
+                + "INIT=CREATE TABLE IF NOT EXISTS marker AS SELECT 'replica0' AS name,"
+                + "jdbc:h2:mem:rwreplica1;DB_CLOSE_DELAY=-1;"
+                + "INIT=CREATE TABLE IF NOT EXISTS marker AS SELECT 'replica1' AS name");
+
+    // 同样的主库和两个副本，users 表中的 "John Doe" 的邮箱是所在数据库的名称；使用 JPA 和 JpaTransactionManager
+    private final ApplicationContextRunner jpaContextRunner = new ApplicationContextRunner()
+        .withConfiguration(AutoConfigurations.of(DataSourceAutoConfiguration.class,
+            HibernateJpaAutoConfiguration.class, TransactionAutoConfiguration.class))
+        .withUserConfiguration(ReadWriteDataSourceConfiguration.class, JpaConfiguration.class)
+        .withPropertyValues(
+            "spring.datasource.url=" + usersDatabase("jpaprimary"),
+            "spring.jpa.hibernate.ddl-auto=none",
+            "app.datasource.replicas.enabled=true",
+            "app.datasource.replicas.urls=" + usersDatabase("jpareplica0") + "," + usersDatabase("jpareplica1"));
+
+    private static String usersDatabase(String name) {
+        return "jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1";
+    }
+
+    // 副本的 URL 用逗号分隔，建表语句不能放在 URL 的 INIT 中
+    private static void createUsers(String name) {
+        JdbcTemplate jdbc = new JdbcTemplate(new DriverManagerDataSource(usersDatabase(name), "sa", ""));
+        jdbc.execute("CREATE TABLE IF NOT EXISTS users (id BIGINT PRIMARY KEY, name VARCHAR(255),"
+            + " email VARCHAR(255))");
+        jdbc.update("MERGE INTO users VALUES (1, 'John Doe', ?)", name);
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @EntityScan(basePackageClasses = User.class)
+    @EnableJpaRepositories(basePackageClasses = UserRepository.class)
+    static class JpaConfiguration {
+
+    }
+
+    @Test
+    void testDisabledByDefault() {
+        // 未开启时使用 Spring Boot 自动配置的数据源
+        contextRunner.run(context -> {
+            assertThat(context).doesNotHaveBean(ReadWriteRoutingDataSource.class);
+            assertThat(context.getBean(DataSource.class)).isInstanceOf(HikariDataSource.class);
+        });
+    }
+
+    @Test
+    void testRoutesReadOnlyTransactionsToReplicas() {
+        contextRunner.withPropertyValues("app.datasource.replicas.enabled=true")
+            .run(context -> {
+                // Arrange - 默认数据源是延迟获取连接的代理，主库的连接池配置来自 spring.datasource.hikari
+                assertThat(context.getBean(DataSource.class))
+                    .isInstanceOf(LazyConnectionDataSourceProxy.class);
+                HikariDataSource primary = context.getBean("primaryDataSource", HikariDataSource.class);
+                assertThat(primary.getPoolName()).isEqualTo("test-pool");
+                JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+                TransactionTemplate readOnly = new TransactionTemplate(
+                    context.getBean(PlatformTransactionManager.class));
+                readOnly.setReadOnly(true);
+
+                // Act
+                String first = readOnly.execute(status ->
+                    jdbcTemplate.queryForObject("SELECT name FROM marker", String.class));
+                String second = readOnly.execute(status ->
+                    jdbcTemplate.queryForObject("SELECT name FROM marker", String.class));
+
+                // Assert - 只读事务轮流使用两个副本，事务外使用主库
+                assertThat(first).isEqualTo("replica0");
+                assertThat(second).isEqualTo("replica1");
+                assertThat(jdbcTemplate.queryForObject("SELECT name FROM marker", String.class))
+                    .isEqualTo("primary");
+                // 副本复制主库的连接池配置，连接池指标按名称区分
+                MeterRegistry registry = context.getBean(MeterRegistry.class);
+                assertThat(registry.get("hikaricp.connections.max").tag("pool", "test-pool-replica-0")
+                    .gauge().value()).isEqualTo(4);
+                assertThat(registry.get("datasource.replicas.healthy").gauge().value()).isEqualTo(2);
+            });
+    }
+
+    @Test
+    void testJpaFindByNameUsesReplicas() {
+        createUsers("jpaprimary");
+        createUsers("jpareplica0");
+        createUsers("jpareplica1");
+        jpaContextRunner.run(context -> {
+            // Arrange - JpaTransactionManager 在事务开始时就获取连接，由代理推迟到第一条语句执行时
+            assertThat(context.getBean(PlatformTransactionManager.class))
+                .isInstanceOf(JpaTransactionManager.class);
+            UserRepository userRepository = context.getBean(UserRepository.class);
+
+            // Act - findByName 声明了只读事务
+            String first = userRepository.findByName("John Doe").get(0).getEmail();
+            String second = userRepository.findByName("John Doe").get(0).getEmail();
+            String primary = ReadWriteRoutingDataSource.callOnPrimary(() ->
+                userRepository.findByName("John Doe").get(0).getEmail());
+
+            // Assert - 轮流使用两个副本，callOnPrimary 中使用主库
+            assertThat(List.of(first, second)).containsExactly("jpareplica0", "jpareplica1");
+            assertThat(primary).isEqualTo("jpaprimary");
+        });
+    }
+}
@@ -0,0 +1,245 @@
+package cn.tangrl.server.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import cn.tangrl.server.config.ReadWriteRoutingDataSource.Selection;
+import cn.tangrl.server.model.User;
+import cn.tangrl.server.repository.UserRepository;
+import cn.tangrl.server.service.UserSnapshot;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+public class ReadWriteRoutingDataSourceTest {
+
+    // 每个测试使用不同的数据库名，避免内存数据库在测试之间共享
+    private final String prefix = "routing" + UUID.randomUUID().toString().replace("-", "");
+
+    private final List<HikariDataSource> dataSources = new ArrayList<>();
+
+    private ReadWriteRoutingDataSource routingDataSource;
+
+    private JdbcTemplate jdbcTemplate;
+
+    private TransactionTemplate readOnly;
+
+    private TransactionTemplate readWrite;
+
+    private DataSourceTransactionManager transactionManager;
+
+    @TempDir
+    private Path directory;  // 快照目录
+
+    @AfterEach
+    void tearDown() {
+        if (routingDataSource != null) {
+            routingDataSource.destroy();
+        }
+        dataSources.forEach(HikariDataSource::close);
+    }
+
+    // 创建一个 H2 内存数据库，表 marker 中保存数据库的名称，用于判断查询在哪个数据库上执行
+    private HikariDataSource database(String name) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl("jdbc:h2:mem:" + prefix + name + ";DB_CLOSE_DELAY=-1");
+        dataSource.setPoolName(name);
+        dataSource.setConnectionTimeout(1000);
+        dataSources.add(dataSource);
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("CREATE TABLE marker (name VARCHAR(20))");
+        jdbc.update("INSERT INTO marker VALUES (?)", name);
+        return dataSource;
+    }
+
+    // 只能连接已经存在的数据库，用于模拟不可用的副本
+    private HikariDataSource missingDatabase(String name) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl("jdbc:h2:mem:" + prefix + name + ";IFEXISTS=TRUE");
+        dataSource.setPoolName(name);
+        dataSource.setConnectionTimeout(1000);
+        dataSource.setInitializationFailTimeout(-1);
+        dataSources.add(dataSource);
+        return dataSource;
+    }
+
+    private void route(Selection selection, HikariDataSource... replicas) {
+        route(selection, 1000, replicas);
+    }
+
+    private void route(Selection selection, long healthCheckTimeoutMillis, HikariDataSource... replicas) {
+        routingDataSource = new ReadWriteRoutingDataSource(database("primary"), List.of(replicas),
+            selection, healthCheckTimeoutMillis);
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(routingDataSource);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        readWrite = new TransactionTemplate(transactionManager);
+        this.transactionManager = transactionManager;
+    }
+
+    private String marker(TransactionTemplate transactionTemplate) {
+        return transactionTemplate.execute(status -> marker());
+    }
+
+    private String marker() {
+        return jdbcTemplate.queryForObject("SELECT name FROM marker", String.class);
+    }
+
+    @Test
+    void testReadOnlyTransactionsUseReplicas() {
+        // Arrange
+        route(Selection.ROUND_ROBIN, database("replica0"));
+
+        // Act & Assert - 只读事务使用副本，读写事务和事务外使用主库
+        assertThat(marker(readOnly)).isEqualTo("replica0");
+        assertThat(marker(readWrite)).isEqualTo("primary");
+        assertThat(marker()).isEqualTo("primary");
+    }
+
+    @Test
+    void testRoundRobin() {
+        // Arrange
+        route(Selection.ROUND_ROBIN, database("replica0"), database("replica1"));
+
+        // Act
+        List<String> markers = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            markers.add(marker(readOnly));
+        }
+
+        // Assert - 依次使用每个副本
+        assertThat(markers).containsExactly("replica0", "replica1", "replica0", "replica1");
+    }
+
+    @Test
+    void testLeastBusy() throws Exception {
+        // Arrange - replica0 有一个借出的连接
+        HikariDataSource replica0 = database("replica0");
+        route(Selection.LEAST_BUSY, replica0, database("replica1"));
+
+        // Act & Assert
+        try (Connection ignored = replica0.getConnection()) {
+            assertThat(marker(readOnly)).isEqualTo("replica1");
+            assertThat(marker(readOnly)).isEqualTo("replica1");
+        }
+        assertThat(marker(readOnly)).isEqualTo("replica0");
+    }
+
+    @Test
+    void testFallbackToPrimaryAndRecovery() {
+        // Arrange - replica0 不可用
+        route(Selection.ROUND_ROBIN, missingDatabase("replica0"), database("replica1"));
+
+        // Act & Assert - 获取连接失败后改用主库，之后不再选择 replica0
+        assertThat(marker(readOnly)).isEqualTo("primary");
+        assertThat(routingDataSource.healthyReplicas()).isEqualTo(1);
+        assertThat(marker(readOnly)).isEqualTo("replica1");
+        assertThat(marker(readOnly)).isEqualTo("replica1");
+
+        // Act - replica0 恢复，健康检查后重新使用
+        database("replica0");
+        routingDataSource.checkReplicas();
+
+        // Assert
+        assertThat(routingDataSource.healthyReplicas()).isEqualTo(2);
+        assertThat(List.of(marker(readOnly), marker(readOnly))).contains("replica0", "replica1");
+    }
+
+    @Test
+    void testAllReplicasDown() {
+        // Arrange
+        route(Selection.LEAST_BUSY, missingDatabase("replica0"));
+
+        // Act
+        routingDataSource.checkReplicas();
+
+        // Assert - 没有健康的副本时使用主库
+        assertThat(routingDataSource.healthyReplicas()).isZero();
+        assertThat(marker(readOnly)).isEqualTo("primary");
+    }
+
+    @Test
+    void testCallOnPrimary() {
+        // Arrange
+        route(Selection.ROUND_ROBIN, database("replica0"));
+
+        // Act & Assert - callOnPrimary 中的只读事务（包括嵌套调用）使用主库，之后恢复使用副本
+        assertThat(ReadWriteRoutingDataSource.callOnPrimary(() -> marker(readOnly))).isEqualTo("primary");
+        assertThat(ReadWriteRoutingDataSource.callOnPrimary(() ->
+            ReadWriteRoutingDataSource.callOnPrimary(() -> marker(readOnly)) + marker(readOnly)))
+            .isEqualTo("primaryprimary");
+        assertThat(marker(readOnly)).isEqualTo("replica0");
+    }
+
+    @Test
+    void testSnapshotRefreshReadsFromPrimary() {
+        // Arrange - 快照导出在只读事务中读取 users 表，这里用所在数据库的名称作为唯一的用户
+        route(Selection.ROUND_ROBIN, database("replica0"));
+        UserRepository userRepository = mock(UserRepository.class);
+        when(userRepository.streamAllUsers()).thenAnswer(invocation ->
+            Stream.of(new User(1L, marker(), null)));
+        UserSnapshot userSnapshot = new UserSnapshot(userRepository, transactionManager,
+            new SimpleMeterRegistry(), directory.toString(), 60_000, 120_000);
+
+        // Act
+        userSnapshot.refresh();
+
+        // Assert - 副本可能还没有同步导出开始前的修改，导出使用主库；其他只读事务仍然使用副本
+        assertThat(userSnapshot.find("primary")).containsExactly(new User(1L, "primary", null));
+        assertThat(userSnapshot.find("replica0")).isEmpty();
+        assertThat(marker(readOnly)).isEqualTo("replica0");
+    }
+
+    @Test
+    void testHealthCheckDoesNotWaitForConnectionTimeout() {
+        // Arrange - 获取 replica0 的连接要等待 10 秒的 connectionTimeout 才失败
+        HikariDataSource replica0 = missingDatabase("replica0");
+        replica0.setConnectionTimeout(10_000);
+        route(Selection.ROUND_ROBIN, 200, replica0, database("replica1"));
+
+        // Act
+        long start = System.nanoTime();
+        routingDataSource.checkReplicas();
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        // Assert - 200 毫秒内没有拿到连接就标记为不健康，其他副本不受影响
+        assertThat(elapsedMillis).isLessThan(5_000);
+        assertThat(routingDataSource.healthyReplicas()).isEqualTo(1);
+        assertThat(marker(readOnly)).isEqualTo("replica1");
+    }
+
+    @Test
+    void testScheduledHealthChecksRecoverReplica() throws Exception {
+        // Arrange - replica0 不可用，获取连接失败后标记为不健康
+        route(Selection.ROUND_ROBIN, missingDatabase("replica0"));
+        assertThat(marker(readOnly)).isEqualTo("primary");
+        assertThat(routingDataSource.healthyReplicas()).isZero();
+
+        // Act - 在单独的线程中每 50 毫秒检查一次，replica0 恢复
+        routingDataSource.startHealthChecks(50);
+        database("replica0");
+
+        // Assert
+        long deadline = System.nanoTime() + 5_000_000_000L;
+        while (routingDataSource.healthyReplicas() == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+        }
+        assertThat(routingDataSource.healthyReplicas()).isEqualTo(1);
+        assertThat(marker(readOnly)).isEqualTo("replica0");
+    }
+}
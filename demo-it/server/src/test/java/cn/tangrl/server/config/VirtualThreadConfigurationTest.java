@@ -0,0 +1,73 @@
+package cn.tangrl.server.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import cn.tangrl.common.thread.VirtualThreadPinningMonitor;
+import java.util.concurrent.CompletableFuture;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.scheduling.annotation.Async;
+
+public class VirtualThreadConfigurationTest {
+
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+        .withConfiguration(AutoConfigurations.of(TaskExecutionAutoConfiguration.class))
+        .withUserConfiguration(VirtualThreadConfiguration.class)
+        .withBean(AsyncTask.class);
+
+    @Test
+    void testDisabledByDefault() {
+        // 未开启时不注册任何虚拟线程相关的 Bean，使用默认的线程池
+        contextRunner.run(context -> {
+            assertThat(context).doesNotHaveBean(TomcatProtocolHandlerCustomizer.class);
+            assertThat(context).doesNotHaveBean(VirtualThreadPinningMonitor.class);
+            assertThat(context).hasSingleBean(AsyncTaskExecutor.class);
+        });
+    }
+
+    @Test
+    void testTaskExecutorRunsOnVirtualThreads() {
+        // 开启后 applicationTaskExecutor 替换为虚拟线程执行器
+        contextRunner.withPropertyValues("app.virtual-threads.enabled=true")
+            .run(context -> {
+                assertThat(context).hasSingleBean(TomcatProtocolHandlerCustomizer.class);
+                assertThat(context).hasSingleBean(VirtualThreadPinningMonitor.class);
+                AsyncTaskExecutor executor = context.getBean(
+                    TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME,
+                    AsyncTaskExecutor.class);
+                CompletableFuture<Boolean> virtual = executor.submitCompletable(
+                    () -> Thread.currentThread().isVirtual());
+                assertThat(virtual.get()).isTrue();
+            });
+    }
+
+    @Test
+    void testAsyncOnlyInVirtualThreadMode() {
+        // 未开启时 @Async 不生效，方法在调用线程上同步执行
+        contextRunner.run(context -> assertThat(context.getBean(AsyncTask.class).run().get())
+            .isEqualTo(Thread.currentThread().getName()));
+        // 开启后 @Async 方法在虚拟线程上执行
+        contextRunner.withPropertyValues("app.virtual-threads.enabled=true")
+            .run(context -> assertThat(context.getBean(AsyncTask.class).run().get())
+                .startsWith("task-vt-"));
+    }
+
+    @Test
+    void testPinningMonitorCanBeDisabled() {
+        contextRunner.withPropertyValues("app.virtual-threads.enabled=true",
+                "app.virtual-threads.pinning-monitor.enabled=false")
+            .run(context -> assertThat(context).doesNotHaveBean(VirtualThreadPinningMonitor.class));
+    }
+
+    static class AsyncTask {
+
+        @Async
+        public CompletableFuture<String> run() {
+            return CompletableFuture.completedFuture(Thread.currentThread().getName());
+        }
+    }
+}
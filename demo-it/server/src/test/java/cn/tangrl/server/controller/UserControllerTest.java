@@ -1,18 +1,34 @@
 package cn.tangrl.server.controller;
 
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 import cn.tangrl.server.model.User;
+import cn.tangrl.server.model.UserImportReport;
+import cn.tangrl.server.model.UserNameMatch;
+import cn.tangrl.server.model.UserPage;
+import cn.tangrl.server.service.UserImportService;
 import cn.tangrl.server.service.UserService;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 @WebMvcTest(UserController.class)  // 仅加载与 UserController 相关的 Web 层组件进行测试
 public class UserControllerTest {
@@ -23,6 +39,9 @@ public class UserControllerTest {
     @MockBean
     private UserService userService;  // 模拟 UserService 依赖
 
+    @MockBean
+    private UserImportService userImportService;  // 模拟 UserImportService 依赖
+
     @Test
     void testGetUsersByName() throws Exception {
         // Arrange - 设置测试数据和模拟行为
@@ -36,4 +55,106 @@ public class UserControllerTest {
             .andExpect(
                 jsonPath("$[0].email").value("john.doe@example.com"));  // 验证 JSON 响应中的 email 字段
     }
+
+    @Test
+    void testGetUsersByNames() throws Exception {
+        // Arrange
+        User user = new User(1L, "John Doe", "john.doe@example.com");
+        when(userService.findUsersByNames(List.of("John Doe", "Nobody"))).thenReturn(
+            Map.of("John Doe", List.of(user), "Nobody", List.of()));
+
+        // Act & Assert - 按姓名分组返回
+        mockMvc.perform(post("/api/users/names").contentType("application/json")
+                .content("[\"John Doe\",\"Nobody\"]"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$['John Doe'][0].email").value("john.doe@example.com"))
+            .andExpect(jsonPath("$.Nobody").isEmpty());
+    }
+
+    @Test
+    void testGetUsersByNamesTooMany() throws Exception {
+        // Arrange - 超过 app.users.names.max-names（1000）个姓名
+        String names = "[" + String.join(",", Collections.nCopies(1001, "\"John Doe\"")) + "]";
+
+        // Act & Assert
+        mockMvc.perform(post("/api/users/names").contentType("application/json").content(names))
+            .andExpect(status().isBadRequest());
+        verify(userService, never()).findUsersByNames(any());
+    }
+
+    @Test
+    void testGetUsersByNamePage() throws Exception {
+        // Arrange - 超过上限的 limit 会被限制为 app.users.page.max-limit
+        User user = new User(2L, "John Doe", "john.doe@example.com");
+        when(userService.findUsersByName("John Doe", 1L, 1000)).thenReturn(
+            new UserPage(List.of(user), 2L));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/users/name/John Doe/page").param("after", "1")
+                .param("limit", "5000"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.users[0].id").value(2))
+            .andExpect(jsonPath("$.nextCursor").value(2));
+    }
+
+    @Test
+    void testSearchUsers() throws Exception {
+        // Arrange - 超过上限的 limit 会被限制为 app.users.search.max-limit
+        when(userService.searchUsers("jo", 50)).thenReturn(List.of(new UserNameMatch(1L, "John Doe")));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/users/search").param("q", "jo").param("limit", "500"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$[0].id").value(1))
+            .andExpect(jsonPath("$[0].name").value("John Doe"));
+    }
+
+    @Test
+    void testStreamUsersByName() throws Exception {
+        // Arrange - 模拟逐个返回两个用户
+        doAnswer(invocation -> {
+            Consumer<User> consumer = invocation.getArgument(1);
+            consumer.accept(new User(1L, "John Doe", "john.doe@example.com"));
+            consumer.accept(new User(2L, "John Doe", "john.doe2@example.com"));
+            return null;
+        }).when(userService).streamUsersByName(eq("John Doe"), any());
+
+        // Act - StreamingResponseBody 异步执行，需要再分派一次获取响应
+        MvcResult result = mockMvc.perform(get("/api/users/name/John Doe/stream")).andReturn();
+
+        // Assert - 每行一个 JSON 对象
+        mockMvc.perform(asyncDispatch(result))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType("application/x-ndjson"))
+            .andExpect(content().string(
+                "{\"id\":1,\"name\":\"John Doe\",\"email\":\"john.doe@example.com\",\"validEmail\":true}\n"
+                    + "{\"id\":2,\"name\":\"John Doe\",\"email\":\"john.doe2@example.com\",\"validEmail\":true}\n"));
+    }
+
+    @Test
+    void testImportCsv() throws Exception {
+        // Arrange
+        when(userImportService.importCsv(any())).thenReturn(
+            new UserImportReport(2, 0, 1, 5, List.of(), null));
+
+        // Act & Assert
+        mockMvc.perform(post("/api/users/import").contentType("text/csv")
+                .content("name,email\nJohn Doe,john@example.com\nJane Doe,jane@example.com\n"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.imported").value(2))
+            .andExpect(jsonPath("$.batches").value(1));
+    }
+
+    @Test
+    void testImportJsonFailure() throws Exception {
+        // Arrange - 请求体格式错误，导入中止
+        when(userImportService.importJson(any())).thenReturn(
+            new UserImportReport(0, 0, 0, 1, List.of(), "Row 1: Unexpected end-of-input"));
+
+        // Act & Assert - 返回 400，结果中包含错误原因
+        mockMvc.perform(post("/api/users/import").contentType("application/json")
+                .content("[{\"name\":"))
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.failure").value("Row 1: Unexpected end-of-input"));
+    }
 }
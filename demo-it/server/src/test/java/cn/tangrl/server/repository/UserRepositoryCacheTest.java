@@ -0,0 +1,154 @@
+package cn.tangrl.server.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import cn.tangrl.server.model.User;
+import jakarta.persistence.EntityManagerFactory;
+import java.util.List;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+// 区域配置 users-ehcache.xml 来自 demo-common，demo-ut 使用同一份配置和相同的 User 缓存注解，只在这里测试
+@DataJpaTest
+// 二级缓存在事务提交后才写入，测试方法不在事务中执行，每个操作使用单独的事务提交
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class UserRepositoryCacheTest {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transactionTemplate;
+
+    private Statistics statistics;
+
+    @DynamicPropertySource  // 动态设置测试环境下的数据库相关属性
+    private static void setProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.driver-class-name", () -> "org.h2.Driver");
+        registry.add("spring.datasource.url",
+            () -> "jdbc:h2:mem:cachedb;MODE=MySQL;DB_CLOSE_DELAY=-1;DATABASE_TO_LOWER=true");
+        registry.add("spring.datasource.username", () -> "sa");
+        registry.add("spring.datasource.password", () -> "");
+
+        registry.add("spring.jpa.hibernate.ddl-auto", () -> "create-drop");
+        registry.add("spring.jpa.properties.hibernate.dialect",
+            () -> "org.hibernate.dialect.H2Dialect");
+    }
+
+    @BeforeEach
+    void setUp() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        SessionFactory sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        sessionFactory.getCache().evictAllRegions();
+        statistics = sessionFactory.getStatistics();
+        statistics.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void testFindByNameServedFromCache() {
+        // Arrange
+        transactionTemplate.executeWithoutResult(status -> {
+            userRepository.save(new User(null, "John Doe", "john1@example.com"));
+            userRepository.save(new User(null, "John Doe", "john2@example.com"));
+        });
+        statistics.clear();
+
+        // Act - 两次查询分别在不同的事务（Session）中执行
+        List<User> first = transactionTemplate.execute(
+            status -> userRepository.findByName("John Doe"));
+        List<User> second = transactionTemplate.execute(
+            status -> userRepository.findByName("John Doe"));
+
+        // Assert - 第二次查询的结果来自查询缓存，没有再查询数据库
+        assertEquals(2, first.size());
+        assertEquals(2, second.size());
+        assertEquals(1, statistics.getQueryExecutionCount());
+        assertEquals(1, statistics.getQueryCacheHitCount());
+        CacheRegionStatistics region = statistics.getQueryRegionStatistics("users.findByName");
+        assertEquals(1, region.getHitCount());
+        assertEquals(1, region.getMissCount());
+    }
+
+    @Test
+    void testInsertInvalidatesQueryCache() {
+        // Arrange - 缓存查询结果
+        transactionTemplate.executeWithoutResult(
+            status -> userRepository.save(new User(null, "John Doe", "john1@example.com")));
+        transactionTemplate.execute(status -> userRepository.findByName("John Doe"));
+
+        // Act - 插入同名用户后再次查询
+        transactionTemplate.executeWithoutResult(
+            status -> userRepository.save(new User(null, "John Doe", "john2@example.com")));
+        statistics.clear();
+        List<User> users = transactionTemplate.execute(
+            status -> userRepository.findByName("John Doe"));
+
+        // Assert - users 表的修改时间晚于缓存的结果，重新查询数据库
+        assertEquals(2, users.size());
+        assertEquals(0, statistics.getQueryCacheHitCount());
+        assertEquals(1, statistics.getQueryExecutionCount());
+    }
+
+    @Test
+    void testUpdateRefreshesEntityCache() {
+        // Arrange - 加载后实体在 users 区域中
+        Long id = transactionTemplate.execute(
+            status -> userRepository.save(new User(null, "John Doe", "john@example.com")).getId());
+        transactionTemplate.execute(status -> userRepository.findById(id));
+
+        // Act
+        transactionTemplate.executeWithoutResult(status -> {
+            User user = userRepository.findById(id).orElseThrow();
+            user.setEmail("john.doe@example.com");
+        });
+        statistics.clear();
+        User user = transactionTemplate.execute(status -> userRepository.findById(id).orElseThrow());
+
+        // Assert - 从缓存读到的是更新后的数据
+        assertEquals("john.doe@example.com", user.getEmail());
+        assertEquals(1, statistics.getSecondLevelCacheHitCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void testDeleteEvictsEntityAndQueryCache() {
+        // Arrange
+        Long id = transactionTemplate.execute(
+            status -> userRepository.save(new User(null, "John Doe", "john@example.com")).getId());
+        transactionTemplate.execute(status -> userRepository.findByName("John Doe"));
+
+        // Act
+        transactionTemplate.executeWithoutResult(status -> userRepository.deleteById(id));
+
+        // Assert - 缓存中的实体和查询结果都不再返回已删除的用户
+        statistics.clear();
+        assertTrue(transactionTemplate.execute(status -> userRepository.findById(id)).isEmpty());
+        assertTrue(transactionTemplate.execute(status -> userRepository.findByName("John Doe"))
+            .isEmpty());
+        assertEquals(0, statistics.getSecondLevelCacheHitCount());
+        assertEquals(0, statistics.getQueryCacheHitCount());
+    }
+}
@@ -0,0 +1,91 @@
+package cn.tangrl.server.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import cn.tangrl.server.model.User;
+import java.util.List;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestInstance.Lifecycle;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+/**
+ * 使用 Flyway 脚本建表（ddl-auto=validate），验证按姓名查询走 idx_users_name 索引
+ * <p>
+ * 默认插入 10 万行，可以通过 -Dtest.users.rows=1000000 用更大的数据量验证（同时通过 -DargLine 调大堆内存和传入该参数）。
+ */
+@DataJpaTest
+@TestInstance(Lifecycle.PER_CLASS)  // 数据只在 @BeforeAll 中插入一次，不随测试事务回滚
+public class UserRepositoryIndexTest {
+
+    // 不同姓名的数量，每个姓名对应 rows / NAMES 行
+    private static final int NAMES = 10_000;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Value("${test.users.rows:100000}")
+    private int rows;
+
+    private JdbcTemplate jdbcTemplate;
+
+    @DynamicPropertySource  // 动态设置测试环境下的数据库相关属性
+    private static void setProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.driver-class-name", () -> "org.h2.Driver");
+        registry.add("spring.datasource.url",
+            () -> "jdbc:h2:mem:indexdb;MODE=MySQL;DB_CLOSE_DELAY=-1;DATABASE_TO_LOWER=true");
+        registry.add("spring.datasource.username", () -> "sa");
+        registry.add("spring.datasource.password", () -> "");
+
+        // 表结构由 Flyway 创建，Hibernate 只做校验
+        registry.add("spring.jpa.hibernate.ddl-auto", () -> "validate");
+        registry.add("spring.jpa.properties.hibernate.dialect",
+            () -> "org.hibernate.dialect.H2Dialect");
+    }
+
+    @BeforeAll
+    void setUp() {
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        // id 列没有 AUTO_INCREMENT，与其他不通过 Hibernate 插入的程序一样，先从 id_generator 取一段 ID
+        long firstId = jdbcTemplate.queryForObject(
+            "SELECT next_val FROM id_generator WHERE sequence_name = 'users'", Long.class);
+        jdbcTemplate.update(
+            "UPDATE id_generator SET next_val = next_val + ? WHERE sequence_name = 'users'", rows);
+        // 使用 H2 的 SYSTEM_RANGE 批量生成数据
+        jdbcTemplate.update("INSERT INTO users (id, name, email) "
+            + "SELECT ? + x - 1, CONCAT('user-', MOD(x, ?)), CONCAT('user', x, '@example.com') "
+            + "FROM SYSTEM_RANGE(1, ?)", firstId, NAMES, rows);
+    }
+
+    @Test
+    void testFindByNameUsesIndex() {
+        // Act - 查看按姓名查询的执行计划
+        String plan = jdbcTemplate.queryForObject(
+            "EXPLAIN SELECT u.id, u.email, u.name FROM users u WHERE u.name = ?", String.class,
+            "user-42");
+
+        // Assert - 使用 idx_users_name 索引而不是全表扫描
+        assertThat(plan).containsIgnoringCase("idx_users_name");
+    }
+
+    @Test
+    void testFindByName() {
+        // Act
+        List<User> users = userRepository.findByName("user-42");
+
+        // Assert - 返回该姓名对应的全部行
+        assertEquals(rows / NAMES, users.size());
+        assertThat(users).allMatch(user -> "user-42".equals(user.getName()));
+    }
+}
@@ -1,12 +1,21 @@
 package cn.tangrl.server.repository;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import cn.tangrl.server.model.User;
+import cn.tangrl.server.model.UserNameMatch;
+import jakarta.persistence.EntityManager;
+import java.util.Comparator;
 import java.util.List;
+import java.util.stream.Stream;
+import org.hibernate.Session;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.test.context.DynamicPropertyRegistry;
 import org.springframework.test.context.DynamicPropertySource;
 
@@ -16,6 +25,9 @@ public class UserRepositoryTest {
     @Autowired
     private UserRepository userRepository;  // 注入 UserRepository 进行测试
 
+    @Autowired
+    private EntityManager entityManager;  // 用于检查实体在持久化上下文中的状态
+
     @DynamicPropertySource  // 动态设置测试环境下的数据库相关属性
     private static void setProperties(DynamicPropertyRegistry registry) {
         registry.add("spring.datasource.driver-class-name", () -> "org.h2.Driver");
@@ -48,4 +60,111 @@ public class UserRepositoryTest {
         assertEquals(1, janes.size(), "Should find one Jane Doe");
         assertEquals("Jane Doe", janes.get(0).getName());
     }
+
+    @Test
+    void testFindByNameIn() {
+        // Arrange
+        User john = userRepository.save(new User(null, "John Doe", "john.doe@example.com"));
+        User jane = userRepository.save(new User(null, "Jane Doe", "jane.doe@example.com"));
+        userRepository.save(new User(null, "Jim Doe", "jim.doe@example.com"));
+
+        // Act - 一次查询多个姓名，包括不存在的姓名
+        List<User> users = userRepository.findByNameIn(List.of("Jane Doe", "John Doe", "Nobody"));
+
+        // Assert - 按 id 升序
+        assertEquals(List.of(john.getId(), jane.getId()), users.stream().map(User::getId).toList());
+    }
+
+    @Test
+    void testFindByNameAfterId() {
+        // Arrange - 三个同名用户
+        User user1 = userRepository.save(new User(null, "John Doe", "john1@example.com"));
+        User user2 = userRepository.save(new User(null, "John Doe", "john2@example.com"));
+        User user3 = userRepository.save(new User(null, "John Doe", "john3@example.com"));
+        userRepository.save(new User(null, "Jane Doe", "jane.doe@example.com"));
+
+        // Act - 从第一个用户之后取两个
+        List<User> page = userRepository.findByNameAfterId("John Doe", user1.getId(),
+            PageRequest.of(0, 2));
+
+        // Assert - 按 id 升序
+        assertEquals(List.of(user2.getId(), user3.getId()),
+            page.stream().map(User::getId).toList());
+    }
+
+    @Test
+    void testStreamByName() {
+        // Arrange
+        userRepository.save(new User(null, "John Doe", "john1@example.com"));
+        userRepository.save(new User(null, "John Doe", "john2@example.com"));
+        userRepository.save(new User(null, "Jane Doe", "jane.doe@example.com"));
+
+        // Act - 流式查询需要在事务中消费（@DataJpaTest 的测试方法在事务中执行）
+        List<String> emails;
+        try (Stream<User> users = userRepository.streamByName("John Doe")) {
+            emails = users.map(User::getEmail).toList();
+        }
+
+        // Assert
+        assertEquals(List.of("john1@example.com", "john2@example.com"), emails);
+    }
+
+    @Test
+    void testFindByNameReturnsReadOnlyEntities() {
+        // Arrange - 清空持久化上下文，保证实体由查询加载
+        userRepository.save(new User(null, "John Doe", "john.doe@example.com"));
+        entityManager.flush();
+        entityManager.clear();
+
+        // Act
+        List<User> users = userRepository.findByName("John Doe");
+
+        // Assert - 查询返回的实体是只读的，不参与脏检查
+        Session session = entityManager.unwrap(Session.class);
+        assertEquals(1, users.size());
+        assertTrue(session.isReadOnly(users.get(0)));
+    }
+
+    @Test
+    void testStreamAllUsersDoesNotManageEntities() {
+        // Arrange
+        userRepository.save(new User(null, "John Doe", "john.doe@example.com"));
+        userRepository.save(new User(null, "Jane Doe", null));
+        entityManager.flush();
+        entityManager.clear();
+
+        // Act
+        List<User> users;
+        try (Stream<User> stream = userRepository.streamAllUsers()) {
+            users = stream.sorted(Comparator.comparing(User::getId)).toList();
+        }
+
+        // Assert - 构造表达式创建的对象包含全部字段，但不在持久化上下文中
+        assertEquals(List.of("John Doe", "Jane Doe"), users.stream().map(User::getName).toList());
+        assertEquals("john.doe@example.com", users.get(0).getEmail());
+        assertNull(users.get(1).getEmail());
+        assertFalse(entityManager.contains(users.get(0)));
+    }
+
+    @Test
+    void testSearchByNamePrefix() {
+        // Arrange
+        User john = userRepository.save(new User(null, "John Doe", "john.doe@example.com"));
+        User jane = userRepository.save(new User(null, "Jane Doe", "jane.doe@example.com"));
+        User percent = userRepository.save(new User(null, "100% Smith", null));
+        userRepository.save(new User(null, "Bob Smith", null));
+
+        // Act & Assert - 匹配姓名开头或任意单词的开头，不区分大小写，按 id 排序
+        assertEquals(List.of(new UserNameMatch(john.getId(), "John Doe")),
+            userRepository.searchByNamePrefix("jo%", "% jo%", PageRequest.of(0, 10)));
+        assertEquals(List.of(new UserNameMatch(john.getId(), "John Doe"),
+                new UserNameMatch(jane.getId(), "Jane Doe")),
+            userRepository.searchByNamePrefix("do%", "% do%", PageRequest.of(0, 10)));
+        assertEquals(1, userRepository.searchByNamePrefix("do%", "% do%", PageRequest.of(0, 1)).size());
+        assertTrue(userRepository.searchByNamePrefix("oe%", "% oe%", PageRequest.of(0, 10)).isEmpty());
+        // 转义后的 % 只匹配自身
+        assertEquals(List.of(new UserNameMatch(percent.getId(), "100% Smith")),
+            userRepository.searchByNamePrefix("100!%%", "% 100!%%", PageRequest.of(0, 10)));
+        assertTrue(userRepository.searchByNamePrefix("1!%%", "% 1!%%", PageRequest.of(0, 10)).isEmpty());
+    }
 }
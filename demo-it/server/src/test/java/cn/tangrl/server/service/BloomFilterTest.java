@@ -0,0 +1,61 @@
+package cn.tangrl.server.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+public class BloomFilterTest {
+
+    @Test
+    void testSizing() {
+        // Act - 100 万个元素、1% 误判率
+        BloomFilter filter = BloomFilter.create(1_000_000, 0.01);
+
+        // Assert - 约 958 万位（1.2 MB），7 个哈希函数，位数向上取整到 64 的倍数
+        assertEquals(9_585_088, filter.bitCount());
+        assertEquals(7, filter.hashCount());
+        assertEquals(filter.bitCount() / 8, filter.sizeInBytes());
+        assertThrows(IllegalArgumentException.class, () -> BloomFilter.create(100, 0));
+        assertThrows(IllegalArgumentException.class, () -> BloomFilter.create(100, 1));
+    }
+
+    @Test
+    void testNoFalseNegativesAndFalsePositiveRate() {
+        // Arrange
+        BloomFilter filter = BloomFilter.create(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.put("user" + i);
+        }
+
+        // Act & Assert - 写入过的元素一定返回 true
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(filter.mightContain("user" + i));
+        }
+        int falsePositives = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (filter.mightContain("other" + i)) {
+                falsePositives++;
+            }
+        }
+
+        // Assert - 没有写入的元素误判率接近目标值，估算值与实际值接近
+        double rate = falsePositives / 100_000.0;
+        assertTrue(rate < 0.015, "false positive rate " + rate);
+        assertEquals(0.01, filter.estimatedFalsePositiveRate(), 0.003);
+    }
+
+    @Test
+    void testEmptyFilter() {
+        // Arrange
+        BloomFilter filter = BloomFilter.create(0, 0.01);
+
+        // Act & Assert - 至少 64 位，没有写入时全部返回 false
+        assertEquals(64, filter.bitCount());
+        assertFalse(filter.mightContain(""));
+        assertFalse(filter.mightContain("John Doe"));
+        assertEquals(0, filter.estimatedFalsePositiveRate());
+    }
+}
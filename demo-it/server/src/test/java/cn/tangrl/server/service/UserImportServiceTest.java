@@ -0,0 +1,131 @@
+package cn.tangrl.server.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import cn.tangrl.server.model.User;
+import cn.tangrl.server.model.UserImportReport;
+import cn.tangrl.server.repository.UserRepository;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.autoconfigure.validation.ValidationAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+@DataJpaTest(properties = "app.users.import.batch-size=2")  // 每批 2 行，方便验证分批
+@Import(UserImportService.class)
+@ImportAutoConfiguration({JacksonAutoConfiguration.class, ValidationAutoConfiguration.class})
+public class UserImportServiceTest {
+
+    @Autowired
+    private UserImportService userImportService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @DynamicPropertySource  // 动态设置测试环境下的数据库相关属性
+    private static void setProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.driver-class-name", () -> "org.h2.Driver");
+        registry.add("spring.datasource.url",
+            () -> "jdbc:h2:mem:importdb;MODE=MySQL;DB_CLOSE_DELAY=-1;DATABASE_TO_LOWER=true");
+        registry.add("spring.datasource.username", () -> "sa");
+        registry.add("spring.datasource.password", () -> "");
+
+        // 表结构（包括主键生成表）由 Flyway 创建
+        registry.add("spring.jpa.hibernate.ddl-auto", () -> "validate");
+        registry.add("spring.jpa.properties.hibernate.dialect",
+            () -> "org.hibernate.dialect.H2Dialect");
+    }
+
+    @Test
+    void testImportJsonArray() throws Exception {
+        // Arrange
+        String json = """
+            [{"name":"John Doe","email":"john@example.com"},
+             {"name":"Jane Doe","email":"jane@example.com"},
+             {"name":"Jim Doe","email":"jim@example.com"}]""";
+
+        // Act
+        UserImportReport report = userImportService.importJson(stream(json));
+
+        // Assert - 3 行分为 2 批，每行都分配了不同的 ID
+        assertEquals(3, report.imported());
+        assertEquals(2, report.batches());
+        assertNull(report.failure());
+        List<User> users = userRepository.findAll();
+        assertEquals(3, users.size());
+        assertThat(users).extracting(User::getId).doesNotContainNull().doesNotHaveDuplicates();
+    }
+
+    @Test
+    void testImportNdjson() throws Exception {
+        // Arrange
+        String ndjson = """
+            {"name":"John Doe","email":"john@example.com"}
+            {"name":"Jane Doe","email":"jane@example.com"}
+            """;
+
+        // Act
+        UserImportReport report = userImportService.importJson(stream(ndjson));
+
+        // Assert
+        assertEquals(2, report.imported());
+        assertEquals(1, userRepository.findByName("Jane Doe").size());
+    }
+
+    @Test
+    void testImportCsvSkipsInvalidRows() throws Exception {
+        // Arrange - 第 2 行姓名为空，第 3 行电子邮件格式错误
+        String csv = """
+            name,email
+            John Doe,john@example.com
+            ,nobody@example.com
+            Jane Doe,not-an-email
+            Jim Doe,jim@example.com
+            """;
+
+        // Act
+        UserImportReport report = userImportService.importCsv(stream(csv));
+
+        // Assert - 错误的行被跳过并记录原因，其余行正常导入
+        assertEquals(2, report.imported());
+        assertEquals(2, report.rejected());
+        assertThat(report.errors()).hasSize(2);
+        assertThat(report.errors().get(0)).startsWith("Row 2:").contains("name");
+        assertThat(report.errors().get(1)).startsWith("Row 3:").contains("email");
+        assertEquals(2, userRepository.count());
+    }
+
+    @Test
+    void testMalformedJsonAbortsImport() throws Exception {
+        // Arrange - 第 3 行格式错误
+        String ndjson = """
+            {"name":"John Doe","email":"john@example.com"}
+            {"name":"Jane Doe","email":"jane@example.com"}
+            {"name":
+            """;
+
+        // Act
+        UserImportReport report = userImportService.importJson(stream(ndjson));
+
+        // Assert - 导入中止，已提交的批次保留
+        assertNotNull(report.failure());
+        assertThat(report.failure()).startsWith("Row 3:");
+        assertEquals(2, report.imported());
+        assertEquals(2, userRepository.count());
+    }
+
+    private static InputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
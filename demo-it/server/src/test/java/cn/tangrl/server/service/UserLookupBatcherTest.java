@@ -0,0 +1,195 @@
+package cn.tangrl.server.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import cn.tangrl.server.model.User;
+import cn.tangrl.server.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+public class UserLookupBatcherTest {
+
+    @Mock
+    private UserRepository userRepository;  // 模拟 UserRepository 依赖
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private UserLookupBatcher batcher;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);  // 初始化 Mockito 注解
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        batcher.destroy();
+    }
+
+    @Test
+    void testLookupsInWindowShareOneQuery() {
+        // Arrange - 窗口足够长，保证三次调用落在同一个窗口
+        batcher = new UserLookupBatcher(userRepository, meterRegistry, 200, 100, 4);
+        User john = new User(1L, "John Doe", "john@example.com");
+        User jane = new User(2L, "Jane Doe", "jane@example.com");
+        when(userRepository.findByNameIn(Set.of("John Doe", "Jane Doe", "Nobody")))
+            .thenReturn(List.of(john, jane));
+
+        // Act - "John Doe" 被查询两次
+        CompletableFuture<List<User>> first = batcher.load("John Doe");
+        CompletableFuture<List<User>> second = batcher.load("Jane Doe");
+        CompletableFuture<List<User>> third = batcher.load("John Doe");
+        CompletableFuture<List<User>> fourth = batcher.load("Nobody");
+
+        // Assert - 每个调用方拿到自己姓名的结果，只执行一次查询
+        assertEquals(List.of(john), first.join());
+        assertEquals(List.of(jane), second.join());
+        assertEquals(List.of(john), third.join());
+        assertEquals(List.of(), fourth.join());
+        verify(userRepository, times(1)).findByNameIn(anyCollection());
+        assertEquals(1, meterRegistry.summary("users.lookup.batch.size").count());
+        assertEquals(3.0, meterRegistry.summary("users.lookup.batch.size").totalAmount());
+        assertEquals(4, meterRegistry.timer("users.lookup.batch.wait").count());
+        assertEquals(1, meterRegistry.timer("users.lookup.batch.query").count());
+    }
+
+    @Test
+    void testFullBatchRunsWithoutWaitingForWindow() {
+        // Arrange - 窗口为 1 分钟，每批最多 2 个姓名
+        batcher = new UserLookupBatcher(userRepository, meterRegistry, 60_000, 2, 4);
+        User john = new User(1L, "John Doe", "john@example.com");
+        when(userRepository.findByNameIn(Set.of("John Doe", "Jane Doe"))).thenReturn(List.of(john));
+
+        // Act
+        CompletableFuture<List<User>> first = batcher.load("John Doe");
+        CompletableFuture<List<User>> second = batcher.load("Jane Doe");
+        CompletableFuture<List<User>> third = batcher.load("Jim Doe");
+
+        // Assert - 前两个姓名凑满一批立即查询，第三个留在下一个窗口
+        assertEquals(List.of(john), first.orTimeout(5, TimeUnit.SECONDS).join());
+        assertEquals(List.of(), second.join());
+        assertFalse(third.isDone());
+    }
+
+    @Test
+    void testFailureCompletesAllWaiters() {
+        // Arrange
+        batcher = new UserLookupBatcher(userRepository, meterRegistry, 50, 100, 4);
+        IllegalStateException failure = new IllegalStateException("database unavailable");
+        when(userRepository.findByNameIn(anyCollection())).thenThrow(failure);
+
+        // Act
+        CompletableFuture<List<User>> first = batcher.load("John Doe");
+        CompletableFuture<List<User>> second = batcher.load("Jane Doe");
+
+        // Assert - 同一批的调用方都收到查询的异常
+        CompletionException exception = assertThrows(CompletionException.class, first::join);
+        assertInstanceOf(IllegalStateException.class, exception.getCause());
+        assertThrows(CompletionException.class, second::join);
+    }
+
+    @Test
+    void testNextWindowStartsAfterFlush() {
+        // Arrange
+        batcher = new UserLookupBatcher(userRepository, meterRegistry, 20, 100, 4);
+        User john = new User(1L, "John Doe", "john@example.com");
+        when(userRepository.findByNameIn(Set.of("John Doe"))).thenReturn(List.of(john));
+
+        // Act - 前一个窗口结束后的调用进入新的窗口
+        assertEquals(List.of(john), batcher.load("John Doe").join());
+        assertEquals(List.of(john), batcher.load("John Doe").join());
+
+        // Assert
+        verify(userRepository, times(2)).findByNameIn(anyCollection());
+    }
+
+    @Test
+    void testCaseVariantsFallBackToFindByName() {
+        // Arrange - 模拟不区分大小写的排序规则：IN 查询为 "alice" 返回了 "ALICE" 的行
+        batcher = new UserLookupBatcher(userRepository, meterRegistry, 200, 100, 4);
+        User upperAlice = new User(1L, "ALICE", "alice@example.com");
+        User bob = new User(2L, "Bob", "bob@example.com");
+        when(userRepository.findByNameIn(Set.of("alice", "Bob"))).thenReturn(List.of(upperAlice, bob));
+        when(userRepository.findByName("alice")).thenReturn(List.of(upperAlice));
+
+        // Act
+        CompletableFuture<List<User>> alice = batcher.load("alice");
+        CompletableFuture<List<User>> bobs = batcher.load("Bob");
+
+        // Assert - "alice" 单独查询，结果与 findByName 相同；"Bob" 使用批量查询的结果
+        assertEquals(List.of(upperAlice), alice.join());
+        assertEquals(List.of(bob), bobs.join());
+        verify(userRepository, times(1)).findByName("alice");
+        verify(userRepository, never()).findByName("Bob");
+        assertEquals(1, meterRegistry.counter("users.lookup.batch.fallback").count());
+    }
+
+    @Test
+    void testNamesWithSameKeyFallBackToFindByName() {
+        // Arrange - 同一批中的 "Alice" 和 "alice" 在不区分大小写的排序规则下相等
+        batcher = new UserLookupBatcher(userRepository, meterRegistry, 200, 100, 4);
+        User alice = new User(1L, "Alice", "alice@example.com");
+        when(userRepository.findByNameIn(Set.of("Alice", "alice"))).thenReturn(List.of(alice));
+        when(userRepository.findByName("Alice")).thenReturn(List.of(alice));
+        when(userRepository.findByName("alice")).thenReturn(List.of(alice));
+
+        // Act
+        CompletableFuture<List<User>> first = batcher.load("Alice");
+        CompletableFuture<List<User>> second = batcher.load("alice");
+
+        // Assert - 无法从批量结果判断 "alice" 是否包含 "Alice" 的行，两个姓名都单独查询
+        assertEquals(List.of(alice), first.join());
+        assertEquals(List.of(alice), second.join());
+        verify(userRepository, times(2)).findByName(anyString());
+    }
+
+    @Test
+    void testUnknownVariantRequeriesOnlyAffectedNames() {
+        // Arrange - utf8mb4_0900_ai_ci 下 "Æsir" 与 "Aesir" 相等，但 collationKey 不同，无法判断这一行属于哪个姓名
+        batcher = new UserLookupBatcher(userRepository, meterRegistry, 200, 100, 4);
+        User aesir = new User(1L, "Æsir", "aesir@example.com");
+        List<User> rows = List.of(aesir, new User(2L, "Bob", "bob@example.com"),
+            new User(3L, "Carol", "carol@example.com"), new User(4L, "Dave", "dave@example.com"));
+        when(userRepository.findByNameIn(anyCollection())).thenAnswer(invocation -> {
+            Collection<String> names = invocation.getArgument(0);
+            return rows.stream().filter(user -> names.contains(user.getName())
+                || user == aesir && names.contains("Aesir")).toList();
+        });
+
+        // Act
+        CompletableFuture<List<User>> first = batcher.load("Aesir");
+        CompletableFuture<List<User>> second = batcher.load("Bob");
+        CompletableFuture<List<User>> third = batcher.load("Carol");
+        CompletableFuture<List<User>> fourth = batcher.load("Dave");
+
+        // Assert - 结果与 findByName 相同；不包含这一行的一半不再拆分，只有 "Aesir" 所在的一半拆成单个姓名
+        assertEquals(List.of(aesir), first.join());
+        assertEquals(List.of(rows.get(1)), second.join());
+        assertEquals(List.of(rows.get(2)), third.join());
+        assertEquals(List.of(rows.get(3)), fourth.join());
+        verify(userRepository, times(5)).findByNameIn(anyCollection());
+        verify(userRepository, times(2)).findByNameIn(argThat(names -> names.size() == 1));
+        verify(userRepository, never()).findByName(anyString());
+    }
+}
@@ -0,0 +1,142 @@
+package cn.tangrl.server.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+import cn.tangrl.server.event.UserChangedEvent;
+import cn.tangrl.server.event.UserChangedEvent.Type;
+import cn.tangrl.server.model.UserNameMatch;
+import cn.tangrl.server.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.PlatformTransactionManager;
+
+public class UserNameBloomFilterTest {
+
+    @Mock
+    private UserRepository userRepository;  // 模拟 UserRepository 依赖
+
+    @Mock
+    private PlatformTransactionManager transactionManager;  // 模拟事务管理器
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private UserNameBloomFilter userNameBloomFilter;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);  // 初始化 Mockito 注解
+        meterRegistry = new SimpleMeterRegistry();
+        userNameBloomFilter = new UserNameBloomFilter(userRepository, transactionManager,
+            meterRegistry, 0.01, 1000);
+    }
+
+    private void rebuild(UserNameMatch... users) {
+        when(userRepository.count()).thenReturn((long) users.length);
+        when(userRepository.streamAllNames()).thenReturn(Stream.of(users));
+        userNameBloomFilter.rebuild();
+    }
+
+    @Test
+    void testAllNamesMightExistBeforeLoad() {
+        // Act & Assert - 加载完成前不排除任何姓名
+        assertTrue(userNameBloomFilter.mightContain("Nobody"));
+        assertEquals(0, userNameBloomFilter.sizeInBytes());
+    }
+
+    @Test
+    void testRebuildLoadsAllNames() {
+        // Arrange
+        rebuild(new UserNameMatch(1L, "John Doe"), new UserNameMatch(2L, "Jane Doe"));
+
+        // Act & Assert - 不存在的姓名被排除并计数
+        assertTrue(userNameBloomFilter.mightContain("John Doe"));
+        assertTrue(userNameBloomFilter.mightContain("Jane Doe"));
+        assertFalse(userNameBloomFilter.mightContain("Nobody"));
+        assertEquals(1, meterRegistry.get("users.bloom-filter.rejected").counter().count());
+        assertEquals(userNameBloomFilter.sizeInBytes(),
+            meterRegistry.get("users.bloom-filter.bytes").gauge().value());
+        assertTrue(userNameBloomFilter.sizeInBytes() > 0);
+    }
+
+    @Test
+    void testNameVariantsThatDatabaseTreatsAsEqual() {
+        // Arrange
+        rebuild(new UserNameMatch(1L, "José Doe"));
+
+        // Act & Assert - MySQL 默认的排序规则下相等的姓名（大小写、重音不同）不能被排除
+        assertTrue(userNameBloomFilter.mightContain("JOSE DOE"));
+        assertTrue(userNameBloomFilter.mightContain("josé doe"));
+        assertEquals(UserNameBloomFilter.key("José Doe"), UserNameBloomFilter.key("JOSE DOE"));
+        // 0900 排序规则是 NO PAD 的，末尾空格不同的姓名不相等
+        assertNotEquals(UserNameBloomFilter.key("José Doe"), UserNameBloomFilter.key("JOSE DOE "));
+    }
+
+    @Test
+    void testCompatibilityAndCaseFoldingEquivalents() {
+        // Arrange - utf8mb4_0900_ai_ci 下 "ß" 与 "ss"、连字 "ﬁ" 与 "fi"、全角与半角字符相等
+        rebuild(new UserNameMatch(1L, "Straße"), new UserNameMatch(2L, "ﬁona"),
+            new UserNameMatch(3L, "Ｊｏｈｎ"));
+
+        // Act & Assert - 数据库能查到的姓名不能被判断为不存在
+        assertTrue(userNameBloomFilter.mightContain("STRASSE"));
+        assertTrue(userNameBloomFilter.mightContain("strasse"));
+        assertTrue(userNameBloomFilter.mightContain("Fiona"));
+        assertTrue(userNameBloomFilter.mightContain("john"));
+        assertTrue(userNameBloomFilter.mightContain("JOHN"));
+    }
+
+    @Test
+    void testChangedNamesAreAdded() {
+        // Arrange
+        rebuild(new UserNameMatch(1L, "John Doe"));
+
+        // Act - 新增和改名后的姓名加入过滤器
+        userNameBloomFilter.onUserChanged(new UserChangedEvent(2L, "Jim Doe", null, Type.CREATED));
+        userNameBloomFilter.onUserChanged(
+            new UserChangedEvent(1L, "Johnny Doe", "John Doe", Type.UPDATED));
+
+        // Assert
+        assertTrue(userNameBloomFilter.mightContain("Jim Doe"));
+        assertTrue(userNameBloomFilter.mightContain("Johnny Doe"));
+    }
+
+    @Test
+    void testRebuildDropsDeletedNames() {
+        // Arrange
+        rebuild(new UserNameMatch(1L, "John Doe"));
+        userNameBloomFilter.onUserChanged(new UserChangedEvent(1L, "John Doe", null, Type.DELETED));
+        assertTrue(userNameBloomFilter.mightContain("John Doe"));
+
+        // Act - 删除后重建
+        rebuild(new UserNameMatch(2L, "Jane Doe"));
+
+        // Assert
+        assertFalse(userNameBloomFilter.mightContain("John Doe"));
+        assertTrue(userNameBloomFilter.mightContain("Jane Doe"));
+    }
+
+    @Test
+    void testInsertDuringRebuildIsKept() {
+        // Arrange - 读取全部姓名期间新增了一个用户
+        rebuild(new UserNameMatch(1L, "John Doe"));
+        when(userRepository.count()).thenReturn(1L);
+        when(userRepository.streamAllNames()).thenAnswer(invocation -> {
+            userNameBloomFilter.onUserChanged(new UserChangedEvent(2L, "Jim Doe", null, Type.CREATED));
+            return Stream.of(new UserNameMatch(1L, "John Doe"));
+        });
+
+        // Act
+        userNameBloomFilter.rebuild();
+
+        // Assert - 重建完成后仍然包含读取期间新增的姓名
+        assertTrue(userNameBloomFilter.mightContain("Jim Doe"));
+    }
+}
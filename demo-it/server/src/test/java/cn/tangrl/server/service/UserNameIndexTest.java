@@ -0,0 +1,200 @@
+package cn.tangrl.server.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+import cn.tangrl.server.event.UserChangedEvent;
+import cn.tangrl.server.event.UserChangedEvent.Type;
+import cn.tangrl.server.model.UserNameMatch;
+import cn.tangrl.server.repository.UserRepository;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+public class UserNameIndexTest {
+
+    @Mock
+    private UserRepository userRepository;  // 模拟 UserRepository 依赖
+
+    @Mock
+    private PlatformTransactionManager transactionManager;  // 模拟事务管理器
+
+    private UserNameIndex userNameIndex;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);  // 初始化 Mockito 注解
+        userNameIndex = new UserNameIndex(userRepository, transactionManager);
+    }
+
+    private void load(UserNameMatch... users) {
+        when(userRepository.streamAllNames()).thenReturn(Stream.of(users));
+        userNameIndex.load();
+    }
+
+    @Test
+    void testSearchIgnoresCaseAndWidth() {
+        // Arrange
+        load(new UserNameMatch(1L, "John Doe"), new UserNameMatch(2L, "Jane Doe"),
+            new UserNameMatch(3L, "Ｊｏｈｎｎｙ"));
+
+        // Act - 全角字符经过 NFKC 转换后与半角相同
+        List<UserNameMatch> matches = userNameIndex.search("JOHN", 10);
+
+        // Assert - 结果按匹配的单词排序
+        assertEquals(List.of(new UserNameMatch(1L, "John Doe"), new UserNameMatch(3L, "Ｊｏｈｎｎｙ")),
+            matches);
+        assertEquals(matches, userNameIndex.search("ｊｏｈ", 10));
+    }
+
+    @Test
+    void testSearchMatchesAnyWord() {
+        // Arrange
+        load(new UserNameMatch(1L, "John Doe"), new UserNameMatch(2L, "Jane Doe"),
+            new UserNameMatch(3L, "Dora Smith"));
+
+        // Act & Assert - 姓名中任意一个单词的前缀都能匹配，也可以跨单词
+        assertEquals(List.of(new UserNameMatch(1L, "John Doe"), new UserNameMatch(2L, "Jane Doe")),
+            userNameIndex.search("doe", 10));
+        assertEquals(List.of(new UserNameMatch(1L, "John Doe")), userNameIndex.search("john  d", 10));
+        assertEquals(3, userNameIndex.search("d", 10).size());
+        assertTrue(userNameIndex.search("oe", 10).isEmpty());
+        assertTrue(userNameIndex.search("  ", 10).isEmpty());
+    }
+
+    @Test
+    void testSearchLimitAndDistinctUsers() {
+        // Arrange - "Dan Dean" 的两个单词都以 "d" 开头
+        load(new UserNameMatch(1L, "Dan Dean"), new UserNameMatch(2L, "Dave"),
+            new UserNameMatch(3L, "Dora"));
+
+        // Act & Assert - 同一个用户只返回一次，结果数不超过 limit
+        assertEquals(List.of(1L, 2L, 3L),
+            userNameIndex.search("d", 10).stream().map(UserNameMatch::id).toList());
+        assertEquals(2, userNameIndex.search("d", 2).size());
+        assertTrue(userNameIndex.search("d", 0).isEmpty());
+        assertEquals(3, userNameIndex.size());
+    }
+
+    @Test
+    void testUserChangedEventsUpdateIndex() {
+        // Arrange
+        load(new UserNameMatch(1L, "John Doe"));
+
+        // Act
+        userNameIndex.onUserChanged(new UserChangedEvent(2L, "Jane Doe", null, Type.CREATED));
+        userNameIndex.onUserChanged(new UserChangedEvent(1L, "Johnny Doe", "John Doe", Type.UPDATED));
+        userNameIndex.onUserChanged(new UserChangedEvent(2L, "Jane Doe", null, Type.DELETED));
+
+        // Assert
+        assertEquals(List.of(new UserNameMatch(1L, "Johnny Doe")), userNameIndex.search("doe", 10));
+        assertTrue(userNameIndex.search("jane", 10).isEmpty());
+        assertEquals(1, userNameIndex.size());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testConcurrentEventsAreAppliedUnderLock() throws Exception {
+        // Arrange - 记录修改索引时是否持有锁，与加载期间重放事件使用同一把锁
+        load();
+        Object lock = ReflectionTestUtils.getField(userNameIndex, "lock");
+        Comparator<Object> keyOrder = (Comparator<Object>) ReflectionTestUtils.getField(
+            UserNameIndex.class, "KEY_ORDER");
+        AtomicBoolean outsideLock = new AtomicBoolean();
+        ReflectionTestUtils.setField(userNameIndex, "index",
+            new ConcurrentSkipListMap<Object, String>(keyOrder) {
+                @Override
+                public String put(Object key, String value) {
+                    outsideLock.compareAndSet(false, !Thread.holdsLock(lock));
+                    return super.put(key, value);
+                }
+
+                @Override
+                public String remove(Object key) {
+                    outsideLock.compareAndSet(false, !Thread.holdsLock(lock));
+                    return super.remove(key);
+                }
+            });
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            long id = i;
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int j = 0; j < 100; j++) {
+                    userNameIndex.onUserChanged(new UserChangedEvent(id, "User " + j,
+                        j == 0 ? null : "User " + (j - 1), j == 0 ? Type.CREATED : Type.UPDATED));
+                }
+                return null;
+            }));
+        }
+
+        // Act
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        // Assert - 每个事件都在持有锁时生效，每个用户只剩最后一个姓名
+        assertFalse(outsideLock.get());
+        assertEquals(threads, userNameIndex.size());
+        assertEquals(threads, userNameIndex.search("user 99", 10).size());
+        assertTrue(userNameIndex.search("user 98", 10).isEmpty());
+    }
+
+    @Test
+    void testEventsDuringLoadAreReplayed() {
+        // Arrange - 加载完成前收到的事件
+        userNameIndex.onUserChanged(new UserChangedEvent(2L, "Jane Doe", null, Type.CREATED));
+        userNameIndex.onUserChanged(new UserChangedEvent(1L, "Johnny Doe", "John Doe", Type.UPDATED));
+        assertTrue(userNameIndex.search("jane", 10).isEmpty());
+
+        // Act - 加载时读到的是修改之前的姓名
+        load(new UserNameMatch(1L, "John Doe"));
+
+        // Assert
+        assertEquals(List.of(new UserNameMatch(2L, "Jane Doe")), userNameIndex.search("jane", 10));
+        assertEquals(List.of(new UserNameMatch(1L, "Johnny Doe")), userNameIndex.search("john", 10));
+        assertEquals(2, userNameIndex.size());
+    }
+
+    @Test
+    void testReload() {
+        // Arrange
+        load(new UserNameMatch(1L, "John Doe"));
+
+        // Act - 数据被其他方式修改后重新加载
+        when(userRepository.streamAllNames()).thenReturn(Stream.of(new UserNameMatch(2L, "Jane Doe")));
+        userNameIndex.reload();
+
+        // Assert
+        assertTrue(userNameIndex.search("john", 10).isEmpty());
+        assertEquals(List.of(new UserNameMatch(2L, "Jane Doe")), userNameIndex.search("jane", 10));
+        assertEquals(1, userNameIndex.size());
+    }
+
+    @Test
+    void testTerms() {
+        assertEquals(List.of("john doe", "doe"), UserNameIndex.terms("  John   Doe "));
+        assertEquals(List.of("张三"), UserNameIndex.terms("张三"));
+        assertTrue(UserNameIndex.terms(" ").isEmpty());
+    }
+}
@@ -0,0 +1,21 @@
+package cn.tangrl.server.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+import org.junit.jupiter.api.Test;
+
+public class UserNamesTest {
+
+    @Test
+    void testCollationKeyMatchesCaseAndAccentInsensitiveEquivalents() {
+        // Act & Assert - utf8mb4_0900_ai_ci 下相等的姓名得到相同的 key
+        assertEquals(UserNames.collationKey("José Doe"), UserNames.collationKey("JOSE DOE"));
+        assertEquals(UserNames.collationKey("Straße"), UserNames.collationKey("STRASSE"));
+        assertEquals(UserNames.collationKey("ﬁona"), UserNames.collationKey("Fiona"));
+        assertEquals(UserNames.collationKey("Ｊｏｈｎ"), UserNames.collationKey("john"));
+        assertNotEquals(UserNames.collationKey("John"), UserNames.collationKey("Jon"));
+        // 0900 排序规则是 NO PAD 的，末尾空格不同的姓名不相等
+        assertNotEquals(UserNames.collationKey("John  "), UserNames.collationKey("john"));
+    }
+}
@@ -0,0 +1,186 @@
+package cn.tangrl.server.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import cn.tangrl.server.config.CacheConfiguration;
+import cn.tangrl.server.model.User;
+import cn.tangrl.server.repository.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+@SpringBootTest  // 启动完整的应用上下文，验证缓存和数据变更事件的配合
+public class UserServiceCacheTest {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Cache cache;
+
+    private Statistics statistics;
+
+    @DynamicPropertySource  // 动态设置测试环境下的数据库相关属性
+    private static void setProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.driver-class-name", () -> "org.h2.Driver");
+        registry.add("spring.datasource.url",
+            () -> "jdbc:h2:mem:cachedb;MODE=MySQL;DB_CLOSE_DELAY=-1;DATABASE_TO_LOWER=true");
+        registry.add("spring.datasource.username", () -> "sa");
+        registry.add("spring.datasource.password", () -> "");
+
+        registry.add("spring.jpa.hibernate.ddl-auto", () -> "create-drop");
+        registry.add("spring.jpa.properties.hibernate.dialect",
+            () -> "org.hibernate.dialect.H2Dialect");
+        // 通过 Hibernate 统计信息计算查询次数
+        registry.add("spring.jpa.properties.hibernate.generate_statistics", () -> "true");
+    }
+
+    @BeforeEach
+    void setUp() {
+        cache = cacheManager.getCache(CacheConfiguration.USERS_BY_NAME);
+        cache.clear();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void testFindUsersByNameIsCached() {
+        // Arrange
+        userRepository.save(new User(null, "John Doe", "john.doe@example.com"));
+        statistics.clear();
+
+        // Act - 连续查询两次
+        List<User> first = userService.findUsersByName("John Doe");
+        List<User> second = userService.findUsersByName("John Doe");
+
+        // Assert - 只执行一次数据库查询
+        assertEquals(1, first.size());
+        assertEquals(first, second);
+        assertEquals(1, statistics.getQueryExecutionCount());
+    }
+
+    @Test
+    void testConcurrentMissesAreCoalesced() throws Exception {
+        // Arrange
+        userRepository.save(new User(null, "John Doe", "john.doe@example.com"));
+        statistics.clear();
+        int threads = 8;
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<List<User>>> futures = new ArrayList<>();
+
+        // Act - 多个线程同时查询同一个未缓存的姓名
+        try (ExecutorService executor = Executors.newFixedThreadPool(threads)) {
+            for (int i = 0; i < threads; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return userService.findUsersByName("John Doe");
+                }));
+            }
+            start.countDown();
+            for (Future<List<User>> future : futures) {
+                assertEquals(1, future.get().size());
+            }
+        }
+
+        // Assert - 并发的未命中合并为一次查询
+        assertEquals(1, statistics.getQueryExecutionCount());
+    }
+
+    @Test
+    void testFindUsersByNamesReadsCache() {
+        // Arrange - "John Doe" 已经缓存
+        userRepository.save(new User(null, "John Doe", "john.doe@example.com"));
+        userRepository.save(new User(null, "Jane Doe", "jane.doe@example.com"));
+        userRepository.save(new User(null, "Jim Doe", "jim.doe@example.com"));
+        userService.findUsersByName("John Doe");
+        statistics.clear();
+
+        // Act
+        Map<String, List<User>> users = userService.findUsersByNames(
+            List.of("John Doe", "Jane Doe", "Jim Doe", "Nobody"));
+
+        // Assert - 未缓存的三个姓名由一次 IN 查询返回
+        assertEquals(1, users.get("John Doe").size());
+        assertEquals(1, users.get("Jane Doe").size());
+        assertEquals(1, users.get("Jim Doe").size());
+        assertEquals(0, users.get("Nobody").size());
+        assertEquals(1, statistics.getQueryExecutionCount());
+    }
+
+    @Test
+    void testSaveEvictsName() {
+        // Arrange - 缓存一个空结果
+        assertEquals(0, userService.findUsersByName("John Doe").size());
+        assertNotNull(cache.get("John Doe"));
+
+        // Act - 新增同名用户
+        userRepository.save(new User(null, "John Doe", "john.doe@example.com"));
+
+        // Assert - 缓存被清除，再次查询得到新数据
+        assertNull(cache.get("John Doe"));
+        assertEquals(1, userService.findUsersByName("John Doe").size());
+    }
+
+    @Test
+    void testRenameEvictsPreviousAndNewName() {
+        // Arrange
+        User user = userRepository.save(new User(null, "John Doe", "john.doe@example.com"));
+        userService.findUsersByName("John Doe");
+        userService.findUsersByName("Johnny Doe");
+
+        // Act - 修改姓名
+        user.setName("Johnny Doe");
+        userRepository.save(user);
+
+        // Assert - 新旧姓名的缓存都被清除
+        assertNull(cache.get("John Doe"));
+        assertNull(cache.get("Johnny Doe"));
+        assertEquals(0, userService.findUsersByName("John Doe").size());
+        assertEquals(1, userService.findUsersByName("Johnny Doe").size());
+    }
+
+    @Test
+    void testDeleteEvictsName() {
+        // Arrange
+        User user = userRepository.save(new User(null, "John Doe", "john.doe@example.com"));
+        assertEquals(1, userService.findUsersByName("John Doe").size());
+
+        // Act
+        userRepository.delete(user);
+
+        // Assert
+        assertNull(cache.get("John Doe"));
+        assertEquals(0, userService.findUsersByName("John Doe").size());
+    }
+}
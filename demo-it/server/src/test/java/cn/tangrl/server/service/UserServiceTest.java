@@ -1,18 +1,40 @@
 package cn.tangrl.server.service;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import cn.tangrl.server.config.CacheConfiguration;
+import cn.tangrl.server.event.UserChangedEvent;
 import cn.tangrl.server.model.User;
+import cn.tangrl.server.model.UserNameMatch;
+import cn.tangrl.server.model.UserPage;
 import cn.tangrl.server.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.util.ReflectionTestUtils;
 
 public class UserServiceTest {
 
@@ -22,9 +44,19 @@ public class UserServiceTest {
     @Mock
     private UserRepository userRepository;  // 模拟 UserRepository 依赖
 
+    @Mock
+    private EntityManager entityManager;  // 模拟 EntityManager 依赖
+
+    @Mock
+    private CacheManager cacheManager;  // 模拟 CacheManager 依赖
+
+    private ConcurrentMapCache cache;
+
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);  // 初始化 Mockito 注解
+        cache = new ConcurrentMapCache(CacheConfiguration.USERS_BY_NAME);
+        when(cacheManager.getCache(CacheConfiguration.USERS_BY_NAME)).thenReturn(cache);
     }
 
     @Test
@@ -41,4 +73,300 @@ public class UserServiceTest {
         assertEquals("John Doe", users.get(0).getName());
         verify(userRepository, times(1)).findByName("John Doe");
     }
+
+    @Test
+    void testCachedUsersAreImmutableCopies() {
+        // Arrange
+        User user = new User(1L, "John Doe", "john.doe@example.com");
+        when(userRepository.findByName("John Doe")).thenReturn(new ArrayList<>(List.of(user)));
+
+        // Act
+        List<User> first = userService.findUsersByName("John Doe");
+        List<User> second = userService.findUsersByName("John Doe");
+
+        // Assert - 第二次从缓存读取，缓存的是不可修改的列表和实体的副本
+        assertEquals(List.of(user), second);
+        assertNotSame(user, first.get(0));
+        assertThrows(UnsupportedOperationException.class, () -> first.add(user));
+        verify(userRepository, times(1)).findByName("John Doe");
+    }
+
+    @Test
+    void testChangeDuringLoadIsNotCached() {
+        // Arrange - 查询读到旧数据之后、返回之前，"JOHN DOE" 改名为 "Jane Doe" 并提交，
+        // 按不区分大小写的排序规则，"John Doe" 的查询结果中包含这一行
+        User stale = new User(1L, "JOHN DOE", "john.doe@example.com");
+        User fresh = new User(2L, "John Doe", "john2@example.com");
+        when(userRepository.findByName("John Doe"))
+            .thenAnswer(invocation -> {
+                userService.onUserChanged(new UserChangedEvent(1L, "Jane Doe", "JOHN DOE",
+                    UserChangedEvent.Type.UPDATED));
+                return List.of(stale, fresh);
+            })
+            .thenReturn(List.of(fresh));
+
+        // Act
+        List<User> first = userService.findUsersByName("John Doe");
+        List<User> second = userService.findUsersByName("John Doe");
+
+        // Assert - 本次调用仍返回查询结果，但旧数据不留在缓存中，下一次重新查询
+        assertEquals(List.of(stale, fresh), first);
+        assertEquals(List.of(fresh), second);
+        assertEquals(List.of(fresh), cache.get("John Doe").get());
+        verify(userRepository, times(2)).findByName("John Doe");
+    }
+
+    @Test
+    void testChangeOfOtherNameKeepsLoad() {
+        // Arrange - 查询期间变更的是其他姓名
+        User user = new User(1L, "John Doe", "john.doe@example.com");
+        when(userRepository.findByName("John Doe")).thenAnswer(invocation -> {
+            userService.onUserChanged(new UserChangedEvent(2L, "Jane Doe", null,
+                UserChangedEvent.Type.CREATED));
+            return List.of(user);
+        });
+
+        // Act
+        userService.findUsersByName("John Doe");
+
+        // Assert
+        assertEquals(List.of(user), cache.get("John Doe").get());
+    }
+
+    @Test
+    void testFindUsersByNameWithBatching() {
+        // Arrange - 开启合并查询
+        UserLookupBatcher userLookupBatcher = mock(UserLookupBatcher.class);
+        ReflectionTestUtils.setField(userService, "userLookupBatcher", userLookupBatcher);
+        User user = new User(1L, "John Doe", "john.doe@example.com");
+        when(userLookupBatcher.load("John Doe")).thenReturn(
+            CompletableFuture.completedFuture(List.of(user)));
+
+        // Act
+        List<User> users = userService.findUsersByName("John Doe");
+
+        // Assert - 由 UserLookupBatcher 查询，不直接调用 findByName
+        assertEquals(List.of(user), users);
+        verify(userRepository, never()).findByName("John Doe");
+    }
+
+    @Test
+    void testFindUsersByNamePage() {
+        // Arrange - 结果数等于 limit，说明可能还有下一页
+        User user1 = new User(1L, "John Doe", "john1@example.com");
+        User user2 = new User(2L, "John Doe", "john2@example.com");
+        when(userRepository.findByNameAfterId("John Doe", 0L, PageRequest.of(0, 2)))
+            .thenReturn(List.of(user1, user2));
+        when(userRepository.findByNameAfterId("John Doe", 2L, PageRequest.of(0, 2)))
+            .thenReturn(List.of());
+
+        // Act
+        UserPage first = userService.findUsersByName("John Doe", 0L, 2);
+        UserPage last = userService.findUsersByName("John Doe", 2L, 2);
+
+        // Assert - 下一页游标为本页最后一个用户的 id，没有下一页时为 null
+        assertEquals(2, first.users().size());
+        assertEquals(2L, first.nextCursor());
+        assertNull(last.nextCursor());
+    }
+
+    @Test
+    void testStreamUsersByNameDetachesEntities() {
+        // Arrange
+        User user1 = new User(1L, "John Doe", "john1@example.com");
+        User user2 = new User(2L, "John Doe", "john2@example.com");
+        when(userRepository.streamByName("John Doe")).thenReturn(Stream.of(user1, user2));
+        List<User> consumed = new ArrayList<>();
+
+        // Act
+        userService.streamUsersByName("John Doe", consumed::add);
+
+        // Assert - 每个用户处理完后都从持久化上下文中移除
+        assertEquals(List.of(user1, user2), consumed);
+        verify(entityManager).detach(user1);
+        verify(entityManager).detach(user2);
+    }
+
+    @Test
+    void testFindUsersByNamesInChunks() {
+        // Arrange - 每条 IN 语句最多 2 个姓名，"Jim Doe" 已经缓存
+        ReflectionTestUtils.setField(userService, "namesChunkSize", 2);
+        User jim = new User(3L, "Jim Doe", "jim@example.com");
+        cache.put("Jim Doe", List.of(jim));
+        User john1 = new User(1L, "John Doe", "john1@example.com");
+        User john2 = new User(2L, "John Doe", "john2@example.com");
+        User jane = new User(4L, "Jane Doe", "jane@example.com");
+        when(userRepository.findByNameIn(List.of("John Doe", "Nobody")))
+            .thenReturn(List.of(john1, john2));
+        when(userRepository.findByNameIn(List.of("Jane Doe"))).thenReturn(List.of(jane));
+
+        // Act - 重复的姓名只查询一次
+        Map<String, List<User>> users = userService.findUsersByNames(
+            List.of("John Doe", "Jim Doe", "Nobody", "John Doe", "Jane Doe"));
+
+        // Assert - 按请求中姓名的顺序返回，没有找到的姓名对应空列表
+        assertEquals(List.of("John Doe", "Jim Doe", "Nobody", "Jane Doe"),
+            List.copyOf(users.keySet()));
+        assertEquals(List.of(john1, john2), users.get("John Doe"));
+        assertEquals(List.of(jim), users.get("Jim Doe"));
+        assertEquals(List.of(), users.get("Nobody"));
+        assertEquals(List.of(jane), users.get("Jane Doe"));
+        verify(userRepository, times(2)).findByNameIn(anyCollection());
+    }
+
+    @Test
+    void testBloomFilterSkipsUnknownNames() {
+        // Arrange - 布隆过滤器中只有 "John Doe"
+        UserNameBloomFilter userNameBloomFilter = mock(UserNameBloomFilter.class);
+        ReflectionTestUtils.setField(userService, "userNameBloomFilter", userNameBloomFilter);
+        ReflectionTestUtils.setField(userService, "namesChunkSize", 500);
+        when(userNameBloomFilter.mightContain("John Doe")).thenReturn(true);
+        User john = new User(1L, "John Doe", "john.doe@example.com");
+        when(userRepository.findByNameIn(List.of("John Doe"))).thenReturn(List.of(john));
+
+        // Act
+        List<User> nobody = userService.findUsersByName("Nobody");
+        Map<String, List<User>> users = userService.findUsersByNames(List.of("Nobody", "John Doe"));
+
+        // Assert - 一定不存在的姓名直接返回空结果，不查询数据库
+        assertEquals(List.of(), nobody);
+        verify(userRepository, never()).findByName("Nobody");
+        assertEquals(List.of(), users.get("Nobody"));
+        assertEquals(List.of(john), users.get("John Doe"));
+        verify(userRepository, times(1)).findByNameIn(anyCollection());
+    }
+
+    @Test
+    void testFindUsersByNameFromSnapshot() {
+        // Arrange - 快照中有 "John Doe"，"Jane Doe" 已经修改过需要查询数据库
+        UserSnapshot userSnapshot = mock(UserSnapshot.class);
+        ReflectionTestUtils.setField(userService, "userSnapshot", userSnapshot);
+        User john = new User(1L, "John Doe", "john.doe@example.com");
+        User jane = new User(2L, "Jane Doe", "jane.doe@example.com");
+        when(userSnapshot.find("John Doe")).thenReturn(List.of(john));
+        when(userSnapshot.find("Jane Doe")).thenReturn(null);
+        when(userRepository.findByName("Jane Doe")).thenReturn(List.of(jane));
+
+        // Act & Assert
+        assertEquals(List.of(john), userService.findUsersByName("John Doe"));
+        assertEquals(List.of(jane), userService.findUsersByName("Jane Doe"));
+        verify(userRepository, never()).findByName("John Doe");
+    }
+
+    @Test
+    void testChangedNameReloadsFromRepositoryWithReplicas() {
+        // Arrange - 开启读写分离，合并查询和快照都可用
+        ReflectionTestUtils.setField(userService, "replicasEnabled", true);
+        ReflectionTestUtils.setField(userService, "replicaMaxLagMillis", 60_000L);
+        UserSnapshot userSnapshot = mock(UserSnapshot.class);
+        UserLookupBatcher userLookupBatcher = mock(UserLookupBatcher.class);
+        ReflectionTestUtils.setField(userService, "userSnapshot", userSnapshot);
+        ReflectionTestUtils.setField(userService, "userLookupBatcher", userLookupBatcher);
+        User john = new User(1L, "John Doe", "john.doe@example.com");
+        User renamed = new User(1L, "John Doe", "john@example.com");
+        when(userSnapshot.find("John Doe")).thenReturn(List.of(john));
+        when(userRepository.findByName("John Doe")).thenReturn(List.of(renamed));
+        assertEquals(List.of(john), userService.findUsersByName("John Doe"));
+
+        // Act - 修改后清除缓存，复制延迟内重新加载
+        userService.onUserChanged(new UserChangedEvent(1L, "John Doe", "John Doe", UserChangedEvent.Type.UPDATED));
+        List<User> users = userService.findUsersByName("John Doe");
+
+        // Assert - 直接在主库上执行 findByName，不经过快照和合并查询
+        assertEquals(List.of(renamed), users);
+        verify(userSnapshot, times(1)).find("John Doe");
+        verify(userLookupBatcher, never()).load(anyString());
+    }
+
+    @Test
+    void testFindUsersByNamesDoesNotModifyCachedLists() {
+        // Arrange - "Alice" 已经缓存（不可修改的列表），"alice" 未命中，
+        // IN 查询按不区分大小写的排序规则同时返回 "Alice" 和 "alice" 的行
+        ReflectionTestUtils.setField(userService, "namesChunkSize", 500);
+        User cachedAlice = new User(1L, "Alice", "alice1@example.com");
+        cache.put("Alice", List.of(cachedAlice));
+        User alice = new User(1L, "Alice", "alice1@example.com");
+        User lowerAlice = new User(2L, "alice", "alice2@example.com");
+        when(userRepository.findByNameIn(List.of("alice"))).thenReturn(List.of(alice, lowerAlice));
+
+        // Act
+        Map<String, List<User>> users = userService.findUsersByNames(List.of("Alice", "alice"));
+
+        // Assert - 已缓存的列表不变；"alice" 与 findByName 一样包含 "Alice" 的行
+        assertEquals(List.of(cachedAlice), users.get("Alice"));
+        assertEquals(List.of(alice, lowerAlice), users.get("alice"));
+        assertEquals(List.of(cachedAlice), cache.get("Alice").get());
+    }
+
+    @Test
+    void testFindUsersByNamesMatchesFindByNameForCaseVariants() {
+        // Arrange - 模拟不区分大小写的排序规则：IN 查询为 "alice" 返回了 "ALICE" 的行
+        ReflectionTestUtils.setField(userService, "namesChunkSize", 500);
+        User upperAlice = new User(1L, "ALICE", "alice@example.com");
+        User bob = new User(2L, "Bob", "bob@example.com");
+        when(userRepository.findByNameIn(List.of("alice", "Bob"))).thenReturn(List.of(upperAlice, bob));
+        when(userRepository.findByName("alice")).thenReturn(List.of(upperAlice));
+
+        // Act
+        Map<String, List<User>> users = userService.findUsersByNames(List.of("alice", "Bob"));
+
+        // Assert - 与 GET /name/{name}（findUsersByName）的结果相同，"alice" 单独查询
+        assertEquals(List.of(upperAlice), users.get("alice"));
+        assertEquals(List.of(bob), users.get("Bob"));
+        assertEquals(userService.findUsersByName("alice"), users.get("alice"));
+        verify(userRepository, never()).findByName("Bob");
+    }
+
+    @Test
+    void testFindUsersByNamesDoesNotDependOnCache() {
+        // Arrange - 同一组姓名先在缓存为空时查询，再在 "alice" 已缓存时查询
+        ReflectionTestUtils.setField(userService, "namesChunkSize", 500);
+        User upperAlice = new User(1L, "ALICE", "alice@example.com");
+        User lowerAlice = new User(2L, "alice", "alice2@example.com");
+        when(userRepository.findByNameIn(List.of("alice", "ALICE")))
+            .thenReturn(List.of(upperAlice, lowerAlice));
+        when(userRepository.findByNameIn(List.of("ALICE")))
+            .thenReturn(List.of(upperAlice, lowerAlice));
+        when(userRepository.findByName("alice")).thenReturn(List.of(upperAlice, lowerAlice));
+        when(userRepository.findByName("ALICE")).thenReturn(List.of(upperAlice, lowerAlice));
+
+        // Act
+        Map<String, List<User>> uncached = userService.findUsersByNames(List.of("alice", "ALICE"));
+        userService.findUsersByName("alice");
+        Map<String, List<User>> cached = userService.findUsersByNames(List.of("alice", "ALICE"));
+
+        // Assert - 两个姓名在排序规则下相等，结果相同，与 "alice" 是否命中缓存无关
+        assertEquals(uncached, cached);
+        assertEquals(List.of(upperAlice, lowerAlice), cached.get("ALICE"));
+    }
+
+    @Test
+    void testSearchUsersFromIndex() {
+        // Arrange - 开启姓名索引
+        UserNameIndex userNameIndex = mock(UserNameIndex.class);
+        ReflectionTestUtils.setField(userService, "userNameIndex", userNameIndex);
+        when(userNameIndex.search("jo", 10)).thenReturn(List.of(new UserNameMatch(1L, "John Doe")));
+
+        // Act
+        List<UserNameMatch> matches = userService.searchUsers("jo", 10);
+
+        // Assert - 不查询数据库
+        assertEquals(List.of(new UserNameMatch(1L, "John Doe")), matches);
+        verify(userRepository, never()).searchByNamePrefix(anyString(), anyString(), any());
+    }
+
+    @Test
+    void testSearchUsersWithoutIndex() {
+        // Arrange - 关闭姓名索引时查询数据库，搜索词统一为小写并转义 LIKE 的通配符
+        when(userRepository.searchByNamePrefix("jo!_!%%", "% jo!_!%%", PageRequest.of(0, 10)))
+            .thenReturn(List.of(new UserNameMatch(1L, "Jo_% Doe")));
+
+        // Act
+        List<UserNameMatch> matches = userService.searchUsers(" ＪＯ_% ", 10);
+
+        // Assert
+        assertEquals(List.of(new UserNameMatch(1L, "Jo_% Doe")), matches);
+        assertTrue(userService.searchUsers("  ", 10).isEmpty());
+        verify(userRepository, times(1)).searchByNamePrefix(anyString(), anyString(), any());
+    }
 }
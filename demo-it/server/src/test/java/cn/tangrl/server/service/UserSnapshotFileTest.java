@@ -0,0 +1,108 @@
+package cn.tangrl.server.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import cn.tangrl.server.model.User;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class UserSnapshotFileTest {
+
+    @TempDir
+    private Path directory;  // 每个测试使用独立的临时目录
+
+    private UserSnapshotFile write(User... users) throws IOException {
+        Path path = directory.resolve("users.snapshot");
+        UserSnapshotFile.write(path, List.of(users).iterator(), 1000L);
+        return UserSnapshotFile.open(path);
+    }
+
+    @Test
+    void testFindByExactName() throws IOException {
+        // Arrange - 写入顺序与姓名顺序无关，重名的用户按 id 排序
+        UserSnapshotFile snapshot = write(new User(3L, "John Doe", "john3@example.com"),
+            new User(2L, "Jane Doe", null), new User(1L, "John Doe", "john1@example.com"),
+            new User(4L, "Zoë", "zoe@example.com"), new User(5L, "张三", "zhang@example.com"));
+
+        // Act & Assert
+        assertEquals(List.of(new User(1L, "John Doe", "john1@example.com"),
+            new User(3L, "John Doe", "john3@example.com")), snapshot.find("John Doe"));
+        assertEquals(List.of(new User(2L, "Jane Doe", null)), snapshot.find("Jane Doe"));
+        assertEquals(List.of(new User(4L, "Zoë", "zoe@example.com")), snapshot.find("Zoë"));
+        assertEquals(List.of(new User(5L, "张三", "zhang@example.com")), snapshot.find("张三"));
+        // 前缀不同不算
+        assertTrue(snapshot.find("John").isEmpty());
+        assertTrue(snapshot.find("").isEmpty());
+        assertEquals(5, snapshot.rowCount());
+        assertEquals(1000L, snapshot.createdAtMillis());
+    }
+
+    @Test
+    void testCaseAndAccentVariants() throws IOException {
+        // Arrange - MySQL 默认的排序规则下 "John Doe" 与 "JOHN DOE"、"Zoë" 与 "zoe" 相等
+        UserSnapshotFile snapshot = write(new User(1L, "John Doe", "john@example.com"),
+            new User(2L, "Zoë", "zoe@example.com"), new User(3L, "JOHN DOE", "john3@example.com"));
+
+        // Act & Assert - 只有完全相同的行时直接返回；与快照中的行大小写、重音不同时由调用方查询数据库
+        assertEquals(List.of(new User(2L, "Zoë", "zoe@example.com")), snapshot.find("Zoë"));
+        assertNull(snapshot.find("zoe"));
+        // 快照中有大小写不同的两行，无法判断数据库的结果
+        assertNull(snapshot.find("John Doe"));
+        assertNull(snapshot.find("john doe"));
+        // 0900 排序规则是 NO PAD 的，末尾空格不同的姓名不相等
+        assertTrue(snapshot.find("Zoë ").isEmpty());
+    }
+
+    @Test
+    void testManyRows() throws IOException {
+        // Arrange - 2000 个姓名各 5 行，倒序写入
+        List<User> users = new ArrayList<>();
+        for (long id = 10_000; id > 0; id--) {
+            users.add(new User(id, "user" + id % 2000, "u" + id + "@example.com"));
+        }
+        UserSnapshotFile.write(directory.resolve("users.snapshot"), users.iterator(), 0L);
+        UserSnapshotFile snapshot = UserSnapshotFile.open(directory.resolve("users.snapshot"));
+
+        // Act & Assert
+        assertEquals(List.of(7L, 2007L, 4007L, 6007L, 8007L),
+            snapshot.find("user7").stream().map(User::getId).toList());
+        assertEquals(5, snapshot.find("user1999").size());
+        assertTrue(snapshot.find("user2000").isEmpty());
+        assertEquals(Files.size(directory.resolve("users.snapshot")), snapshot.sizeInBytes());
+    }
+
+    @Test
+    void testEmptyAndNullNames() throws IOException {
+        // Act - 没有姓名的行不写入
+        UserSnapshotFile snapshot = write(new User(1L, null, "nobody@example.com"));
+
+        // Assert
+        assertEquals(0, snapshot.rowCount());
+        assertTrue(snapshot.find("John Doe").isEmpty());
+    }
+
+    @Test
+    void testRejectsInvalidFiles() throws IOException {
+        // Arrange
+        Path garbage = Files.write(directory.resolve("garbage.snapshot"), new byte[64]);
+        Path empty = Files.write(directory.resolve("empty.snapshot"), new byte[0]);
+        write(new User(1L, "John Doe", null));
+        Path truncated = directory.resolve("users.snapshot");
+        byte[] bytes = Files.readAllBytes(truncated);
+        Files.write(truncated, Arrays.copyOf(bytes, bytes.length - 1));
+
+        // Act & Assert
+        assertThrows(IOException.class, () -> UserSnapshotFile.open(garbage));
+        assertThrows(IOException.class, () -> UserSnapshotFile.open(empty));
+        assertThrows(IOException.class, () -> UserSnapshotFile.open(truncated));
+    }
+}
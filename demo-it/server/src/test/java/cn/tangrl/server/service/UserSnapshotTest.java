@@ -0,0 +1,238 @@
+package cn.tangrl.server.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import cn.tangrl.server.event.UserChangedEvent;
+import cn.tangrl.server.event.UserChangedEvent.Type;
+import cn.tangrl.server.model.User;
+import cn.tangrl.server.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+public class UserSnapshotTest {
+
+    private static final User JOHN = new User(1L, "John Doe", "john.doe@example.com");
+
+    private static final User JANE = new User(2L, "Jane Doe", "jane.doe@example.com");
+
+    @Mock
+    private UserRepository userRepository;  // 模拟 UserRepository 依赖
+
+    @Mock
+    private PlatformTransactionManager transactionManager;  // 模拟事务管理器
+
+    @TempDir
+    private Path directory;  // 快照目录
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private Instant now = Instant.ofEpochSecond(1_000_000);
+
+    private UserSnapshot userSnapshot;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);  // 初始化 Mockito 注解
+        meterRegistry = new SimpleMeterRegistry();
+        userSnapshot = newUserSnapshot();
+    }
+
+    // 刷新间隔 60 秒，最多使用 120 秒前导出的快照
+    private UserSnapshot newUserSnapshot() {
+        UserSnapshot snapshot = new UserSnapshot(userRepository, transactionManager, meterRegistry,
+            directory.toString(), 60_000, 120_000);
+        ReflectionTestUtils.setField(snapshot, "clock", Clock.fixed(now, ZoneOffset.UTC));
+        return snapshot;
+    }
+
+    private void advance(Duration duration) {
+        now = now.plus(duration);
+        ReflectionTestUtils.setField(userSnapshot, "clock", Clock.fixed(now, ZoneOffset.UTC));
+    }
+
+    private void users(User... users) {
+        when(userRepository.streamAllUsers()).thenReturn(Stream.of(users));
+    }
+
+    @Test
+    void testFallbackBeforeLoad() {
+        // Act & Assert - 还没有快照时由调用方查询数据库
+        assertNull(userSnapshot.find("John Doe"));
+        assertEquals(1, meterRegistry.get("users.snapshot.lookups").tag("result", "fallback")
+            .counter().count());
+    }
+
+    @Test
+    void testLoadExportsSnapshot() {
+        // Arrange
+        users(JOHN, JANE);
+
+        // Act
+        userSnapshot.load();
+
+        // Assert - 快照中的姓名不查询数据库，不存在的姓名返回空列表
+        assertEquals(List.of(JOHN), userSnapshot.find("John Doe"));
+        assertEquals(List.of(), userSnapshot.find("Nobody"));
+        assertEquals(2, userSnapshot.rowCount());
+        assertEquals(2, meterRegistry.get("users.snapshot.lookups").tag("result", "hit")
+            .counter().count());
+        assertEquals(2, meterRegistry.get("users.snapshot.rows").gauge().value());
+        verify(userRepository, never()).findByName("John Doe");
+    }
+
+    @Test
+    void testStaleSnapshotFallsBack() {
+        // Arrange
+        users(JOHN);
+        userSnapshot.load();
+
+        // Act & Assert - 超过 max-staleness 后不再使用
+        advance(Duration.ofSeconds(120));
+        assertEquals(List.of(JOHN), userSnapshot.find("John Doe"));
+        advance(Duration.ofSeconds(1));
+        assertNull(userSnapshot.find("John Doe"));
+        assertEquals(121, meterRegistry.get("users.snapshot.age").gauge().value());
+    }
+
+    @Test
+    void testChangedNamesFallBack() {
+        // Arrange
+        users(JOHN, JANE);
+        userSnapshot.load();
+
+        // Act - John 改名为 Johnny
+        userSnapshot.onUserChanged(new UserChangedEvent(1L, "Johnny Doe", "John Doe", Type.UPDATED));
+
+        // Assert - 新旧姓名都查询数据库，其他姓名仍然使用快照
+        assertNull(userSnapshot.find("John Doe"));
+        assertNull(userSnapshot.find("Johnny Doe"));
+        assertEquals(List.of(JANE), userSnapshot.find("Jane Doe"));
+    }
+
+    @Test
+    void testChangedCaseVariantFallsBack() {
+        // Arrange
+        users(JOHN, JANE);
+        userSnapshot.load();
+
+        // Act - 新增的 "JOHN DOE" 在 MySQL 默认的排序规则下与 "John Doe" 相等
+        userSnapshot.onUserChanged(new UserChangedEvent(3L, "JOHN DOE", null, Type.CREATED));
+
+        // Assert - findByName("John Doe") 会返回新增的行，不能再使用快照
+        assertNull(userSnapshot.find("John Doe"));
+        assertNull(userSnapshot.find("john doe"));
+        assertEquals(List.of(JANE), userSnapshot.find("Jane Doe"));
+    }
+
+    @Test
+    void testRefreshReplacesSnapshot() throws IOException {
+        // Arrange
+        users(JOHN);
+        userSnapshot.load();
+        userSnapshot.onUserChanged(new UserChangedEvent(2L, "Jane Doe", null, Type.CREATED));
+
+        // Act - 重新导出后包含新用户，旧文件被删除
+        advance(Duration.ofSeconds(60));
+        users(JOHN, JANE);
+        userSnapshot.refresh();
+
+        // Assert
+        assertEquals(List.of(JANE), userSnapshot.find("Jane Doe"));
+        assertEquals(0, userSnapshot.ageMillis());
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(1, files.count());
+        }
+    }
+
+    @Test
+    void testChangeDuringRefreshIsKept() {
+        // Arrange - 导出期间 Jane 被删除
+        users(JOHN);
+        userSnapshot.load();
+        when(userRepository.streamAllUsers()).thenAnswer(invocation -> {
+            userSnapshot.onUserChanged(new UserChangedEvent(2L, "Jane Doe", null, Type.DELETED));
+            return Stream.of(JOHN, JANE);
+        });
+
+        // Act
+        userSnapshot.refresh();
+
+        // Assert - 导出期间修改的姓名在新快照中也查询数据库
+        assertNull(userSnapshot.find("Jane Doe"));
+        assertEquals(List.of(JOHN), userSnapshot.find("John Doe"));
+    }
+
+    @Test
+    void testFailedRefreshKeepsPreviousSnapshot() throws IOException {
+        // Arrange
+        users(JOHN);
+        userSnapshot.load();
+        when(userRepository.streamAllUsers()).thenThrow(new IllegalStateException("database down"));
+
+        // Act
+        userSnapshot.refresh();
+
+        // Assert - 仍然使用原来的快照，没有留下临时文件
+        assertEquals(List.of(JOHN), userSnapshot.find("John Doe"));
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(1, files.count());
+        }
+    }
+
+    @Test
+    void testRestartUsesExistingSnapshot() {
+        // Arrange - 上一个进程导出的快照
+        users(JOHN);
+        userSnapshot.load();
+
+        // Act - 重启后不重新导出
+        advance(Duration.ofSeconds(30));
+        UserSnapshot restarted = newUserSnapshot();
+        when(userRepository.streamAllUsers()).thenThrow(new AssertionError("should not export"));
+        restarted.load();
+
+        // Assert
+        assertEquals(List.of(JOHN), restarted.find("John Doe"));
+        assertEquals(30_000, restarted.ageMillis());
+    }
+
+    @Test
+    void testRestartIgnoresOldSnapshot() {
+        // Arrange
+        users(JOHN);
+        userSnapshot.load();
+
+        // Act - 超过刷新间隔的快照在重启后重新导出
+        advance(Duration.ofSeconds(61));
+        UserSnapshot restarted = newUserSnapshot();
+        users(JANE);
+        restarted.load();
+
+        // Assert
+        assertEquals(List.of(), restarted.find("John Doe"));
+        assertEquals(List.of(JANE), restarted.find("Jane Doe"));
+        assertFalse(restarted.ageMillis() > 0);
+        assertTrue(restarted.sizeInBytes() > 0);
+    }
+}
@@ -1,20 +1,27 @@
 package cn.tangrl.ut.model;
 
+import cn.tangrl.common.validation.EmailValidator;
+import cn.tangrl.common.validation.ValidEmail;
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.Table;
-import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Entity
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
+// 二级缓存，区域配置见 demo-common 的 users-ehcache.xml；READ_WRITE 在更新、删除提交前锁定缓存条目，提交后写入新值，不会读到旧数据
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "users")
 @Table(name = "users")
 public class User {
 
@@ -25,11 +32,12 @@ public class User {
     @NotBlank(message = "Name is mandatory")
     private String name;
 
-    @Email(message = "Email should be valid")
+    // 与 isValidEmail 使用同一个校验器
+    @ValidEmail(message = "Email should be valid")
     private String email;
 
     // 简单的业务逻辑：验证电子邮件格式
     public boolean isValidEmail() {
-        return this.email != null && this.email.matches("^[A-Za-z0-9+_.-]+@(.+)$");
+        return EmailValidator.isValid(this.email);
     }
 }